@@ -0,0 +1,136 @@
+package com.example.shop.build;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step of the default Maven build ({@code process-resources}): writes {@code .gz} and,
+ * when the {@code brotli} command is installed, {@code .br} variants next to the text assets of
+ * the UI build, so that they are compressed once at maximum level instead of on every response.
+ * Started as a single-file program ({@code java PrecompressAssets.java <dir>}), it needs nothing
+ * but the JDK.
+ *
+ * <p>Files below {@link #MIN_SIZE} and variants that save less than 10% are skipped; variants
+ * newer than their source are kept.
+ */
+public final class PrecompressAssets {
+
+    private static final Set<String> EXTENSIONS = Set.of(
+        "js", "css", "html", "json", "map", "txt", "svg", "ico", "webmanifest");
+    private static final long MIN_SIZE = 1024;
+
+    private PrecompressAssets() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Использование: java PrecompressAssets.java <каталог со статикой>");
+            System.exit(2);
+        }
+        Path root = Path.of(args[0]);
+        if (!Files.isDirectory(root)) {
+            System.out.println("[precompress] нет каталога " + root + ", пропускаем");
+            return;
+        }
+        boolean brotli = brotliAvailable();
+        if (!brotli) {
+            System.out.println("[precompress] brotli не установлен, создаются только .gz");
+        }
+
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(root)) {
+            sources = files.filter(Files::isRegularFile).filter(PrecompressAssets::compressible)
+                .toList();
+        }
+        int written = 0;
+        long originalBytes = 0;
+        long gzipBytes = 0;
+        for (Path source : sources) {
+            long size = Files.size(source);
+            Path gz = variant(source, ".gz");
+            if (upToDate(source, gz) || gzip(source, gz, size)) {
+                written++;
+                originalBytes += size;
+                gzipBytes += Files.size(gz);
+            }
+            Path br = variant(source, ".br");
+            if (brotli && !upToDate(source, br) && brotli(source, br, size)) {
+                written++;
+            }
+        }
+        System.out.printf("[precompress] %d вариантов для %d файлов в %s, gzip: %d -> %d байт%n",
+            written, sources.size(), root, originalBytes, gzipBytes);
+    }
+
+    private static boolean compressible(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        try {
+            return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1))
+                && Files.size(file) >= MIN_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean gzip(Path source, Path target, long size) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            Files.copy(source, out);
+        }
+        return keepIfSmaller(target, size);
+    }
+
+    private static boolean brotli(Path source, Path target, long size) throws Exception {
+        Process process = new ProcessBuilder("brotli", "--quality=11", "--force",
+            "--output=" + target, source.toString()).inheritIO().start();
+        if (!process.waitFor(5, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            process.destroy();
+            throw new IOException("brotli завершился с ошибкой для " + source);
+        }
+        return keepIfSmaller(target, size);
+    }
+
+    private static boolean keepIfSmaller(Path variant, long originalSize) throws IOException {
+        if (Files.size(variant) <= originalSize * 0.9) {
+            return true;
+        }
+        Files.delete(variant);
+        return false;
+    }
+
+    private static boolean upToDate(Path source, Path variant) throws IOException {
+        return Files.exists(variant)
+            && Files.getLastModifiedTime(variant).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
+
+    private static Path variant(Path source, String extension) {
+        return source.resolveSibling(source.getFileName() + extension);
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version")
+                .redirectErrorStream(true).start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
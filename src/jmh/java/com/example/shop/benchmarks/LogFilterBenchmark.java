@@ -0,0 +1,112 @@
+package com.example.shop.benchmarks;
+
+import ch.qos.logback.classic.Logger;
+import com.example.shop.controllers.LogController;
+import com.example.shop.logs.LogArchives;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * {@code LogController} date filtering over a synthetic {@code logs/app.log}.
+ *
+ * <p>The file is generated once in the working directory ({@code target/jmh}) and reused
+ * while its size matches. Multi-GB runs: {@code -Djmh.args="LogFilter -p logSizeMb=4096"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LogFilterBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 5, 13);
+    private static final int DAYS = 7;
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "WARN", "ERROR", "DEBUG"};
+
+    @Param({"256"})
+    private int logSizeMb;
+
+    private final LogController controller = new LogController(new LogArchives("logs/app.log"));
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+            .setLevel(ch.qos.logback.classic.Level.WARN);
+        Path log = Paths.get("logs", "app.log");
+        long target = logSizeMb * 1024L * 1024L;
+        if (Files.exists(log) && Math.abs(Files.size(log) - target) < 1024 * 1024) {
+            return;
+        }
+        Files.createDirectories(log.getParent());
+        long bytesPerDay = target / DAYS;
+        try (BufferedWriter writer = Files.newBufferedWriter(log)) {
+            long written = 0;
+            long line = 0;
+            while (written < target) {
+                LocalDate day = FIRST_DAY.plusDays(Math.min(DAYS - 1, written / bytesPerDay));
+                String text = String.format(
+                    "%sT%02d:%02d:%02d.%03dZ %5s 1234 --- [nio-8080-exec-%d] "
+                        + "c.e.shop.services.ShopService : Вызов метода номер %d%n",
+                    day, line / 3600 % 24, line / 60 % 60, line % 60, line % 1000,
+                    LEVELS[(int) (line % LEVELS.length)], line % 10, line);
+                writer.write(text);
+                written += text.length();
+                line++;
+            }
+        }
+    }
+
+    @Benchmark
+    public long filterSingleDay() throws IOException {
+        return drain(controller.getLogs(FIRST_DAY.plusDays(DAYS / 2).toString(), null, null));
+    }
+
+    @Benchmark
+    public long filterRange() throws IOException {
+        return drain(controller.getLogs(
+            null, FIRST_DAY.plusDays(1).toString(), FIRST_DAY.plusDays(3).toString()));
+    }
+
+    private long drain(ResponseEntity<InputStreamResource> response) throws IOException {
+        try (InputStream in = response.getBody().getInputStream()) {
+            return in.transferTo(OutputStreamSink.INSTANCE);
+        }
+    }
+
+    private static final class OutputStreamSink extends OutputStream {
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+            // данные только вычитываются
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // данные только вычитываются
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.shop.benchmarks;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of {@code Order} lists as returned by the order endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int orders;
+
+    @Param({"3"})
+    private int productsPerOrder;
+
+    private ObjectMapper objectMapper;
+    private List<Order> payload;
+
+    @Setup
+    public void setUp() {
+        // Тот же построитель, что использует Spring MVC
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Category category = new Category("Electronics");
+        category.setId(1L);
+        User user = new User("alice");
+        user.setId(1L);
+
+        payload = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            List<Product> products = new ArrayList<>(productsPerOrder);
+            for (int j = 0; j < productsPerOrder; j++) {
+                Product product = new Product("product-" + j, 10.0 + j);
+                product.setId((long) j);
+                product.setCategories(List.of(category));
+                products.add(product);
+            }
+            Order order = new Order(user, products);
+            order.setId((long) i);
+            payload.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+}
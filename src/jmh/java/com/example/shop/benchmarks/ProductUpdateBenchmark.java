@@ -0,0 +1,102 @@
+package com.example.shop.benchmarks;
+
+import com.example.shop.ShopFixture;
+import com.example.shop.models.Product;
+import com.example.shop.services.ShopService;
+import com.example.shop.services.ShopService.ProductPatch;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Price-sync style contention on one product: every thread reads it and writes price + 1.
+ * {@code readThenPut} is the full-replace path, whose concurrent commits either fail or
+ * overwrite each other; {@code patchWithRetry} sends the version it read and re-reads on
+ * conflict, so no increment is lost. The {@code conflicts} counter is failed PUTs or PATCH
+ * retries per second; the increments PUT lost are printed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ProductUpdateBenchmark {
+
+    private ShopFixture shop;
+    private ShopService shopService;
+    private long productId;
+    private double startPrice;
+    private final AtomicLong writes = new AtomicLong();
+
+    /** Per-thread counters that JMH reports next to the throughput. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Conflicts {
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Каждый конфликт LoggingAspect пишет как ERROR: это искажает замер
+        shop = ShopFixture.start("jmh_update",
+            List.of("--logging.level.com.example.shop.aspects.LoggingAspect=OFF"));
+        shopService = shop.shopService();
+        Product product = new Product("Contended", 100.0);
+        product.setCategories(List.of());
+        product = shopService.saveProduct(product);
+        productId = product.getId();
+        startPrice = product.getPrice();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        double price = shopService.getProductById(productId).orElseThrow().getPrice();
+        System.out.printf("%n%d успешных записей, потеряно %d%n", writes.get(),
+            writes.get() - Math.round(price - startPrice));
+        shop.close();
+    }
+
+    @Benchmark
+    public void readThenPut(Conflicts counters) {
+        Product current = shopService.getProductById(productId).orElseThrow();
+        Product updated = new Product(current.getName(), current.getPrice() + 1);
+        try {
+            shopService.updateProduct(productId, updated);
+            writes.incrementAndGet();
+        } catch (RuntimeException e) {
+            counters.conflicts++;
+        }
+    }
+
+    @Benchmark
+    public void patchWithRetry(Conflicts counters) {
+        while (true) {
+            Product current = shopService.getProductById(productId).orElseThrow();
+            try {
+                shopService.patchProduct(productId, new ProductPatch(
+                    current.getVersion(), null, current.getPrice() + 1, null));
+                writes.incrementAndGet();
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                counters.conflicts++;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.shop.benchmarks;
+
+import com.example.shop.ShopFixture;
+import com.example.shop.models.Order;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code ShopService} hot paths against embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShopServiceBenchmark {
+
+    @Param({"1000"})
+    private int products;
+
+    @Param({"2000"})
+    private int orders;
+
+    private ShopFixture shop;
+    private Random random;
+    private String hotProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        shop = ShopFixture.start("jmh_service", List.of()).seed(200, products, 20, orders);
+        random = new Random(7);
+        hotProduct = shop.productNames().get(0);
+        shop.shopService().getOrdersByProductName(hotProduct);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Benchmark
+    public Order saveOrder() {
+        return shop.shopService().saveOrder(shop.newOrder(random));
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByProductNameCacheHit() {
+        return shop.shopService().getOrdersByProductName(hotProduct);
+    }
+
+    /**
+     * Clearing the cache is part of the measured time; it is a constant-time
+     * {@code invalidateAll} on a small cache, negligible next to the query.
+     */
+    @Benchmark
+    public List<Order> getOrdersByProductNameCacheMiss() {
+        shop.shopService().clearOrderCache();
+        return shop.shopService().getOrdersByProductName(
+            shop.productNames().get(random.nextInt(products)));
+    }
+}
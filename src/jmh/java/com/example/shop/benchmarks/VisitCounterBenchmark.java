@@ -0,0 +1,60 @@
+package com.example.shop.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.shop.services.VisitCounterService;
+import com.example.shop.stats.HeavyHitters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@code VisitCounterService.recordVisit} under contention: every request thread goes
+ * through the shared rate limiter and heavy-hitters table. Above 1000 visits/s most calls take
+ * the rejection path, exactly as they do in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class VisitCounterBenchmark {
+
+    private static final String[] ENDPOINTS = {
+        "/api/products", "/api/orders", "/api/orders/by-product", "/api/orders/by-username",
+        "/api/categories", "/api/users", "/logs", "/async-logs/generate"
+    };
+
+    private final VisitCounterService service =
+        new VisitCounterService(new SimpleMeterRegistry(), new HeavyHitters(256));
+
+    @Setup
+    public void setUp() {
+        // Без Spring logback пишет DEBUG в консоль; предупреждения лимитера искажают замер
+        ((Logger) LoggerFactory.getLogger(VisitCounterService.class)).setLevel(Level.OFF);
+    }
+
+    @Benchmark
+    public void recordVisitSameEndpoint() {
+        service.recordVisit("/api/products");
+    }
+
+    @Benchmark
+    public void recordVisitSpreadEndpoints() {
+        service.recordVisit(ENDPOINTS[ThreadLocalRandom.current().nextInt(ENDPOINTS.length)]);
+    }
+}
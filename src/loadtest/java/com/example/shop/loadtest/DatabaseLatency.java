@@ -0,0 +1,158 @@
+package com.example.shop.loadtest;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds a fixed delay to every statement the application executes, as if the embedded H2 were a
+ * database across the network: JDBC statements sleep on the calling thread, R2DBC statements
+ * wait on a timer. The delay is off until {@link #enable()}, so seeding runs at full speed.
+ */
+final class DatabaseLatency implements BeanPostProcessor {
+
+    private final Duration latency;
+    private volatile boolean enabled;
+
+    DatabaseLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    void enable() {
+        enabled = !latency.isZero();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return new DelayingDataSource(dataSource);
+        }
+        if (bean instanceof DatabaseClient client) {
+            return DatabaseClient.create(proxy(ConnectionFactory.class,
+                client.getConnectionFactory(), this::connectionFactory));
+        }
+        return bean;
+    }
+
+    private Object connectionFactory(Object target, Method method, Object[] args)
+            throws Throwable {
+        Object result = invoke(target, method, args);
+        if ("create".equals(method.getName())) {
+            return Mono.from((Publisher<?>) result)
+                .map(connection -> proxy(Connection.class, connection, this::connection));
+        }
+        return result;
+    }
+
+    private Object connection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        if (result instanceof Statement statement) {
+            return proxy(Statement.class, statement, this::statement);
+        }
+        return result;
+    }
+
+    private Object statement(Object target, Method method, Object[] args) throws Throwable {
+        if ("execute".equals(method.getName()) && enabled) {
+            return Mono.delay(latency)
+                .thenMany(Flux.defer(() -> ((Statement) target).execute()));
+        }
+        return invoke(target, method, args);
+    }
+
+    private void sleep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    /** Proxies {@code target}; fluent methods returning the target return the proxy instead. */
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(DatabaseLatency.class.getClassLoader(),
+            new Class<?>[] {type}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args)
+                        throws Throwable {
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    }
+                    Object result = handler.handle(target, method, args);
+                    return result == target ? proxy : result;
+                }
+            }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class DelayingDataSource extends DelegatingDataSource
+            implements AutoCloseable {
+
+        DelayingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public java.sql.Connection getConnection() throws java.sql.SQLException {
+            return proxy(java.sql.Connection.class, obtainTargetDataSource().getConnection(),
+                this::jdbcConnection);
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object jdbcConnection(Object target, Method method, Object[] args)
+                throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof java.sql.Statement
+                    && java.sql.Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy((Class<Object>) method.getReturnType(), result,
+                    this::jdbcStatement);
+            }
+            return result;
+        }
+
+        private Object jdbcStatement(Object target, Method method, Object[] args)
+                throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                sleep();
+            }
+            return invoke(target, method, args);
+        }
+    }
+}
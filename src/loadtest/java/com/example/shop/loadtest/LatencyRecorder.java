@@ -0,0 +1,54 @@
+package com.example.shop.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Raw latency samples of one scenario. Every worker owns its own recorder, recorders are merged
+ * once the run is over, so recording needs no synchronization.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean failed) {
+        if (failed) {
+            errors++;
+            return;
+        }
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Summary(size, errors, size / seconds,
+            percentile(sorted, 0.50), percentile(sorted, 0.99),
+            size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /** Latencies are in milliseconds. */
+    record Summary(long requests, long errors, double rps, double p50, double p99, double max) {
+    }
+}
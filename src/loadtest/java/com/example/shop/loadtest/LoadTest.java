@@ -0,0 +1,160 @@
+package com.example.shop.loadtest;
+
+import com.example.shop.ShopApplication;
+import com.example.shop.ShopFixture;
+import com.example.shop.loadtest.LatencyRecorder.Summary;
+import com.example.shop.loadtest.Scenario.SeedData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.ApplicationContextInitializer;
+
+/**
+ * End-to-end load test: starts {@link ShopApplication} on an embedded H2 database, seeds it and
+ * drives the HTTP API with a closed-loop request mix. Needs no network access or external services.
+ *
+ * <p>Example: {@code --products=5000 --orders=20000 --concurrency=64 --duration=60s
+ * --shop.threads.virtual=true}
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args, "loadtest-report.json");
+        try (ShopFixture shop = start(options)) {
+            String baseUrl = shop.baseUrl();
+            SeedData seed = seed(shop, options);
+
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+            System.out.printf("Прогрев: %s, %d потоков%n", options.warmup, options.concurrency);
+            run(client, baseUrl, seed, options.concurrency, options.warmup);
+
+            System.out.printf("Замер: %s, %d потоков%n", options.duration, options.concurrency);
+            long started = System.nanoTime();
+            Map<Scenario, LatencyRecorder> results =
+                run(client, baseUrl, seed, options.concurrency, options.duration);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            report(options, results, seconds);
+        }
+    }
+
+    static ShopFixture start(LoadTestOptions options,
+                             ApplicationContextInitializer<?>... initializers) {
+        return ShopFixture.start("loadtest", options.applicationArgs, initializers);
+    }
+
+    static SeedData seed(ShopFixture shop, LoadTestOptions options) {
+        System.out.printf("Наполнение: %d пользователей, %d продуктов, %d категорий, %d заказов%n",
+            options.users, options.products, options.categories, options.orders);
+        shop.seed(options.users, options.products, options.categories, options.orders);
+        return new SeedData(shop.userIds(), shop.userNames(), shop.productIds(),
+            shop.productNames());
+    }
+
+    private static Map<Scenario, LatencyRecorder> run(HttpClient client, String baseUrl,
+                                                      SeedData seed, int concurrency,
+                                                      Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Map<Scenario, LatencyRecorder>>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                long workerSeed = i;
+                futures.add(workers.submit(
+                    () -> work(client, baseUrl, seed, deadline, workerSeed)));
+            }
+            Map<Scenario, LatencyRecorder> merged = newRecorders();
+            for (Future<Map<Scenario, LatencyRecorder>> future : futures) {
+                future.get().forEach((scenario, recorder) -> merged.get(scenario).merge(recorder));
+            }
+            return merged;
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Map<Scenario, LatencyRecorder> work(HttpClient client, String baseUrl,
+                                                       SeedData seed, long deadline,
+                                                       long workerSeed) {
+        Random random = new Random(workerSeed);
+        Map<Scenario, LatencyRecorder> recorders = newRecorders();
+        while (System.nanoTime() < deadline) {
+            Scenario scenario = Scenario.pick(random);
+            long start = System.nanoTime();
+            boolean failed;
+            try {
+                HttpResponse<Void> response = client.send(scenario.request(baseUrl, seed, random),
+                    HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            recorders.get(scenario).record(System.nanoTime() - start, failed);
+        }
+        return recorders;
+    }
+
+    private static Map<Scenario, LatencyRecorder> newRecorders() {
+        Map<Scenario, LatencyRecorder> recorders = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            recorders.put(scenario, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private static void report(LoadTestOptions options, Map<Scenario, LatencyRecorder> results,
+                               double seconds) throws IOException {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        results.forEach((scenario, recorder) -> {
+            summaries.put(scenario.name(), recorder.summarize(seconds));
+            total.merge(recorder);
+        });
+        summaries.put("TOTAL", total.summarize(seconds));
+
+        System.out.printf("%-18s %10s %8s %10s %10s %10s %10s%n",
+            "scenario", "requests", "errors", "rps", "p50, ms", "p99, ms", "max, ms");
+        summaries.forEach((name, s) -> System.out.printf(
+            "%-18s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+            name, s.requests(), s.errors(), s.rps(), s.p50(), s.p99(), s.max()));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("users", options.users);
+        document.put("products", options.products);
+        document.put("categories", options.categories);
+        document.put("orders", options.orders);
+        document.put("concurrency", options.concurrency);
+        document.put("durationSeconds", seconds);
+        document.put("applicationArgs", options.applicationArgs);
+        document.put("scenarios", summaries);
+        Path path = Path.of(options.report);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(path.toFile(), document);
+        System.out.println("Отчёт: " + path.toAbsolutePath());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.shop.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line options of the load test: {@code --key=value}. Unknown {@code --spring.*},
+ * {@code --server.*} and {@code --shop.*} options are passed through to the application under
+ * test. {@code rate} and {@code db-latency} are used by {@link ReactiveBenchmark} and
+ * {@link VirtualThreadBenchmark} only.
+ */
+final class LoadTestOptions {
+
+    int users = 200;
+    int products = 1000;
+    int categories = 20;
+    int orders = 2000;
+    int concurrency = 32;
+    Duration warmup = Duration.ofSeconds(5);
+    Duration duration = Duration.ofSeconds(30);
+    int rate = 200;
+    Duration dbLatency = Duration.ofMillis(20);
+    String report;
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args, String defaultReport) {
+        LoadTestOptions options = new LoadTestOptions();
+        options.report = defaultReport;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --key=value: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "products" -> options.products = Integer.parseInt(value);
+                case "categories" -> options.categories = Integer.parseInt(value);
+                case "orders" -> options.orders = Integer.parseInt(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "db-latency" -> options.dbLatency = parseDuration(value);
+                case "report" -> options.report = value;
+                default -> {
+                    if (!key.startsWith("spring.") && !key.startsWith("server.")
+                            && !key.startsWith("shop.")) {
+                        throw new IllegalArgumentException("Неизвестный параметр: " + key);
+                    }
+                    options.applicationArgs.add(arg);
+                }
+            }
+        }
+        return options;
+    }
+
+    /** Passes {@code --key=value} to the application unless the command line already sets it. */
+    void applicationDefault(String key, String value) {
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--" + key + "="))) {
+            applicationArgs.add("--" + key + "=" + value);
+        }
+    }
+
+    /** Accepts plain seconds ({@code 30}) or {@code 500ms}/{@code 30s}/{@code 2m}. */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.shop.loadtest;
+
+import com.example.shop.ShopFixture;
+import com.example.shop.jdbc.PoolMetrics;
+import com.example.shop.jdbc.PoolMetrics.PoolSnapshot;
+import com.example.shop.loadtest.LatencyRecorder.Summary;
+import com.example.shop.loadtest.Scenario.SeedData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.r2dbc.pool.ConnectionPool;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares the servlet and the reactive order lookups ({@code /api/orders/by-product},
+ * {@code /api/orders/by-username} and the same under {@code /reactive}) at a fixed request rate:
+ * latency plus how many Tomcat threads and database connections each path keeps busy.
+ *
+ * <p>The load is open-loop: requests are sent every {@code 1/rate} seconds whether or not the
+ * previous ones have finished, and latency counts from the intended send time. The embedded H2
+ * answers in microseconds, so {@code --db-latency} (20ms by default) is added to every statement
+ * to stand in for a networked database. Order caches expire after 1ms unless
+ * {@code --shop.cache.orders-ttl} is given, so every request reaches the database; both pools
+ * get 16 connections unless sized explicitly.
+ *
+ * <p>Example: {@code --rate=200 --db-latency=20ms --duration=30s}
+ */
+public final class ReactiveBenchmark {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(20);
+
+    private ReactiveBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args, "reactive-benchmark.json");
+        options.applicationDefault("shop.cache.orders-ttl", "1ms");
+        options.applicationDefault("shop.datasource.pool.maximum-pool-size", "16");
+        options.applicationDefault("shop.reactive.max-size", "16");
+        DatabaseLatency latency = new DatabaseLatency(options.dbLatency);
+        try (ShopFixture shop = LoadTest.start(options,
+                ctx -> ctx.getBeanFactory().addBeanPostProcessor(latency))) {
+            String baseUrl = shop.baseUrl();
+            SeedData seed = LoadTest.seed(shop, options);
+            latency.enable();
+
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+            Map<String, IntSupplier> gauges = gauges(shop.context());
+
+            Map<String, Object> paths = new LinkedHashMap<>();
+            for (String path : List.of("servlet", "reactive")) {
+                String prefix = baseUrl + ("servlet".equals(path) ? "" : "/reactive");
+                System.out.printf("%s: прогрев %s, замер %s, %d запросов/с, задержка БД %s%n",
+                    path, options.warmup, options.duration, options.rate, options.dbLatency);
+                drive(client, prefix, seed, options.rate, options.warmup, null);
+                Map<String, Usage> usage = new LinkedHashMap<>();
+                gauges.keySet().forEach(name -> usage.put(name, new Usage()));
+                Summary summary = drive(client, prefix, seed, options.rate, options.duration,
+                    () -> gauges.forEach((name, gauge) ->
+                        usage.get(name).add(gauge.getAsInt())));
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("latency", summary);
+                result.put("usage", usage);
+                paths.put(path, result);
+                awaitIdle(gauges);
+            }
+            report(options, paths);
+        }
+    }
+
+    /** What the sampler reads: busy Tomcat threads, the Tomcat pool and both database pools. */
+    private static Map<String, IntSupplier> gauges(ConfigurableApplicationContext context) {
+        TomcatWebServer server = (TomcatWebServer)
+            ((ServletWebServerApplicationContext) context).getWebServer();
+        Object executor = server.getTomcat().getConnector().getProtocolHandler().getExecutor();
+        PoolMetrics poolMetrics = context.getBean(PoolMetrics.class);
+        ConnectionPool r2dbc = context.getBean(ConnectionPool.class);
+
+        Map<String, IntSupplier> gauges = new LinkedHashMap<>();
+        if (executor instanceof ThreadPoolExecutor tomcat) {
+            gauges.put("tomcatBusyThreads", tomcat::getActiveCount);
+            gauges.put("tomcatThreads", tomcat::getPoolSize);
+        }
+        gauges.put("jdbcActiveConnections", () -> poolMetrics.snapshot().stream()
+            .filter(pool -> "shop-pool".equals(pool.pool()))
+            .mapToInt(PoolSnapshot::active)
+            .sum());
+        gauges.put("r2dbcAcquiredConnections", () -> r2dbc.getMetrics()
+            .map(io.r2dbc.pool.PoolMetrics::acquiredSize)
+            .orElse(0));
+        return gauges;
+    }
+
+    /** Waits until requests that outlived the client timeout release their threads. */
+    static void awaitIdle(Map<String, IntSupplier> gauges) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline && gauges.entrySet().stream()
+                .anyMatch(e -> !e.getKey().equals("tomcatThreads")
+                    && e.getValue().getAsInt() > 0)) {
+            Thread.sleep(SAMPLE_INTERVAL.toMillis());
+        }
+    }
+
+    static Summary drive(HttpClient client, String prefix, SeedData seed, int rate,
+                         Duration duration, Runnable sample) throws Exception {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        if (sample != null) {
+            sampler.scheduleAtFixedRate(sample, 0, SAMPLE_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+        LatencyRecorder recorder = new LatencyRecorder();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        Random random = new Random(42);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        try {
+            for (long i = 0; i * interval < duration.toNanos(); i++) {
+                long intended = start + i * interval;
+                LockSupport.parkNanos(intended - System.nanoTime());
+                inFlight.add(client.sendAsync(request(prefix, seed, random, i),
+                        HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        boolean failed = error != null || response.statusCode() >= 400;
+                        synchronized (recorder) {
+                            recorder.record(System.nanoTime() - intended, failed);
+                        }
+                        return null;
+                    }));
+            }
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .get(duration.toSeconds() + 30, TimeUnit.SECONDS);
+        } finally {
+            sampler.shutdownNow();
+        }
+        synchronized (recorder) {
+            return recorder.summarize((System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static HttpRequest request(String prefix, SeedData seed, Random random, long i) {
+        String query = i % 2 == 0
+            ? "/api/orders/by-product?productName="
+                + encode(seed.productNames().get(random.nextInt(seed.productNames().size())))
+            : "/api/orders/by-username?userName="
+                + encode(seed.userNames().get(random.nextInt(seed.userNames().size())));
+        return HttpRequest.newBuilder(URI.create(prefix + query))
+            .timeout(Duration.ofSeconds(10))
+            .GET()
+            .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void report(LoadTestOptions options, Map<String, Object> paths)
+            throws Exception {
+        System.out.printf("%-9s %8s %6s %7s %8s %8s %12s %12s %12s %12s%n",
+            "path", "requests", "errors", "rps", "p50, ms", "p99, ms",
+            "tomcat busy", "tomcat pool", "jdbc conns", "r2dbc conns");
+        paths.forEach((path, value) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) value;
+            Summary s = (Summary) result.get("latency");
+            @SuppressWarnings("unchecked")
+            Map<String, Usage> usage = (Map<String, Usage>) result.get("usage");
+            System.out.printf("%-9s %8d %6d %7.1f %8.2f %8.2f %12s %12s %12s %12s%n",
+                path, s.requests(), s.errors(), s.rps(), s.p50(), s.p99(),
+                usage.get("tomcatBusyThreads"), usage.get("tomcatThreads"),
+                usage.get("jdbcActiveConnections"), usage.get("r2dbcAcquiredConnections"));
+        });
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("rate", options.rate);
+        document.put("dbLatencyMillis", options.dbLatency.toMillis());
+        document.put("users", options.users);
+        document.put("products", options.products);
+        document.put("orders", options.orders);
+        document.put("durationSeconds", options.duration.toSeconds());
+        document.put("applicationArgs", options.applicationArgs);
+        document.put("paths", paths);
+        Path path = Path.of(options.report);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(path.toFile(), document);
+        System.out.println("Отчёт: " + path.toAbsolutePath());
+    }
+
+    /** Average and maximum of a sampled gauge; printed as {@code avg/max}. */
+    static final class Usage {
+        private long sum;
+        private long count;
+        private int max;
+
+        synchronized void add(int value) {
+            sum += value;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        public synchronized double getAvg() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public synchronized int getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f/%d", getAvg(), getMax());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.shop.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Request mix of the load test. Weights are relative; cached lookups draw from a small hot set
+ * so most of them are served from {@code OrderCache}, while order creation keeps invalidating it.
+ */
+enum Scenario {
+
+    LIST_PRODUCTS(40) {
+        @Override
+        HttpRequest request(String baseUrl, SeedData seed, Random random) {
+            return get(baseUrl + "/api/products");
+        }
+    },
+    GET_PRODUCT(20) {
+        @Override
+        HttpRequest request(String baseUrl, SeedData seed, Random random) {
+            return get(baseUrl + "/api/product/" + seed.productIds().get(
+                random.nextInt(seed.productIds().size())));
+        }
+    },
+    ORDERS_BY_PRODUCT(15) {
+        @Override
+        HttpRequest request(String baseUrl, SeedData seed, Random random) {
+            return get(baseUrl + "/api/orders/by-product?productName="
+                + encode(seed.productNames().get(random.nextInt(hotSet(seed.productNames())))));
+        }
+    },
+    ORDERS_BY_USER(15) {
+        @Override
+        HttpRequest request(String baseUrl, SeedData seed, Random random) {
+            return get(baseUrl + "/api/orders/by-username?userName="
+                + encode(seed.userNames().get(random.nextInt(hotSet(seed.userNames())))));
+        }
+    },
+    CREATE_ORDER(10) {
+        @Override
+        HttpRequest request(String baseUrl, SeedData seed, Random random) {
+            String products = random.ints(3, 0, seed.productIds().size())
+                .mapToObj(i -> "{\"id\":" + seed.productIds().get(i) + "}")
+                .collect(Collectors.joining(","));
+            String body = "{\"user\":{\"id\":"
+                + seed.userIds().get(random.nextInt(seed.userIds().size()))
+                + "},\"products\":[" + products + "]}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+    };
+
+    private static final int HOT_SET_SIZE = 20;
+
+    private final int weight;
+
+    Scenario(int weight) {
+        this.weight = weight;
+    }
+
+    abstract HttpRequest request(String baseUrl, SeedData seed, Random random);
+
+    static Scenario pick(Random random) {
+        int total = 0;
+        for (Scenario scenario : values()) {
+            total += scenario.weight;
+        }
+        int roll = random.nextInt(total);
+        for (Scenario scenario : values()) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static int hotSet(List<String> names) {
+        return Math.min(HOT_SET_SIZE, names.size());
+    }
+
+    /** Identifiers of the seeded rows the scenarios pick from. */
+    record SeedData(List<Long> userIds, List<String> userNames,
+                    List<Long> productIds, List<String> productNames) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.shop.loadtest;
+
+import com.example.shop.ShopFixture;
+import com.example.shop.config.VirtualThreads;
+import com.example.shop.jdbc.PoolMetrics;
+import com.example.shop.jdbc.PoolMetrics.PoolSnapshot;
+import com.example.shop.loadtest.LatencyRecorder.Summary;
+import com.example.shop.loadtest.ReactiveBenchmark.Usage;
+import com.example.shop.loadtest.Scenario.SeedData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares Tomcat on its platform thread pool with Tomcat on virtual threads
+ * ({@code shop.threads.virtual}) under blocking load: the servlet order lookups at a fixed
+ * request rate, with {@code --db-latency} (20ms by default) added to every JDBC statement.
+ *
+ * <p>Each mode gets its own application and database. The platform pool is capped at 64
+ * threads and the connection pool sized to 256 unless set explicitly, so the thread pool, not
+ * the database, is what runs out first; order caches expire after 1ms. The virtual mode needs a
+ * Java 21 runtime ({@code -Pjava21}) and is skipped on older ones.
+ *
+ * <p>Example: {@code --rate=2000 --db-latency=20ms --duration=30s}
+ */
+public final class VirtualThreadBenchmark {
+
+    private VirtualThreadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args, "virtual-thread-benchmark.json");
+        options.applicationDefault("shop.cache.orders-ttl", "1ms");
+        options.applicationDefault("server.tomcat.threads.max", "64");
+        options.applicationDefault("shop.datasource.pool.maximum-pool-size", "256");
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (boolean virtual : List.of(false, true)) {
+            String mode = virtual ? "virtual" : "platform";
+            if (virtual && !VirtualThreads.isSupported()) {
+                System.out.printf("%s: пропущено, нужна Java 21+ (сейчас %s)%n", mode,
+                    Runtime.version());
+                continue;
+            }
+            List<String> applicationArgs = new ArrayList<>(options.applicationArgs);
+            applicationArgs.removeIf(arg -> arg.startsWith("--shop.threads.virtual="));
+            applicationArgs.add("--shop.threads.virtual=" + virtual);
+            DatabaseLatency latency = new DatabaseLatency(options.dbLatency);
+            try (ShopFixture shop = ShopFixture.start("threads_" + mode, applicationArgs,
+                    ctx -> ctx.getBeanFactory().addBeanPostProcessor(latency))) {
+                SeedData seed = LoadTest.seed(shop, options);
+                latency.enable();
+                Map<String, IntSupplier> gauges = gauges(shop.context());
+
+                System.out.printf("%s: прогрев %s, замер %s, %d запросов/с, задержка БД %s%n",
+                    mode, options.warmup, options.duration, options.rate, options.dbLatency);
+                ReactiveBenchmark.drive(client, shop.baseUrl(), seed, options.rate,
+                    options.warmup, null);
+                Map<String, Usage> usage = new LinkedHashMap<>();
+                gauges.keySet().forEach(name -> usage.put(name, new Usage()));
+                Summary summary = ReactiveBenchmark.drive(client, shop.baseUrl(), seed,
+                    options.rate, options.duration, () -> gauges.forEach((name, gauge) ->
+                        usage.get(name).add(gauge.getAsInt())));
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("latency", summary);
+                result.put("usage", usage);
+                modes.put(mode, result);
+                ReactiveBenchmark.awaitIdle(gauges);
+            }
+        }
+        report(options, modes);
+    }
+
+    /** Busy pool threads (platform mode only) and busy database connections. */
+    private static Map<String, IntSupplier> gauges(ConfigurableApplicationContext context) {
+        TomcatWebServer server = (TomcatWebServer)
+            ((ServletWebServerApplicationContext) context).getWebServer();
+        Object executor = server.getTomcat().getConnector().getProtocolHandler().getExecutor();
+        PoolMetrics poolMetrics = context.getBean(PoolMetrics.class);
+
+        Map<String, IntSupplier> gauges = new LinkedHashMap<>();
+        if (executor instanceof ThreadPoolExecutor tomcat) {
+            gauges.put("tomcatBusyThreads", tomcat::getActiveCount);
+        }
+        gauges.put("jdbcActiveConnections", () -> poolMetrics.snapshot().stream()
+            .filter(pool -> "shop-pool".equals(pool.pool()))
+            .mapToInt(PoolSnapshot::active)
+            .sum());
+        return gauges;
+    }
+
+    private static void report(LoadTestOptions options, Map<String, Object> modes)
+            throws Exception {
+        System.out.printf("%-9s %8s %6s %7s %8s %8s %12s %12s%n",
+            "threads", "requests", "errors", "rps", "p50, ms", "p99, ms",
+            "tomcat busy", "jdbc conns");
+        modes.forEach((mode, value) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) value;
+            Summary s = (Summary) result.get("latency");
+            @SuppressWarnings("unchecked")
+            Map<String, Usage> usage = (Map<String, Usage>) result.get("usage");
+            System.out.printf("%-9s %8d %6d %7.1f %8.2f %8.2f %12s %12s%n",
+                mode, s.requests(), s.errors(), s.rps(), s.p50(), s.p99(),
+                usage.getOrDefault("tomcatBusyThreads", new Usage()),
+                usage.get("jdbcActiveConnections"));
+        });
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("rate", options.rate);
+        document.put("dbLatencyMillis", options.dbLatency.toMillis());
+        document.put("durationSeconds", options.duration.toSeconds());
+        document.put("applicationArgs", options.applicationArgs);
+        document.put("modes", modes);
+        Path path = Path.of(options.report);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(path.toFile(), document);
+        System.out.println("Отчёт: " + path.toAbsolutePath());
+    }
+}
@@ -2,10 +2,18 @@ package com.example.shop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC-пул строит ReactiveConfig; реактивный менеджер транзакций конфликтовал бы с JPA
+@SpringBootApplication(exclude = {
+    R2dbcAutoConfiguration.class,
+    R2dbcTransactionManagerAutoConfiguration.class
+})
 @EnableAsync
+@EnableScheduling
 public class ShopApplication {
     public static void main(final String[] args) {
         SpringApplication.run(ShopApplication.class, args);
@@ -0,0 +1,371 @@
+package com.example.shop.analytics;
+
+import com.example.shop.events.OrdersChangedEvent;
+import com.example.shop.events.OrdersChangedEvent.Line;
+import com.example.shop.events.OrdersChangedEvent.OrderDelta;
+import com.example.shop.outbox.OutboxDispatcher;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sales totals per product, user and category plus an hourly series, updated from
+ * {@link OrdersChangedEvent} so that questions like "top products by orders" are answered
+ * without scanning {@code orders} × {@code order_product}.
+ *
+ * <p>Incremental updates use the product price at the moment of the change, while the database
+ * view uses current prices and categories; a periodic reconciliation recomputes everything with
+ * three grouped queries and replaces the in-memory state. Before the reload the
+ * {@link OutboxDispatcher}'s progress is taken; the queries run in one snapshot that also reads
+ * which of the outbox rows not delivered by then are visible. Deltas that arrive while the
+ * reload runs are replayed on top of it only if their row was not visible in the snapshot. Each
+ * outbox row is applied at most once, so a redelivered batch does not count its orders twice.
+ */
+@Component
+public class SalesAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    private static final String ORDERS_SQL = """
+        SELECT o.user_id, o.created_at, COUNT(op.product_id) AS items,
+               COALESCE(SUM(ROUND(p.price * 100)), 0) AS cents
+        FROM orders o
+        LEFT JOIN order_product op ON op.order_id = o.id
+        LEFT JOIN products p ON p.id = op.product_id
+        GROUP BY o.id, o.user_id, o.created_at
+        """;
+    private static final String PRODUCTS_SQL = """
+        SELECT op.product_id, COUNT(*) AS items, SUM(ROUND(p.price * 100)) AS cents
+        FROM order_product op
+        JOIN products p ON p.id = op.product_id
+        GROUP BY op.product_id
+        """;
+    private static final String CATEGORIES_SQL = """
+        SELECT pc.category_id, COUNT(*) AS items, SUM(ROUND(p.price * 100)) AS cents
+        FROM order_product op
+        JOIN products p ON p.id = op.product_id
+        JOIN product_category pc ON pc.product_id = op.product_id
+        GROUP BY pc.category_id
+        """;
+    private static final String OUTBOX_IDS_AFTER_SQL = "SELECT id FROM outbox_events WHERE id > ?";
+
+    /** What the totals are broken down by. */
+    public enum Dimension {
+        PRODUCTS, USERS, CATEGORIES
+    }
+
+    /** Ranking order of {@link #top}. */
+    public enum SalesMetric {
+        ORDERS, REVENUE
+    }
+
+    /**
+     * Totals of one product, user or category. For products and users {@code orders} is the
+     * number of orders; for categories it is the number of ordered products of the category.
+     */
+    public record SalesTotals(long id, long orders, double revenue) {
+    }
+
+    /** Orders placed within one hour, {@code items} being the ordered products. */
+    public record SalesBucket(LocalDateTime hour, long orders, long items, double revenue) {
+    }
+
+    /** Outcome of a reconciliation: how many keys the incremental state got wrong. */
+    public record ReconciliationReport(Instant finishedAt, long durationMs, int driftedProducts,
+                                       int driftedUsers, int driftedCategories,
+                                       int driftedBuckets) {
+
+        public boolean drifted() {
+            return driftedProducts + driftedUsers + driftedCategories + driftedBuckets > 0;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxDispatcher outboxDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Под lock
+    private State state = new State();
+    private List<List<OrderDelta>> pending;
+    private ReconciliationReport lastReconciliation;
+
+    public SalesAnalytics(JdbcTemplate jdbcTemplate,
+                          OutboxDispatcher outboxDispatcher,
+                          PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxDispatcher = outboxDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Не readOnly: сверяемся с primary, а не с отстающей репликой
+        this.transactionTemplate.setPropagationBehavior(
+            TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Видимые строки outbox и агрегаты читаются из одного снимка
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            state.apply(event.deltas());
+            if (pending != null) {
+                pending.add(event.deltas());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shop.analytics.reconcile-interval-ms:600000}",
+        initialDelayString = "${shop.analytics.reconcile-interval-ms:600000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Recomputes all totals from the database and replaces the incremental state.
+     *
+     * @return how far the incremental state had drifted
+     */
+    public synchronized ReconciliationReport reconcile() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // После открытия pending: всё, что доставят позже, попадёт в него
+        OutboxDispatcher.Progress delivered = outboxDispatcher.getProgress();
+
+        State fresh;
+        try {
+            fresh = transactionTemplate.execute(status -> load(delivered));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        ReconciliationReport report;
+        boolean initial;
+        lock.writeLock().lock();
+        try {
+            initial = lastReconciliation == null;
+            pending.forEach(fresh::apply);
+            pending = null;
+            report = new ReconciliationReport(Instant.now(),
+                (System.nanoTime() - started) / 1_000_000,
+                state.products.diff(fresh.products), state.users.diff(fresh.users),
+                state.categories.diff(fresh.categories), state.diffBuckets(fresh));
+            state = fresh;
+            lastReconciliation = report;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (initial) {
+            logger.info("📈 Аналитика продаж загружена из БД за {} мс", report.durationMs());
+        } else if (report.drifted()) {
+            logger.warn("📉 Аналитика продаж расходилась с БД: {}", report);
+        } else {
+            logger.info("📈 Аналитика продаж сверена с БД за {} мс", report.durationMs());
+        }
+        return report;
+    }
+
+    public SalesTotals totals(Dimension dimension, long id) {
+        lock.readLock().lock();
+        try {
+            return state.tally(dimension).get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SalesTotals> top(Dimension dimension, SalesMetric metric, int limit) {
+        lock.readLock().lock();
+        try {
+            return state.tally(dimension).top(metric, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hourly buckets that have orders.
+     *
+     * @param from inclusive start, truncated to the hour
+     * @param to   exclusive end
+     */
+    public List<SalesBucket> series(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            List<SalesBucket> result = new ArrayList<>();
+            for (Map.Entry<LocalDateTime, long[]> e : state.hourly
+                    .subMap(from.truncatedTo(ChronoUnit.HOURS), true, to, false).entrySet()) {
+                long[] v = e.getValue();
+                result.add(new SalesBucket(e.getKey(), v[0], v[1], v[2] / 100.0));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ReconciliationReport getLastReconciliation() {
+        lock.readLock().lock();
+        try {
+            return lastReconciliation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private State load(OutboxDispatcher.Progress delivered) {
+        State fresh = new State(delivered);
+        // Первое чтение фиксирует снимок: заказы видимых в нём событий уже в агрегатах
+        fresh.loaded.addAll(jdbcTemplate.queryForList(OUTBOX_IDS_AFTER_SQL, Long.class,
+            delivered.deliveredUpTo()));
+        Set<Long> gaps = delivered.undelivered();
+        if (!gaps.isEmpty()) {
+            String sql = "SELECT id FROM outbox_events WHERE id IN ("
+                + String.join(", ", Collections.nCopies(gaps.size(), "?")) + ")";
+            fresh.loaded.addAll(jdbcTemplate.queryForList(sql, Long.class, gaps.toArray()));
+        }
+        jdbcTemplate.query(ORDERS_SQL, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            long items = rs.getLong("items");
+            long cents = rs.getLong("cents");
+            fresh.users.add(rs.getLong("user_id"), 1, cents);
+            fresh.addToBucket(createdAt.toLocalDateTime(), 1, items, cents);
+        });
+        jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+            fresh.products.add(rs.getLong("product_id"), rs.getLong("items"), rs.getLong("cents"));
+        });
+        jdbcTemplate.query(CATEGORIES_SQL, rs -> {
+            fresh.categories.add(rs.getLong("category_id"), rs.getLong("items"),
+                rs.getLong("cents"));
+        });
+        return fresh;
+    }
+
+    private static final class State {
+        private final SalesTally products = new SalesTally();
+        private final SalesTally users = new SalesTally();
+        private final SalesTally categories = new SalesTally();
+        // Час -> {заказы, товары, выручка в копейках}
+        private final NavigableMap<LocalDateTime, long[]> hourly = new TreeMap<>();
+        // Доставленные до загрузки события учтены ею, из остальных - видимые в её снимке
+        private final OutboxDispatcher.Progress delivered;
+        private final Set<Long> loaded = new HashSet<>();
+        // Применённые после загрузки события: повторная доставка пакета не учитывается
+        private final Set<Long> applied = new HashSet<>();
+
+        State() {
+            this(new OutboxDispatcher.Progress(0, Set.of()));
+        }
+
+        State(OutboxDispatcher.Progress delivered) {
+            this.delivered = delivered;
+        }
+
+        SalesTally tally(Dimension dimension) {
+            return switch (dimension) {
+                case PRODUCTS -> products;
+                case USERS -> users;
+                case CATEGORIES -> categories;
+            };
+        }
+
+        /** Applies the deltas of one delivered event, skipping outbox rows already counted. */
+        void apply(List<OrderDelta> deltas) {
+            Map<Long, Boolean> accepted = new HashMap<>();
+            for (OrderDelta delta : deltas) {
+                if (delta.outboxId() == 0
+                        || accepted.computeIfAbsent(delta.outboxId(), this::accepts)) {
+                    applyDelta(delta);
+                }
+            }
+        }
+
+        private boolean accepts(long outboxId) {
+            if (delivered.delivered(outboxId) || loaded.contains(outboxId)) {
+                return false;
+            }
+            return applied.add(outboxId);
+        }
+
+        void applyDelta(OrderDelta delta) {
+            long items = 0;
+            long cents = 0;
+            for (Line line : delta.lines()) {
+                long amount = line.priceCents() * line.quantity();
+                products.add(line.productId(), line.quantity(), amount);
+                for (Long category : line.categoryIds()) {
+                    categories.add(category, line.quantity(), amount);
+                }
+                items += line.quantity();
+                cents += amount;
+            }
+            users.add(delta.userId(), delta.orders(), cents);
+            LocalDateTime placedAt = delta.placedAt() == null ? LocalDateTime.now()
+                : delta.placedAt();
+            addToBucket(placedAt, delta.orders(), items, cents);
+        }
+
+        void addToBucket(LocalDateTime at, long orders, long items, long cents) {
+            LocalDateTime hour = at.truncatedTo(ChronoUnit.HOURS);
+            long[] bucket = hourly.computeIfAbsent(hour, h -> new long[3]);
+            bucket[0] += orders;
+            bucket[1] += items;
+            bucket[2] += cents;
+            if (bucket[0] == 0 && bucket[1] == 0 && bucket[2] == 0) {
+                hourly.remove(hour);
+            }
+        }
+
+        int diffBuckets(State other) {
+            int drifted = 0;
+            for (Map.Entry<LocalDateTime, long[]> e : hourly.entrySet()) {
+                if (!Arrays.equals(e.getValue(), other.hourly.get(e.getKey()))) {
+                    drifted++;
+                }
+            }
+            for (LocalDateTime hour : other.hourly.keySet()) {
+                if (!hourly.containsKey(hour)) {
+                    drifted++;
+                }
+            }
+            return drifted;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.shop.analytics;
+
+import com.example.shop.analytics.SalesAnalytics.SalesMetric;
+import com.example.shop.analytics.SalesAnalytics.SalesTotals;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Order count and revenue per key (product, user or category). Lookups are hash lookups and both
+ * rankings are kept sorted on every update, so the top entries are read without a scan. Not
+ * thread-safe: {@link SalesAnalytics} guards it.
+ */
+final class SalesTally {
+
+    private static final Comparator<Entry> BY_ORDERS = Comparator
+        .comparingLong(Entry::orders).reversed()
+        .thenComparing(Comparator.comparingLong(Entry::revenueCents).reversed())
+        .thenComparingLong(Entry::id);
+    private static final Comparator<Entry> BY_REVENUE = Comparator
+        .comparingLong(Entry::revenueCents).reversed()
+        .thenComparing(Comparator.comparingLong(Entry::orders).reversed())
+        .thenComparingLong(Entry::id);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> byOrders = new TreeSet<>(BY_ORDERS);
+    private final NavigableSet<Entry> byRevenue = new TreeSet<>(BY_REVENUE);
+
+    void add(long id, long orders, long revenueCents) {
+        Entry previous = entries.remove(id);
+        long totalOrders = orders;
+        long totalCents = revenueCents;
+        if (previous != null) {
+            byOrders.remove(previous);
+            byRevenue.remove(previous);
+            totalOrders += previous.orders;
+            totalCents += previous.revenueCents;
+        }
+        // Нулевые записи (например, удалённый товар) не храним
+        if (totalOrders != 0 || totalCents != 0) {
+            Entry entry = new Entry(id, totalOrders, totalCents);
+            entries.put(id, entry);
+            byOrders.add(entry);
+            byRevenue.add(entry);
+        }
+    }
+
+    SalesTotals get(long id) {
+        Entry entry = entries.get(id);
+        return entry == null ? new SalesTotals(id, 0, 0) : entry.totals();
+    }
+
+    List<SalesTotals> top(SalesMetric metric, int limit) {
+        List<SalesTotals> result = new ArrayList<>(Math.min(limit, entries.size()));
+        NavigableSet<Entry> ranking = metric == SalesMetric.REVENUE ? byRevenue : byOrders;
+        Iterator<Entry> iterator = ranking.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next().totals());
+        }
+        return result;
+    }
+
+    /** Number of keys whose totals differ between the two tallies. */
+    int diff(SalesTally other) {
+        int drifted = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.equals(other.entries.get(entry.id))) {
+                drifted++;
+            }
+        }
+        for (Long id : other.entries.keySet()) {
+            if (!entries.containsKey(id)) {
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+
+    private record Entry(long id, long orders, long revenueCents) {
+
+        SalesTotals totals() {
+            return new SalesTotals(id, orders, revenueCents / 100.0);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Aspect
 @Component
@@ -22,7 +23,9 @@ public class VisitAspect {
     public void countVisit() {
         String uri = request.getRequestURI();
         if (uri != null && !uri.startsWith("/visits")) { // исключаем сам /visits/*
-            visitCounterService.recordVisit(uri);
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            visitCounterService.recordVisit(uri, route != null ? route.toString() : uri,
+                request.getRemoteAddr());
         }
     }
 }
\ No newline at end of file
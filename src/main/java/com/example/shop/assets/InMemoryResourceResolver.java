@@ -0,0 +1,157 @@
+package com.example.shop.assets;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+/**
+ * Keeps the content of resolved static resources in memory, so that repeated requests for the
+ * same asset neither open the jar entry nor read the file again. Files larger than
+ * {@code maxFileSize}, and everything once {@code maxTotalSize} bytes are cached, are returned
+ * as they are and streamed (or sent with sendfile, see
+ * {@link SendfileResourceHttpMessageConverter}).
+ *
+ * <p>Placed below {@code EncodedResourceResolver}: the precompressed variants it looks up via
+ * {@link Resource#createRelative} are cached the same way.
+ */
+public class InMemoryResourceResolver extends AbstractResourceResolver {
+
+    private final long maxFileSize;
+    private final long maxTotalSize;
+    private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public InMemoryResourceResolver(long maxFileSize, long maxTotalSize) {
+        this.maxFileSize = maxFileSize;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /** Number of files held in memory. */
+    public int cachedFiles() {
+        return contents.size();
+    }
+
+    /** Total size of the files held in memory. */
+    public long cachedBytes() {
+        return cachedBytes.get();
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request,
+                                               String requestPath,
+                                               List<? extends Resource> locations,
+                                               ResourceResolverChain chain) {
+        return inMemory(chain.resolveResource(request, requestPath, locations));
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath,
+                                            List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private Resource inMemory(@Nullable Resource resource) {
+        if (resource == null || !resource.exists()) {
+            return resource;
+        }
+        try {
+            String key = resource.getURL().toString();
+            byte[] content = contents.get(key);
+            if (content == null) {
+                long size = resource.contentLength();
+                if (size > maxFileSize || !reserve(size)) {
+                    return resource;
+                }
+                content = resource.getContentAsByteArray();
+                byte[] previous = contents.putIfAbsent(key, content);
+                if (previous != null) {
+                    cachedBytes.addAndGet(-size);
+                    content = previous;
+                }
+            }
+            return new InMemoryResource(resource, content);
+        } catch (IOException e) {
+            logger.debug("Не удалось загрузить " + resource + " в память", e);
+            return resource;
+        }
+    }
+
+    private boolean reserve(long size) {
+        long used;
+        do {
+            used = cachedBytes.get();
+            if (used + size > maxTotalSize) {
+                return false;
+            }
+        } while (!cachedBytes.compareAndSet(used, used + size));
+        return true;
+    }
+
+    private final class InMemoryResource extends AbstractResource {
+
+        private final Resource original;
+        private final byte[] content;
+
+        InMemoryResource(Resource original, byte[] content) {
+            this.original = original;
+            this.content = content;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public byte[] getContentAsByteArray() {
+            return content.clone();
+        }
+
+        @Override
+        public long contentLength() {
+            return content.length;
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return original.getURL();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return inMemory(original.createRelative(relativePath));
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return "in-memory " + original.getDescription();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shop.assets;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Writes resources that are plain files with Tomcat's sendfile: the converter only sets the
+ * headers and the {@code org.apache.tomcat.sendfile.*} request attributes, and the connector
+ * copies the file to the socket in the kernel after the handler returns. Everything else
+ * (resources inside the jar, in-memory resources, containers without sendfile support such as
+ * MockMvc) is copied through the output stream as usual.
+ */
+public class SendfileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+            throws IOException {
+        HttpServletRequest request = currentRequest();
+        if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && resource.isFile()) {
+            File file = resource.getFile();
+            request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.length());
+            return;
+        }
+        super.writeContent(resource, outputMessage);
+    }
+
+    @Nullable
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest()
+            : null;
+    }
+}
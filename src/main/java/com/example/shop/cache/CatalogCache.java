@@ -0,0 +1,104 @@
+package com.example.shop.cache;
+
+import com.example.shop.models.Category;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Second-level cache maintenance and statistics for catalog entities.
+ *
+ * <p>Hibernate evicts cached collections only on the owning side of an association.
+ * {@code Category.products} is the inverse side of {@code Product.categories}, so its cached
+ * entries are evicted here whenever a product joins or leaves a category.
+ */
+@Component
+public class CatalogCache {
+
+    private static final String CATEGORY_PRODUCTS = Category.class.getName() + ".products";
+
+    private final SessionFactory sessionFactory;
+
+    public CatalogCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts the cached product lists of the given categories after the current transaction
+     * commits, or immediately when no transaction is active.
+     *
+     * @param categories categories whose membership changed; {@code null} entries are ignored
+     */
+    public void evictCategoryProducts(Collection<Category> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = categories.stream()
+            .filter(Objects::nonNull)
+            .map(Category::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Runnable evict = () -> ids.forEach(id ->
+            sessionFactory.getCache().evictCollectionData(CATEGORY_PRODUCTS, id));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict.run();
+                    }
+                });
+        } else {
+            evict.run();
+        }
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    /**
+     * Returns hit, miss and put counters per second-level cache region and for the query cache.
+     *
+     * @return statistics snapshot
+     */
+    public CacheStats statistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<RegionStats> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+            .sorted()
+            .map(name -> {
+                CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+                return new RegionStats(name, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory());
+            })
+            .toList();
+        return new CacheStats(
+            statistics.isStatisticsEnabled(),
+            regions,
+            new RegionStats("query-cache", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), -1));
+    }
+
+    /**
+     * Second-level cache statistics.
+     */
+    public record CacheStats(boolean enabled, List<RegionStats> regions, RegionStats queries) {
+    }
+
+    /**
+     * Counters of one cache region.
+     */
+    public record RegionStats(String region, long hits, long misses, long puts, long size) {
+    }
+}
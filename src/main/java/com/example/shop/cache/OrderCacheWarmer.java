@@ -0,0 +1,82 @@
+package com.example.shop.cache;
+
+import com.example.shop.models.Order;
+import com.example.shop.services.ShopService;
+import com.example.shop.stats.HeavyHitters;
+import com.example.shop.stats.HeavyHitters.Kind;
+import com.example.shop.stats.SpaceSaving.Item;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the order lookups that {@link HeavyHitters} reports as hot once every order write has
+ * flushed the order caches, so the next request for a popular product or user name is a hit.
+ * Only keys seen at least {@code shop.cache.prewarm.min-hits} times (guaranteed count) are
+ * loaded; a check of keys that are still cached costs no query.
+ */
+@Component
+public class OrderCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCacheWarmer.class);
+
+    private final HeavyHitters heavyHitters;
+    private final ShopService shopService;
+    private final Cache<String, List<Order>> orderCache;
+    private final Cache<String, List<Order>> orderByUserNameCache;
+    private final int top;
+    private final long minHits;
+
+    public OrderCacheWarmer(
+            HeavyHitters heavyHitters,
+            ShopService shopService,
+            @Qualifier("orderCache") Cache<String, List<Order>> orderCache,
+            @Qualifier("orderByUserNameCache") Cache<String, List<Order>> orderByUserNameCache,
+            @Value("${shop.cache.prewarm.top:10}") int top,
+            @Value("${shop.cache.prewarm.min-hits:3}") long minHits) {
+        this.heavyHitters = heavyHitters;
+        this.shopService = shopService;
+        this.orderCache = orderCache;
+        this.orderByUserNameCache = orderByUserNameCache;
+        this.top = top;
+        this.minHits = minHits;
+    }
+
+    @Scheduled(fixedDelayString = "${shop.cache.prewarm.interval-ms:10000}",
+        initialDelayString = "${shop.cache.prewarm.interval-ms:10000}")
+    public void scheduledWarm() {
+        warm();
+    }
+
+    /**
+     * Loads the hot keys missing from the order caches.
+     *
+     * @return how many keys were loaded
+     */
+    public synchronized int warm() {
+        int loaded = warm(Kind.PRODUCT_NAMES, orderCache, shopService::getOrdersByProductName)
+            + warm(Kind.USER_NAMES, orderByUserNameCache, shopService::getOrdersByUserNameCached);
+        if (loaded > 0) {
+            logger.info("🔥 Прогрето ключей кэша заказов: {}", loaded);
+        }
+        return loaded;
+    }
+
+    private int warm(Kind kind, Cache<String, List<Order>> cache, Consumer<String> loader) {
+        int loaded = 0;
+        for (Item item : heavyHitters.top(kind, top)) {
+            // asMap() не учитывается в hit/miss статистике кэша
+            if (item.guaranteed() >= minHits && !cache.asMap().containsKey(item.key())) {
+                loader.accept(item.key());
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.shop.catalog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * The full product and category listings encoded once per catalog version, as JSON and as gzip.
+ * The catalog version is {@link CatalogSnapshot#version()}, which every catalog write bumps; the
+ * first read after a change encodes the new snapshot, every other read returns the stored bytes.
+ *
+ * <p>Entity tags hash the encoded content rather than the version: versions restart with the
+ * process and differ between instances, a content hash does not.
+ */
+@Component
+public class CatalogJsonCache {
+
+    /**
+     * One encoded listing.
+     *
+     * @param etag weak entity tag of the content; filtered product listings reuse the one of the
+     *             full listing, since it covers every product
+     */
+    public record Encoded(long version, String etag, byte[] json, byte[] gzip) {
+    }
+
+    private record Listings(Encoded products, Encoded categories) {
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(CatalogSnapshot snapshot, JsonGenerator generator) throws IOException;
+    }
+
+    private final CatalogSnapshots catalogSnapshots;
+    private final ObjectMapper objectMapper;
+    private volatile Listings listings;
+
+    public CatalogJsonCache(CatalogSnapshots catalogSnapshots, ObjectMapper objectMapper) {
+        this.catalogSnapshots = catalogSnapshots;
+        this.objectMapper = objectMapper;
+    }
+
+    public Encoded products() {
+        return current().products;
+    }
+
+    public Encoded categories() {
+        return current().categories;
+    }
+
+    private Listings current() {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        Listings cached = listings;
+        if (cached != null && cached.products.version == snapshot.version()) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = listings;
+            if (cached == null || cached.products.version != snapshot.version()) {
+                cached = new Listings(
+                    encode(snapshot, (s, g) -> s.writeJson(s.all(), g)),
+                    encode(snapshot, CatalogSnapshot::writeCategoriesJson));
+                listings = cached;
+            }
+            return cached;
+        }
+    }
+
+    private Encoded encode(CatalogSnapshot snapshot, Writer writer) {
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+                writer.write(snapshot, generator);
+            }
+            byte[] bytes = json.toByteArray();
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(bytes);
+            }
+            return new Encoded(snapshot.version(),
+                "W/\"" + DigestUtils.md5DigestAsHex(bytes) + "\"", bytes, gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
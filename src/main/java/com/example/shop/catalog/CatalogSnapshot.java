@@ -0,0 +1,389 @@
+package com.example.shop.catalog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Immutable, read-optimized copy of the catalog stored as parallel primitive arrays.
+ *
+ * <p>Products are ordered by id. Names are dictionary-encoded into one UTF-8 byte pool (equal
+ * names share bytes) and written to JSON straight from it; category membership is one compressed
+ * {@link RoaringBitmap} of product positions per category, so AND/OR across categories is a
+ * bitmap operation, and {@code priceOrder} lists positions by ascending price so a price range
+ * is two binary searches. A new snapshot is built for every
+ * catalog change; readers never see a partially updated one.
+ */
+public final class CatalogSnapshot {
+
+    /** How several requested categories combine. */
+    public enum CategoryMatch {
+        /** Products in at least one of the categories. */
+        ANY,
+        /** Products in every one of the categories. */
+        ALL
+    }
+
+    private static final CatalogSnapshot EMPTY = new Builder().build();
+
+    private final long version;
+    private final int size;
+    private final long[] ids;
+    private final double[] prices;
+    private final long[] productVersions;
+    private final int[] priceOrder;
+    private final byte[] namePool;
+    private final int[] nameOffsets;
+    private final int[] nameLengths;
+    // Категории каждого продукта в формате CSR: позиции категорий productCategories[start..end)
+    private final int[] productCategoryStarts;
+    private final int[] productCategories;
+
+    private final long[] categoryIds;
+    private final String[] categoryNames;
+    private final RoaringBitmap[] categoryMembers;
+
+    private CatalogSnapshot(long version, int size, long[] ids, double[] prices,
+                            long[] productVersions, int[] priceOrder,
+                            byte[] namePool, int[] nameOffsets, int[] nameLengths,
+                            int[] productCategoryStarts, int[] productCategories,
+                            long[] categoryIds, String[] categoryNames,
+                            RoaringBitmap[] categoryMembers) {
+        this.version = version;
+        this.size = size;
+        this.ids = ids;
+        this.prices = prices;
+        this.productVersions = productVersions;
+        this.priceOrder = priceOrder;
+        this.namePool = namePool;
+        this.nameOffsets = nameOffsets;
+        this.nameLengths = nameLengths;
+        this.productCategoryStarts = productCategoryStarts;
+        this.productCategories = productCategories;
+        this.categoryIds = categoryIds;
+        this.categoryNames = categoryNames;
+        this.categoryMembers = categoryMembers;
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int position) {
+        return ids[position];
+    }
+
+    public double price(int position) {
+        return prices[position];
+    }
+
+    /** Optimistic-locking version of the product entity, not the snapshot {@link #version()}. */
+    public long productVersion(int position) {
+        return productVersions[position];
+    }
+
+    public String name(int position) {
+        return new String(namePool, nameOffsets[position], nameLengths[position],
+            StandardCharsets.UTF_8);
+    }
+
+    /** Category ids of the product at {@code position}. */
+    public long[] categoryIdsOf(int position) {
+        int start = productCategoryStarts[position];
+        int end = productCategoryStarts[position + 1];
+        long[] result = new long[end - start];
+        for (int i = start; i < end; i++) {
+            result[i - start] = categoryIds[productCategories[i]];
+        }
+        return result;
+    }
+
+    public boolean hasCategory(long categoryId) {
+        return Arrays.binarySearch(categoryIds, categoryId) >= 0;
+    }
+
+    /** Every product position. */
+    public RoaringBitmap all() {
+        return RoaringBitmap.bitmapOfRange(0, size);
+    }
+
+    /** Positions of products in any of the categories; unknown ids match nothing. */
+    public RoaringBitmap inAnyCategory(Collection<Long> categories) {
+        List<RoaringBitmap> members = new ArrayList<>(categories.size());
+        for (Long category : categories) {
+            int index = Arrays.binarySearch(categoryIds, category);
+            if (index >= 0) {
+                members.add(categoryMembers[index]);
+            }
+        }
+        if (members.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        // Результат изменяется вызывающим кодом: отдаём копию, а не битмап снимка
+        return members.size() == 1 ? members.get(0).clone()
+            : FastAggregation.or(members.iterator());
+    }
+
+    /** Positions of products in every one of the categories; an unknown id matches nothing. */
+    public RoaringBitmap inAllCategories(Collection<Long> categories) {
+        List<RoaringBitmap> members = new ArrayList<>(categories.size());
+        for (Long category : categories) {
+            int index = Arrays.binarySearch(categoryIds, category);
+            if (index < 0) {
+                return new RoaringBitmap();
+            }
+            members.add(categoryMembers[index]);
+        }
+        if (members.size() == 1) {
+            return members.get(0).clone();
+        }
+        // Начинаем с самой маленькой: пересечение быстро сужается
+        members.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+        return FastAggregation.and(members.iterator());
+    }
+
+    /**
+     * Positions of products whose price is within the bounds.
+     *
+     * @param min inclusive lower bound, or {@code null}
+     * @param max inclusive upper bound, or {@code null}
+     */
+    public RoaringBitmap inPriceRange(Double min, Double max) {
+        int from = min == null ? 0 : lowerBound(min);
+        int to = max == null ? size : upperBound(max);
+        if (from >= to) {
+            return new RoaringBitmap();
+        }
+        int[] positions = Arrays.copyOfRange(priceOrder, from, to);
+        Arrays.sort(positions);
+        return RoaringBitmap.bitmapOf(positions);
+    }
+
+    /**
+     * Applies the optional filters of a listing request.
+     *
+     * @param categories requested categories; {@code null} or empty for all products
+     * @param match whether a product must be in any or in all of {@code categories}
+     */
+    public RoaringBitmap select(Set<Long> categories, CategoryMatch match,
+                                Double minPrice, Double maxPrice) {
+        boolean priced = minPrice != null || maxPrice != null;
+        if (categories == null || categories.isEmpty()) {
+            return priced ? inPriceRange(minPrice, maxPrice) : all();
+        }
+        RoaringBitmap result = match == CategoryMatch.ALL ? inAllCategories(categories)
+            : inAnyCategory(categories);
+        if (priced) {
+            result.and(inPriceRange(minPrice, maxPrice));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the selected products as a JSON array in the same shape as the {@code Product}
+     * entity: {@code id}, {@code name}, {@code price}, {@code categories[{id, name}]},
+     * {@code version}.
+     */
+    public void writeJson(RoaringBitmap positions, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        PeekableIntIterator iterator = positions.getIntIterator();
+        while (iterator.hasNext()) {
+            int i = iterator.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", ids[i]);
+            generator.writeFieldName("name");
+            generator.writeUTF8String(namePool, nameOffsets[i], nameLengths[i]);
+            generator.writeNumberField("price", prices[i]);
+            generator.writeArrayFieldStart("categories");
+            for (int c = productCategoryStarts[i]; c < productCategoryStarts[i + 1]; c++) {
+                int category = productCategories[c];
+                generator.writeStartObject();
+                generator.writeNumberField("id", categoryIds[category]);
+                generator.writeStringField("name", categoryNames[category]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("version", productVersions[i]);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /** Writes all categories as a JSON array in the shape of the {@code Category} entity. */
+    public void writeCategoriesJson(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (int c = 0; c < categoryIds.length; c++) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", categoryIds[c]);
+            generator.writeStringField("name", categoryNames[c]);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[priceOrder[mid]] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[priceOrder[mid]] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects products and categories for a new snapshot. Adding a product id twice keeps
+     * the last values.
+     */
+    public static final class Builder {
+        private final Map<Long, Row> rows = new TreeMap<>();
+        private final Map<Long, String> categories = new TreeMap<>();
+        private long version;
+
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder category(long id, String name) {
+            categories.put(id, name);
+            return this;
+        }
+
+        public Builder product(long id, String name, double price, long productVersion,
+                               long[] categoryIds) {
+            rows.put(id, new Row(name == null ? "" : name, price, productVersion, categoryIds));
+            return this;
+        }
+
+        /** Copies every product of {@code previous} except the excluded ids. */
+        public Builder productsFrom(CatalogSnapshot previous, Set<Long> excluded) {
+            for (int i = 0; i < previous.size; i++) {
+                if (!excluded.contains(previous.ids[i])) {
+                    product(previous.ids[i], previous.name(i), previous.prices[i],
+                        previous.productVersions[i], previous.categoryIdsOf(i));
+                }
+            }
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            int size = rows.size();
+            long[] categoryIds = categories.keySet().stream().mapToLong(Long::longValue).toArray();
+            String[] categoryNames = categories.values().toArray(String[]::new);
+            RoaringBitmap[] members = new RoaringBitmap[categoryIds.length];
+            for (int c = 0; c < members.length; c++) {
+                members[c] = new RoaringBitmap();
+            }
+
+            long[] ids = new long[size];
+            double[] prices = new double[size];
+            long[] productVersions = new long[size];
+            int[] nameOffsets = new int[size];
+            int[] nameLengths = new int[size];
+            int[] starts = new int[size + 1];
+            List<Integer> links = new ArrayList<>();
+            Map<String, Integer> dictionary = new HashMap<>();
+            NamePool pool = new NamePool();
+
+            int position = 0;
+            for (Map.Entry<Long, Row> entry : rows.entrySet()) {
+                Row row = entry.getValue();
+                ids[position] = entry.getKey();
+                prices[position] = row.price;
+                productVersions[position] = row.productVersion;
+                byte[] name = row.name.getBytes(StandardCharsets.UTF_8);
+                nameOffsets[position] = dictionary.computeIfAbsent(row.name, n -> pool.append(name));
+                nameLengths[position] = name.length;
+                starts[position] = links.size();
+                for (long categoryId : row.categoryIds) {
+                    int category = Arrays.binarySearch(categoryIds, categoryId);
+                    // Категория, удалённая между чтениями, просто не попадает в снимок
+                    if (category >= 0) {
+                        links.add(category);
+                        members[category].add(position);
+                    }
+                }
+                position++;
+            }
+            starts[size] = links.size();
+            for (RoaringBitmap member : members) {
+                member.runOptimize();
+            }
+
+            Integer[] byPrice = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                byPrice[i] = i;
+            }
+            Arrays.sort(byPrice, (a, b) -> Double.compare(prices[a], prices[b]));
+
+            return new CatalogSnapshot(version, size, ids, prices, productVersions,
+                Arrays.stream(byPrice).mapToInt(Integer::intValue).toArray(),
+                pool.toArray(), nameOffsets, nameLengths,
+                starts, links.stream().mapToInt(Integer::intValue).toArray(),
+                categoryIds, categoryNames, members);
+        }
+
+        private record Row(String name, double price, long productVersion, long[] categoryIds) {
+        }
+    }
+
+    private static final class NamePool {
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        int append(byte[] data) {
+            if (length + data.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + data.length));
+            }
+            System.arraycopy(data, 0, bytes, length, data.length);
+            length += data.length;
+            return length - data.length;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.shop.catalog;
+
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.repositories.CategoryRepository;
+import com.example.shop.repositories.ProductRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Holds the current {@link CatalogSnapshot}. Readers take {@link #current()} without locking;
+ * writers build a new snapshot from the previous one plus the re-read products of a
+ * {@link CatalogChangedEvent} and publish it with a single volatile write.
+ */
+@Component
+public class CatalogSnapshots {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshots.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private volatile CatalogSnapshot current = CatalogSnapshot.empty();
+
+    public CatalogSnapshots(ProductRepository productRepository,
+                            CategoryRepository categoryRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Вызывается после коммита другой транзакции: нужна собственная
+        this.transactionTemplate.setPropagationBehavior(
+            TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CatalogSnapshot current() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        CatalogSnapshot snapshot = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            CatalogSnapshot.Builder builder = withCategories(current.version() + 1);
+            productRepository.findAllWithCategories().forEach(p -> add(builder, p));
+            return builder.build();
+        }));
+        current = snapshot;
+        logger.info("📸 Снимок каталога v{}: {} продуктов", snapshot.version(), snapshot.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot previous = current;
+        Set<Long> replaced = new HashSet<>(event.deletedProducts());
+        replaced.addAll(event.savedProducts());
+        current = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            CatalogSnapshot.Builder builder = withCategories(previous.version() + 1)
+                .productsFrom(previous, replaced);
+            if (!event.savedProducts().isEmpty()) {
+                productRepository.findAllWithCategoriesByIdIn(event.savedProducts())
+                    .forEach(p -> add(builder, p));
+            }
+            return builder.build();
+        }));
+    }
+
+    private CatalogSnapshot.Builder withCategories(long version) {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder().version(version);
+        categoryRepository.findAllUncached().forEach(c -> builder.category(c.getId(), c.getName()));
+        return builder;
+    }
+
+    private static void add(CatalogSnapshot.Builder builder, Product product) {
+        List<Category> categories = product.getCategories() == null ? List.of()
+            : product.getCategories();
+        builder.product(product.getId(), product.getName(),
+            product.getPrice() == null ? 0 : product.getPrice(),
+            product.getVersion() == null ? 0 : product.getVersion(),
+            categories.stream().mapToLong(Category::getId).distinct().toArray());
+    }
+}
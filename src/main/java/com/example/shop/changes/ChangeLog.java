@@ -0,0 +1,249 @@
+package com.example.shop.changes;
+
+import com.example.shop.exceptions.GoneException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Append-only journal of product and order changes for delta sync. Writers record the ids they
+ * saved or deleted in the writing transaction, so a row exists if and only if the change was
+ * committed; readers ask for the rows after a token ({@code seq} of the last row they have seen)
+ * and get the latest change of every id.
+ *
+ * <p>Rows are written right before the commit, with {@code seq} taken from the feed's row of
+ * {@code change_sequences}; its lock is held until the commit, so {@code seq} grows in commit
+ * order and a long transaction, such as a product import chunk, gets a position after every
+ * change committed before it instead of leaving a gap behind readers. A gap is left only by a
+ * write outside a transaction that failed halfway; the token returned by {@link #read} does not
+ * move past one younger than {@code shop.changes.gap-timeout}.
+ */
+@Component
+public class ChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+        rs.getLong("seq"), rs.getLong("entity_id"), rs.getBoolean("deleted"),
+        rs.getTimestamp("changed_at"));
+
+    /** A journal with its own sequence of tokens. */
+    public enum Feed {
+        PRODUCTS("product_changes"),
+        ORDERS("order_changes");
+
+        private final String table;
+
+        Feed(String table) {
+            this.table = table;
+        }
+    }
+
+    /** Latest change of one entity: saved (created or updated) or deleted. */
+    public record Change(long entityId, boolean deleted) {
+    }
+
+    /**
+     * Changes after a token.
+     *
+     * @param changes latest change of every id, in the order of those changes
+     * @param token   the position to read from next time
+     * @param hasMore whether committed rows beyond this page are already waiting
+     */
+    public record Page(List<Change> changes, long token, boolean hasMore) {
+    }
+
+    private record Row(long seq, long entityId, boolean deleted, Timestamp changedAt) {
+    }
+
+    /** Changes recorded by the current transaction, per feed, written before it commits. */
+    private static final class Pending {
+        private final Map<Feed, List<Change>> changes = new EnumMap<>(Feed.class);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    public ChangeLog(
+            JdbcTemplate jdbcTemplate,
+            @Value("${shop.changes.gap-timeout:1m}") Duration gapTimeout,
+            @Value("${shop.changes.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+    }
+
+    public void productsSaved(Collection<Long> ids) {
+        record(Feed.PRODUCTS, ids, false);
+    }
+
+    public void productDeleted(Long id) {
+        record(Feed.PRODUCTS, List.of(id), true);
+    }
+
+    public void ordersSaved(Collection<Long> ids) {
+        record(Feed.ORDERS, ids, false);
+    }
+
+    public void ordersDeleted(Collection<Long> ids) {
+        record(Feed.ORDERS, ids, true);
+    }
+
+    /**
+     * Token to start reading from after a full load of the feed: the newest position no write
+     * in progress can still land behind. Reading starts from the newest row older than
+     * {@code shop.changes.gap-timeout}, so only the last moments of the journal are scanned.
+     */
+    public long head(Feed feed) {
+        List<Long> settled = jdbcTemplate.queryForList("SELECT seq FROM " + feed.table
+                + " WHERE changed_at < ? ORDER BY changed_at DESC, seq DESC LIMIT 1", Long.class,
+            Timestamp.valueOf(LocalDateTime.now().minus(gapTimeout)));
+        long since = settled.isEmpty() ? 0 : settled.get(0);
+        return advance(since, jdbcTemplate.query("SELECT seq, entity_id, deleted, changed_at FROM "
+            + feed.table + " WHERE seq > ? ORDER BY seq", ROW_MAPPER, since));
+    }
+
+    /**
+     * Reads up to {@code limit} rows after {@code since}.
+     *
+     * @throws GoneException if rows after {@code since} were already pruned; the client has to
+     *         load the feed in full again
+     */
+    public Page read(Feed feed, long since, int limit) {
+        List<Row> first = jdbcTemplate.query("SELECT seq, entity_id, deleted, changed_at FROM "
+            + feed.table + " ORDER BY seq LIMIT 1", ROW_MAPPER);
+        Timestamp pruned = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        if (!first.isEmpty() && since < first.get(0).seq() - 1
+                && first.get(0).changedAt().before(pruned)) {
+            throw new GoneException("Токен " + since + " устарел: изменения старше " + retention
+                + " удалены, загрузите данные заново");
+        }
+
+        List<Row> rows = jdbcTemplate.query("SELECT seq, entity_id, deleted, changed_at FROM "
+            + feed.table + " WHERE seq > ? ORDER BY seq LIMIT ?", ROW_MAPPER, since, limit);
+        Map<Long, Change> latest = new LinkedHashMap<>();
+        for (Row row : rows) {
+            latest.remove(row.entityId());
+            latest.put(row.entityId(), new Change(row.entityId(), row.deleted()));
+        }
+        // Строки после свежего пропуска отдаются, но токен остаётся перед пропуском
+        long token = advance(since, rows);
+        boolean blocked = !rows.isEmpty() && token != rows.get(rows.size() - 1).seq();
+        return new Page(new ArrayList<>(latest.values()), token,
+            !blocked && rows.size() == limit);
+    }
+
+    @Scheduled(fixedDelayString = "${shop.changes.prune-interval-ms:3600000}",
+        initialDelayString = "${shop.changes.prune-interval-ms:3600000}")
+    public void scheduledPrune() {
+        for (Feed feed : Feed.values()) {
+            prune(feed);
+        }
+    }
+
+    /**
+     * Deletes rows older than {@code shop.changes.retention}. The newest of them is kept as the
+     * horizon that tells {@link #read} which tokens have expired.
+     *
+     * @return how many rows were deleted
+     */
+    public int prune(Feed feed) {
+        List<Long> horizon = jdbcTemplate.queryForList("SELECT seq FROM " + feed.table
+                + " WHERE changed_at < ? ORDER BY changed_at DESC, seq DESC LIMIT 1", Long.class,
+            Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (horizon.isEmpty()) {
+            return 0;
+        }
+        int removed = jdbcTemplate.update(
+            "DELETE FROM " + feed.table + " WHERE seq < ?", horizon.get(0));
+        if (removed > 0) {
+            logger.info("🧹 Удалено {} записей {} старше {}", removed, feed.table, retention);
+        }
+        return removed;
+    }
+
+    /** Last seq of {@code rows} (in seq order) not preceded by a gap younger than gap-timeout. */
+    private long advance(long since, List<Row> rows) {
+        Timestamp settled = Timestamp.valueOf(LocalDateTime.now().minus(gapTimeout));
+        long token = since;
+        for (Row row : rows) {
+            if (row.seq() != token + 1 && !row.changedAt().before(settled)) {
+                break;
+            }
+            token = row.seq();
+        }
+        return token;
+    }
+
+    private void record(Feed feed, Collection<Long> ids, boolean deleted) {
+        List<Change> changes = ids.stream()
+            .filter(Objects::nonNull)
+            .map(id -> new Change(id, deleted))
+            .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending pending = new Pending();
+            pending.changes.put(feed, changes);
+            write(pending);
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        write(created);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(
+                            ChangeLog.this);
+                    }
+                });
+            pending = created;
+        }
+        pending.changes.computeIfAbsent(feed, f -> new ArrayList<>()).addAll(changes);
+    }
+
+    /** Takes {@code seq} for the changes and inserts them; feeds are locked in enum order. */
+    private void write(Pending pending) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        pending.changes.forEach((feed, changes) -> {
+            jdbcTemplate.update(
+                "UPDATE change_sequences SET last_seq = last_seq + ? WHERE feed = ?",
+                changes.size(), feed.table);
+            long last = jdbcTemplate.queryForObject(
+                "SELECT last_seq FROM change_sequences WHERE feed = ?", Long.class, feed.table);
+            long seq = last - changes.size();
+            List<Object[]> args = new ArrayList<>(changes.size());
+            for (Change change : changes) {
+                args.add(new Object[] {++seq, change.entityId(), change.deleted(), now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + feed.table
+                + " (seq, entity_id, deleted, changed_at) VALUES (?, ?, ?, ?)", args);
+        });
+    }
+}
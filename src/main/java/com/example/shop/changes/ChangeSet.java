@@ -0,0 +1,17 @@
+package com.example.shop.changes;
+
+import java.util.List;
+
+/**
+ * Response of the delta-sync endpoints.
+ *
+ * @param token    opaque position to pass as {@code since} in the next request
+ * @param upserted current state of the entities created or updated after {@code since}; every
+ *                 entity when the request had no {@code since}
+ * @param deleted  ids of the entities deleted after {@code since}
+ * @param hasMore  whether more changes are already waiting; ask again with {@code token} right
+ *                 away instead of after the usual polling interval
+ * @param <T>      the entity type
+ */
+public record ChangeSet<T>(String token, List<T> upserted, List<Long> deleted, boolean hasMore) {
+}
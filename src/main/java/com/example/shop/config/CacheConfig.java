@@ -3,17 +3,25 @@ package com.example.shop.config;
 import com.example.shop.models.Order;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class CacheConfig {
 
+    // Чтение может идти с реплики: TTL ограничивает время жизни устаревшего результата
+    @Value("${shop.cache.orders-ttl:10m}")
+    private Duration ordersTtl;
+
     @Bean
     public Cache<String, List<Order>> orderCache() {
         return Caffeine.newBuilder()
                 .maximumSize(100) // максимум 100 ключей в кэше
+                .expireAfterWrite(ordersTtl)
+                .recordStats()
                 .build();
     }
 
@@ -21,6 +29,8 @@ public class CacheConfig {
     public Cache<String, List<Order>> orderByUserNameCache() {
         return Caffeine.newBuilder()
                 .maximumSize(50) // меньше, если пользователей меньше
+                .expireAfterWrite(ordersTtl)
+                .recordStats()
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.example.shop.config;
+
+import com.example.shop.jdbc.PoolMetrics;
+import com.example.shop.jdbc.QueryStatistics;
+import com.example.shop.jdbc.ReplicaLagMonitor;
+import com.example.shop.jdbc.ReplicaRoutingDataSource;
+import com.example.shop.jdbc.SlowQueryDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Builds the application's HikariCP pools from {@code spring.datasource.*},
+ * {@code shop.datasource.pool.*} and {@code shop.datasource.replica.*}, wrapped with the
+ * slow-query log.
+ */
+@Configuration
+@EnableConfigurationProperties({PoolProperties.class, ReplicaProperties.class})
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+    private static final String REPLICA_ENABLED = "shop.datasource.replica.enabled";
+
+    private final PoolProperties poolProperties;
+    private final PoolMetrics poolMetrics;
+    private final QueryStatistics queryStatistics;
+
+    public DataSourceConfig(
+            PoolProperties poolProperties,
+            PoolMetrics poolMetrics,
+            QueryStatistics queryStatistics) {
+        this.poolProperties = poolProperties;
+        this.poolMetrics = poolMetrics;
+        this.queryStatistics = queryStatistics;
+    }
+
+    /**
+     * The datasource used by JPA: the primary pool, or a read/write router in front of the
+     * primary and replica pools when {@code shop.datasource.replica.enabled=true}. The wrapper
+     * closes the primary pool on shutdown; the replica pool is a bean of its own.
+     */
+    @Bean(destroyMethod = "close")
+    @Primary
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            ObjectProvider<HikariDataSource> replicaDataSource,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        HikariDataSource primary = createPool("shop-pool", properties);
+        HikariDataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            return new SlowQueryDataSource(primary, queryStatistics);
+        }
+        DataSource routing = new ReplicaRoutingDataSource(
+            primary, replica, replicaLagMonitor.getObject());
+        return new SlowQueryDataSource(
+            new LazyConnectionDataSourceProxy(routing), queryStatistics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = REPLICA_ENABLED, havingValue = "true")
+    public HikariDataSource replicaDataSource(ReplicaProperties replicaProperties) {
+        HikariDataSource replica = createPool(
+            "shop-replica-pool", replicaProperties.toDataSourceProperties());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = REPLICA_ENABLED, havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(
+            HikariDataSource replicaDataSource, ReplicaProperties replicaProperties) {
+        return new ReplicaLagMonitor(replicaDataSource, replicaProperties);
+    }
+
+    /**
+     * Creates a tuned Hikari pool for the given connection settings.
+     *
+     * @param poolName name used in logs and metrics
+     * @param properties JDBC url, credentials and driver
+     * @return a configured, not yet started pool
+     */
+    public HikariDataSource createPool(String poolName, DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+
+        int size = poolProperties.resolvePoolSize();
+        pool.setPoolName(poolName);
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(poolProperties.getMinimumIdle() >= 0
+            ? Math.min(poolProperties.getMinimumIdle(), size) : size);
+        pool.setConnectionTimeout(poolProperties.getConnectionTimeout().toMillis());
+        pool.setIdleTimeout(poolProperties.getIdleTimeout().toMillis());
+        pool.setMaxLifetime(poolProperties.getMaxLifetime().toMillis());
+        pool.setLeakDetectionThreshold(poolProperties.getLeakDetectionThreshold().toMillis());
+        pool.setMetricsTrackerFactory(poolMetrics);
+
+        // Кэш подготовленных выражений — параметры драйвера MySQL, другие драйверы их не знают
+        if (pool.getJdbcUrl() != null && pool.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            pool.addDataSourceProperty("cachePrepStmts", poolProperties.isStatementCache());
+            pool.addDataSourceProperty("prepStmtCacheSize",
+                poolProperties.getStatementCacheSize());
+            pool.addDataSourceProperty("prepStmtCacheSqlLimit",
+                poolProperties.getStatementCacheSqlLimit());
+            pool.addDataSourceProperty("useServerPrepStmts",
+                poolProperties.isServerPreparedStatements());
+            pool.addDataSourceProperty("rewriteBatchedStatements",
+                poolProperties.isRewriteBatchedStatements());
+        }
+
+        logger.info("🏊 Пул {}: maximumPoolSize={}, minimumIdle={}",
+            poolName, pool.getMaximumPoolSize(), pool.getMinimumIdle());
+        return pool;
+    }
+}
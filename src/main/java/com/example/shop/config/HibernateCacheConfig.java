@@ -0,0 +1,86 @@
+package com.example.shop.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine-backed JCache regions for the Hibernate second-level and query caches.
+ *
+ * <p>Catalog entities and their collections get bounded regions with a short TTL: read-only
+ * transactions may be served by the replica, and a lagging read must not stay cached for long.
+ * The update-timestamps region is never evicted, otherwise cached query results could
+ * outlive the table changes that invalidate them.
+ *
+ * <p>Hibernate statistics ({@code /cache/stats}) cost a counter update per cache access and
+ * are off unless {@code shop.cache.statistics=true}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    static final List<String> CATALOG_REGIONS = List.of(
+        "com.example.shop.models.Product",
+        "com.example.shop.models.Product.categories",
+        "com.example.shop.models.Category",
+        "com.example.shop.models.Category.products");
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${shop.cache.catalog.max-entries:10000}")
+    private long catalogMaxEntries;
+
+    @Value("${shop.cache.catalog.ttl:10m}")
+    private Duration catalogTtl;
+
+    @Value("${shop.cache.query.max-entries:1000}")
+    private long queryMaxEntries;
+
+    @Value("${shop.cache.statistics:false}")
+    private boolean statistics;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider =
+            Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Отдельный менеджер на каждый контекст: регионы разных контекстов не пересекаются
+        URI uri = URI.create(provider.getDefaultURI() + "/" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(
+            uri, HibernateCacheConfig.class.getClassLoader());
+
+        for (String region : CATALOG_REGIONS) {
+            cacheManager.createCache(region, region(catalogMaxEntries, catalogTtl));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(queryMaxEntries, catalogTtl));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(
+            CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, statistics);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+}
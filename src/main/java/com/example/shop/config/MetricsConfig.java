@@ -0,0 +1,28 @@
+package com.example.shop.config;
+
+import com.example.shop.models.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application meters that Spring Boot does not bind by itself. HTTP timers
+ * ({@code http.server.requests}), JVM, GC and executor meters come from actuator auto-configuration;
+ * Hikari meters are published by {@link com.example.shop.jdbc.PoolMetrics}, async job gauges by
+ * {@link com.example.shop.services.AsyncLogService}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder orderCacheMetrics(Cache<String, List<Order>> orderCache,
+                                         Cache<String, List<Order>> orderByUserNameCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, orderCache, "orderCache");
+            CaffeineCacheMetrics.monitor(registry, orderByUserNameCache, "orderByUserNameCache");
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.shop.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection pool settings ({@code shop.datasource.pool.*}).
+ *
+ * <p>When {@code maximum-pool-size} is not set the pool is sized from the CPU count and the
+ * expected ratio of I/O wait to compute time per query: {@code cores * (1 + ioWaitRatio)}.
+ */
+@ConfigurationProperties(prefix = "shop.datasource.pool")
+public class PoolProperties {
+
+    private int cores = 0;
+    private double ioWaitRatio = 4.0;
+    private int minSize = 4;
+    private int maxSize = 64;
+    private int maximumPoolSize = 0;
+    private int minimumIdle = -1;
+    private Duration connectionTimeout = Duration.ofSeconds(5);
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration maxLifetime = Duration.ofMinutes(30);
+    private Duration leakDetectionThreshold = Duration.ofSeconds(30);
+    private boolean statementCache = true;
+    private int statementCacheSize = 250;
+    private int statementCacheSqlLimit = 2048;
+    private boolean serverPreparedStatements = true;
+    private boolean rewriteBatchedStatements = true;
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+    private int maxTrackedQueries = 500;
+
+    /**
+     * Resolves the effective maximum pool size.
+     *
+     * @return the explicit size if configured, otherwise the size derived from cores and I/O wait
+     */
+    public int resolvePoolSize() {
+        if (maximumPoolSize > 0) {
+            return maximumPoolSize;
+        }
+        int cpu = cores > 0 ? cores : Runtime.getRuntime().availableProcessors();
+        int derived = (int) Math.ceil(cpu * (1 + ioWaitRatio));
+        return Math.max(minSize, Math.min(maxSize, derived));
+    }
+
+    public int getCores() {
+        return cores;
+    }
+
+    public void setCores(int cores) {
+        this.cores = cores;
+    }
+
+    public double getIoWaitRatio() {
+        return ioWaitRatio;
+    }
+
+    public void setIoWaitRatio(double ioWaitRatio) {
+        this.ioWaitRatio = ioWaitRatio;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public Duration getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    public void setLeakDetectionThreshold(Duration leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    public boolean isStatementCache() {
+        return statementCache;
+    }
+
+    public void setStatementCache(boolean statementCache) {
+        this.statementCache = statementCache;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getStatementCacheSqlLimit() {
+        return statementCacheSqlLimit;
+    }
+
+    public void setStatementCacheSqlLimit(int statementCacheSqlLimit) {
+        this.statementCacheSqlLimit = statementCacheSqlLimit;
+    }
+
+    public boolean isServerPreparedStatements() {
+        return serverPreparedStatements;
+    }
+
+    public void setServerPreparedStatements(boolean serverPreparedStatements) {
+        this.serverPreparedStatements = serverPreparedStatements;
+    }
+
+    public boolean isRewriteBatchedStatements() {
+        return rewriteBatchedStatements;
+    }
+
+    public void setRewriteBatchedStatements(boolean rewriteBatchedStatements) {
+        this.rewriteBatchedStatements = rewriteBatchedStatements;
+    }
+
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    public int getMaxTrackedQueries() {
+        return maxTrackedQueries;
+    }
+
+    public void setMaxTrackedQueries(int maxTrackedQueries) {
+        this.maxTrackedQueries = maxTrackedQueries;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.shop.config;
+
+import com.example.shop.exceptions.ApiError;
+import com.example.shop.models.Order;
+import com.example.shop.reactive.OrderLookupHandler;
+import com.example.shop.reactive.ReactiveOrderLookup;
+import com.example.shop.stats.HeavyHitters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.TomcatHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Reactive read path for order lookups ({@code shop.reactive.*}): WebFlux functional endpoints
+ * over an R2DBC connection pool, served by the application's Tomcat under
+ * {@code shop.reactive.path} ({@code /reactive/api/orders/by-product},
+ * {@code /reactive/api/orders/by-username}) next to the Spring MVC API.
+ *
+ * <p>JPA keeps its own Hikari pool and transaction manager; the R2DBC pool only serves these
+ * reads. Its metrics ({@code r2dbc_pool_*}) and health come from actuator auto-configuration.
+ */
+@Configuration
+@EnableConfigurationProperties(ReactiveProperties.class)
+@ConditionalOnProperty(name = "shop.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionFactory(
+            ReactiveProperties properties, DataSourceProperties dataSource) {
+        String url = properties.getUrl() != null
+            ? properties.getUrl() : toR2dbcUrl(dataSource.determineUrl());
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        String username = dataSource.determineUsername();
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        String password = dataSource.determinePassword();
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        int initialSize = Math.min(properties.getInitialSize(), properties.getMaxSize());
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get(options.build()))
+            .name("shop-r2dbc-pool")
+            .initialSize(initialSize)
+            .maxSize(properties.getMaxSize())
+            .maxAcquireTime(properties.getMaxAcquireTime())
+            .maxIdleTime(properties.getMaxIdleTime())
+            .build();
+        logger.info("🏊 Пул shop-r2dbc-pool: initialSize={}, maxSize={}",
+            initialSize, properties.getMaxSize());
+        return new ConnectionPool(configuration);
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+
+    @Bean
+    public ReactiveOrderLookup reactiveOrderLookup(
+            DatabaseClient reactiveDatabaseClient,
+            @Qualifier("orderCache") Cache<String, List<Order>> orderCache,
+            @Qualifier("orderByUserNameCache") Cache<String, List<Order>> orderByUserNameCache,
+            ReactiveProperties properties) {
+        return new ReactiveOrderLookup(reactiveDatabaseClient, orderCache, orderByUserNameCache,
+            properties.getBatchSize());
+    }
+
+    @Bean
+    public OrderLookupHandler orderLookupHandler(
+            ReactiveOrderLookup reactiveOrderLookup, HeavyHitters heavyHitters) {
+        return new OrderLookupHandler(reactiveOrderLookup, heavyHitters);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveOrderRoutes(OrderLookupHandler handler) {
+        return RouterFunctions.route()
+            .GET("/api/orders/by-product", handler::byProductName)
+            .GET("/api/orders/by-username", handler::byUserName)
+            .onError(Exception.class, (ex, request) -> {
+                // Ошибка до начала ответа; оборванный поток клиент видит как незакрытый массив
+                HttpStatus status = ex instanceof IllegalArgumentException
+                    ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+                logger.warn("⚠️ Ошибка реактивного запроса {}: {}", request.path(), ex.toString());
+                return ServerResponse.status(status)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ApiError(status.value(), status.is4xxClientError()
+                        ? ex.getMessage() : "❌ Внутренняя ошибка сервера: " + ex.getMessage()));
+            })
+            .build();
+    }
+
+    /**
+     * Serves {@code reactiveOrderRoutes} from an async servlet of the embedded Tomcat, with the
+     * application's Jackson settings and the CORS rules of {@link WebConfig}.
+     */
+    @Bean
+    public ServletRegistrationBean<TomcatHttpHandlerAdapter> reactiveServlet(
+            RouterFunction<ServerResponse> reactiveOrderRoutes,
+            ObjectMapper objectMapper,
+            ReactiveProperties properties) {
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/**", WebConfig.corsConfiguration());
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .webFilter(new CorsWebFilter(corsSource))
+            .build();
+        TomcatHttpHandlerAdapter servlet = new TomcatHttpHandlerAdapter(
+            RouterFunctions.toHttpHandler(reactiveOrderRoutes, strategies));
+
+        ServletRegistrationBean<TomcatHttpHandlerAdapter> registration =
+            new ServletRegistrationBean<>(servlet, properties.getPath() + "/*");
+        registration.setName("reactiveDispatcher");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    /**
+     * Derives the R2DBC url of the database behind a JDBC url.
+     *
+     * @throws IllegalStateException for drivers without an R2DBC counterpart here; set
+     *         {@code shop.reactive.url} explicitly then
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:") || jdbcUrl.startsWith("jdbc:h2:file:")) {
+            String rest = jdbcUrl.substring("jdbc:h2:".length());
+            int protocolEnd = rest.indexOf(':');
+            int optionsStart = rest.indexOf(';');
+            String database = optionsStart < 0
+                ? rest.substring(protocolEnd + 1) : rest.substring(protocolEnd + 1, optionsStart);
+            String url = "r2dbc:h2:" + rest.substring(0, protocolEnd) + ":///" + database;
+            return optionsStart < 0 ? url : url + "?options=" + rest.substring(optionsStart + 1);
+        }
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            int query = jdbcUrl.indexOf('?');
+            return "r2dbc:" + (query < 0 ? jdbcUrl : jdbcUrl.substring(0, query))
+                .substring("jdbc:".length());
+        }
+        throw new IllegalStateException("Не удалось вывести R2DBC url из " + jdbcUrl
+            + ", задайте shop.reactive.url");
+    }
+}
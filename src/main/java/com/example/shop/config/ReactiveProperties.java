@@ -0,0 +1,89 @@
+package com.example.shop.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reactive order lookup path ({@code shop.reactive.*}).
+ *
+ * <p>When {@code url} is not set the R2DBC url is derived from {@code spring.datasource.url}
+ * ({@code jdbc:h2:mem:shop_db;MODE=MySQL} becomes
+ * {@code r2dbc:h2:mem:///shop_db?options=MODE=MySQL}, {@code jdbc:mysql://host/db?...} becomes
+ * {@code r2dbc:mysql://host/db}); JDBC driver parameters are not carried over.
+ */
+@ConfigurationProperties(prefix = "shop.reactive")
+public class ReactiveProperties {
+
+    private boolean enabled = true;
+    private String path = "/reactive";
+    private String url;
+    private int initialSize = 2;
+    private int maxSize = 16;
+    private Duration maxAcquireTime = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofMinutes(10);
+    private int batchSize = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    public void setMaxAcquireTime(Duration maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
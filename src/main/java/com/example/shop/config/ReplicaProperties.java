@@ -0,0 +1,102 @@
+package com.example.shop.config;
+
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replica settings ({@code shop.datasource.replica.*}).
+ *
+ * <p>The lag query is run against the replica; its {@code lag-column} (or first column) must
+ * hold the replication delay in seconds, {@code NULL} meaning replication is stopped.
+ */
+@ConfigurationProperties(prefix = "shop.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private Duration maxLag = Duration.ofSeconds(5);
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+
+    /**
+     * Converts the replica connection settings to Spring Boot's datasource properties.
+     *
+     * @return properties usable with {@link DataSourceConfig#createPool}
+     */
+    public DataSourceProperties toDataSourceProperties() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        properties.setUsername(username);
+        properties.setPassword(password);
+        properties.setDriverClassName(driverClassName);
+        return properties;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public String getLagQuery() {
+        return lagQuery;
+    }
+
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    public String getLagColumn() {
+        return lagColumn;
+    }
+
+    public void setLagColumn(String lagColumn) {
+        this.lagColumn = lagColumn;
+    }
+}
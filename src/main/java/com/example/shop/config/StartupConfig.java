@@ -0,0 +1,77 @@
+package com.example.shop.config;
+
+import com.example.shop.catalog.CatalogJsonCache;
+import com.example.shop.controllers.ShopController;
+import com.example.shop.services.ShopService;
+import com.example.shop.services.VisitCounterService;
+import java.lang.annotation.Annotation;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Startup tuning used by the {@code prod} profile ({@code application-prod.properties}), which
+ * turns on {@code spring.main.lazy-initialization}.
+ *
+ * <p>A lazy bean is created on first use, so the hot request path would pay for it on the first
+ * request, and a lazy bean nobody injects never gets its {@code @Scheduled} methods registered.
+ * Those beans stay eager: the hot path and every bean with {@code @Scheduled} or
+ * {@code @EventListener} methods (snapshots, search index, analytics, warmers, monitors).
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    private static final Set<Class<?>> HOT_BEANS = Set.of(
+        ShopController.class, ShopService.class, CatalogJsonCache.class,
+        VisitCounterService.class);
+
+    @Bean
+    public static LazyInitializationExcludeFilter hotBeansExcludeFilter() {
+        return (beanName, definition, type) -> type != null
+            && (HOT_BEANS.contains(type)
+                || hasAnnotatedMethod(type, Scheduled.class)
+                || hasAnnotatedMethod(type, EventListener.class));
+    }
+
+    /**
+     * Stops the application once it accepts traffic, for the AppCDS training run of the
+     * {@code appcds} Maven profile: the class list is dumped at exit and covers startup and the
+     * warm-up on {@code ApplicationReadyEvent}, which is published just before readiness.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "shop.startup.exit-when-ready", havingValue = "true")
+    public ApplicationListener<AvailabilityChangeEvent<ReadinessState>> exitWhenReady(
+            ApplicationContext context) {
+        return event -> {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                logger.info("🛑 Приложение готово, shop.startup.exit-when-ready=true — выходим");
+                System.exit(SpringApplication.exit(context));
+            }
+        };
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> type,
+                                              Class<? extends Annotation> annotation) {
+        return AnnotationUtils.isCandidateClass(type, annotation)
+            && !MethodIntrospector.selectMethods(type,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                    AnnotatedElementUtils.hasAnnotation(method, annotation) ? Boolean.TRUE : null)
+                .isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.shop.config;
+
+import com.example.shop.assets.InMemoryResourceResolver;
+import com.example.shop.assets.SendfileResourceHttpMessageConverter;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Serves the fingerprinted files of the UI build ({@code /static/js/main.<hash>.js} and the
+ * like). Their content never changes under the same name, so they are sent with a one-year
+ * {@code Cache-Control: immutable}. The resolver chain picks the {@code .br}/{@code .gz} variant
+ * written at build time by {@code PrecompressAssets} that matches {@code Accept-Encoding}, keeps
+ * small files in memory and leaves large ones to sendfile.
+ *
+ * <p>The rest of the build ({@code index.html}, manifests, icons) keeps Spring Boot's default
+ * handler, configured in {@code application.properties} to serve precompressed variants too and
+ * to revalidate on every request.
+ */
+@Configuration
+public class StaticAssetsConfig {
+
+    @Bean
+    public InMemoryResourceResolver staticAssetsMemoryCache(
+            @Value("${shop.assets.cache.max-file-size:1MB}") DataSize maxFileSize,
+            @Value("${shop.assets.cache.max-size:32MB}") DataSize maxSize) {
+        return new InMemoryResourceResolver(maxFileSize.toBytes(), maxSize.toBytes());
+    }
+
+    @Bean
+    public ResourceHttpRequestHandler staticAssetsHandler(
+            @Value("${shop.assets.locations:classpath:/static/static/}") String[] locations,
+            InMemoryResourceResolver staticAssetsMemoryCache) {
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocationValues(List.of(locations));
+        handler.setResourceResolvers(List.of(
+            new CachingResourceResolver(new ConcurrentMapCache("static-assets")),
+            new EncodedResourceResolver(),
+            staticAssetsMemoryCache,
+            new PathResourceResolver()));
+        handler.setCacheControl(
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+        // И у несжатого ответа: общий кэш не должен отдать его клиенту, принимающему gzip
+        handler.setVaryByRequestHeaders(HttpHeaders.ACCEPT_ENCODING);
+        handler.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter());
+        return handler;
+    }
+
+    @Bean
+    public SimpleUrlHandlerMapping staticAssetsHandlerMapping(
+            ResourceHttpRequestHandler staticAssetsHandler) {
+        // Раньше обработчика статики Spring Boot для /** (Ordered.LOWEST_PRECEDENCE - 1)
+        return new SimpleUrlHandlerMapping(Map.of("/static/**", staticAssetsHandler),
+            Ordered.LOWEST_PRECEDENCE - 2);
+    }
+}
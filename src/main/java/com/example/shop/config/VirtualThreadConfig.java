@@ -0,0 +1,50 @@
+package com.example.shop.config;
+
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Runs Tomcat request handling and {@code @Async} jobs on virtual threads.
+ *
+ * <p>Enabled with {@code shop.threads.virtual=true}; requires a Java 21 runtime
+ * (see the {@code java21} Maven profile).
+ */
+@Configuration
+@ConditionalOnProperty(name = "shop.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tomcatVirtualThreadExecutor() {
+        logger.info("🧵 Обработка запросов Tomcat переведена на виртуальные потоки");
+        return VirtualThreads.newExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService tomcatVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatVirtualThreadExecutor);
+    }
+
+    /**
+     * Replaces Spring Boot's pooled {@code applicationTaskExecutor}, so {@code @Async}
+     * methods such as {@code AsyncLogService.generate} get a fresh virtual thread per call.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService asyncVirtualThreadExecutor() {
+        return VirtualThreads.newExecutor("async-vt-");
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService asyncVirtualThreadExecutor) {
+        return new TaskExecutorAdapter(asyncVirtualThreadExecutor);
+    }
+}
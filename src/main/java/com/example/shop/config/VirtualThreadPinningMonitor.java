@@ -0,0 +1,91 @@
+package com.example.shop.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically while blocking
+ * inside a {@code synchronized} block or a native frame.
+ *
+ * <p>Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process and keeps a
+ * counter per top application frame, so hot pinning sites show up in the log.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.threads.virtual", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger =
+        LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Map<String, AtomicLong> pinnedBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${shop.threads.pinning-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("📌 Мониторинг закреплённых виртуальных потоков включён (порог {})",
+            threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns how often each code site pinned a carrier thread above the threshold.
+     *
+     * @return counters keyed by the first application frame of the pinned stack
+     */
+    public Map<String, Long> getPinnedSites() {
+        return pinnedBySite.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get()));
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = "unknown";
+        StringBuilder trace = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            int shown = 0;
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String method = frame.getMethod().getType().getName()
+                    + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                if ("unknown".equals(site) && method.startsWith("com.example.shop")) {
+                    site = method;
+                }
+                if (shown++ < MAX_FRAMES) {
+                    trace.append("\n\tat ").append(method);
+                }
+            }
+        }
+        pinnedBySite.computeIfAbsent(site, k -> new AtomicLong()).incrementAndGet();
+        logger.warn("📌 Виртуальный поток закреплён на {} мс, место: {}{}",
+            event.getDuration().toMillis(), site, trace);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.shop.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to JDK 21 virtual threads from code compiled for Java 17.
+ *
+ * <p>The regular build targets Java 17, so the virtual-thread API is looked up reflectively.
+ * On older runtimes {@link #isSupported()} returns {@code false} and the factories fail fast.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method NAME = findMethod(
+        "java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = findMethod("java.lang.Thread$Builder", "factory");
+    private static final Method IS_VIRTUAL = findMethod(Thread.class, "isVirtual");
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the running JVM provides virtual threads.
+     *
+     * @return {@code true} on Java 21+
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    /**
+     * Checks whether the given thread is virtual.
+     *
+     * @param thread the thread to check
+     * @return {@code true} if the thread is a virtual thread
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory for virtual threads named {@code prefix0}, {@code prefix1}, ...
+     *
+     * @param prefix thread name prefix
+     * @return a virtual thread factory
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(
+                "Виртуальные потоки требуют Java 21+, текущая версия: "
+                    + Runtime.version());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать фабрику виртуальных потоков", e);
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread per task.
+     *
+     * @param prefix thread name prefix
+     * @return a thread-per-task executor backed by virtual threads
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        Method perTask = findMethod(
+            Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+        try {
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать executor виртуальных потоков", e);
+        }
+    }
+
+    private static Method findMethod(String className, String name, Class<?>... params) {
+        try {
+            return findMethod(Class.forName(className), name, params);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... params) {
+        try {
+            return type.getMethod(name, params);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -2,20 +2,28 @@ package com.example.shop.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.servlet.config.annotation.*;
 
 @Configuration
 public class WebConfig {
+
+    /** CORS rules of the API; also applied to the reactive servlet by {@link ReactiveConfig}. */
+    static CorsConfiguration corsConfiguration() {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.addAllowedOrigin("http://localhost:3000");
+        cors.addAllowedMethod("*");
+        cors.addAllowedHeader("*");
+        return cors;
+    }
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
-                registry.addMapping("/**")
-                    .allowedOrigins("http://localhost:3000")
-                    .allowedMethods("*")
-                    .allowedHeaders("*");
+                registry.addMapping("/**").combine(corsConfiguration());
             }
         };
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
 package com.example.shop.controllers;
 
+import com.example.shop.logs.LogRange;
 import com.example.shop.services.AsyncLogService;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,7 +33,8 @@ public class AsyncLogController {
         @RequestParam String from, @RequestParam String to
     ) {
         String id = UUID.randomUUID().toString();
-        service.generate(id, LocalDate.parse(from), LocalDate.parse(to));
+        service.enqueue(id);
+        service.generate(id, LogRange.of(from, to));
         return ResponseEntity.accepted().body(Map.of("requestId", id));
     }
 
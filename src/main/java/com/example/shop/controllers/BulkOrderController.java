@@ -0,0 +1,87 @@
+package com.example.shop.controllers;
+
+import com.example.shop.models.Order;
+import com.example.shop.services.BulkOrderService;
+import com.example.shop.services.BulkOrderService.ItemResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk order import. The body is either a JSON array or NDJSON (one order per line); it is read
+ * as a stream and committed in chunks, so memory use does not grow with the request size.
+ */
+@Tag(name = "Shop API", description = "Операции с пользователями, заказами и продуктами")
+@RestController
+@RequestMapping("/api")
+public class BulkOrderController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final BulkOrderService bulkOrderService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BulkOrderController(BulkOrderService bulkOrderService, ObjectMapper objectMapper,
+                               @Value("${shop.orders.bulk.chunk-size:500}") int chunkSize) {
+        this.bulkOrderService = bulkOrderService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Operation(summary = "Создать заказы пакетом (JSON-массив или NDJSON)")
+    @PostMapping(value = "/orders/bulk",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<BulkResponse> createOrders(HttpServletRequest request)
+            throws IOException {
+        List<ItemResult> results = new ArrayList<>();
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            // Массив разворачиваем в поток элементов; NDJSON и так последовательность значений
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                parser.nextToken();
+            }
+            MappingIterator<Order> orders = objectMapper.readerFor(Order.class).readValues(parser);
+            while (orders.hasNextValue()) {
+                chunk.add(orders.nextValue());
+                if (chunk.size() == chunkSize) {
+                    results.addAll(bulkOrderService.saveChunk(chunk, results.size()));
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Уже сохранённые пакеты остаются, клиент видит, с какой позиции продолжать
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(BulkResponse.of(results, "Некорректный JSON после позиции "
+                    + (results.size() + chunk.size()) + ": " + e.getOriginalMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(bulkOrderService.saveChunk(chunk, results.size()));
+        }
+        return ResponseEntity.ok(BulkResponse.of(results, null));
+    }
+
+    /** Totals and per-order results of a bulk request. */
+    public record BulkResponse(int created, int rejected, String error, List<ItemResult> items) {
+
+        static BulkResponse of(List<ItemResult> items, String error) {
+            int created = (int) items.stream().filter(i -> i.orderId() != null).count();
+            return new BulkResponse(created, items.size() - created, error, items);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.shop.controllers;
+
+import com.example.shop.cache.CatalogCache;
+import com.example.shop.cache.OrderCacheWarmer;
+import com.example.shop.models.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CatalogCache catalogCache;
+    private final Cache<String, List<Order>> orderCache;
+    private final Cache<String, List<Order>> orderByUserNameCache;
+    private final OrderCacheWarmer orderCacheWarmer;
+
+    @Autowired
+    public CacheController(
+            CatalogCache catalogCache,
+            @Qualifier("orderCache") Cache<String, List<Order>> orderCache,
+            @Qualifier("orderByUserNameCache")
+            Cache<String, List<Order>> orderByUserNameCache,
+            OrderCacheWarmer orderCacheWarmer) {
+        this.catalogCache = catalogCache;
+        this.orderCache = orderCache;
+        this.orderByUserNameCache = orderByUserNameCache;
+        this.orderCacheWarmer = orderCacheWarmer;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalog", catalogCache.statistics());
+        stats.put("orderCache", toMap(orderCache.stats(), orderCache.estimatedSize()));
+        stats.put("orderByUserNameCache",
+            toMap(orderByUserNameCache.stats(), orderByUserNameCache.estimatedSize()));
+        return stats;
+    }
+
+    @DeleteMapping("/catalog")
+    public String clearCatalogCache() {
+        catalogCache.evictAll();
+        return "🧹 Кэш каталога очищен";
+    }
+
+    @PostMapping("/orders/prewarm")
+    public String prewarmOrderCaches() {
+        return "🔥 Прогрето ключей: " + orderCacheWarmer.warm();
+    }
+
+    private Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictions", stats.evictionCount());
+        map.put("size", size);
+        return map;
+    }
+}
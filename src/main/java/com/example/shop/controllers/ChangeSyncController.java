@@ -0,0 +1,45 @@
+package com.example.shop.controllers;
+
+import com.example.shop.changes.ChangeSet;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.services.ChangeSyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Delta-sync endpoints. Without {@code since} the response holds every entity and a token;
+ * with the token of the previous response only the entities saved ({@code upserted}) or deleted
+ * since then. A token that has outlived the change log is answered with 410 Gone, after which
+ * the client loads the feed in full again.
+ *
+ * <p>Orders embed their products as they are when the order is read; a later change of a
+ * product is reported in the product feed only.
+ */
+@Tag(name = "Shop API", description = "Операции с пользователями, заказами и продуктами")
+@RestController
+@RequestMapping("/api")
+public class ChangeSyncController {
+
+    private final ChangeSyncService changeSyncService;
+
+    public ChangeSyncController(ChangeSyncService changeSyncService) {
+        this.changeSyncService = changeSyncService;
+    }
+
+    @Operation(summary = "Изменения продуктов после токена since (без since — все продукты)")
+    @GetMapping("/products/changes")
+    public ChangeSet<Product> getProductChanges(@RequestParam(required = false) String since) {
+        return changeSyncService.getProductChanges(since);
+    }
+
+    @Operation(summary = "Изменения заказов после токена since (без since — все заказы)")
+    @GetMapping("/orders/changes")
+    public ChangeSet<Order> getOrderChanges(@RequestParam(required = false) String since) {
+        return changeSyncService.getOrderChanges(since);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.shop.controllers;
+
+import com.example.shop.jdbc.PoolMetrics;
+import com.example.shop.jdbc.QueryStatistics;
+import com.example.shop.jdbc.ReplicaLagMonitor;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/db")
+public class DatabaseStatsController {
+
+    private final PoolMetrics poolMetrics;
+    private final QueryStatistics queryStatistics;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    @Autowired
+    public DatabaseStatsController(
+            PoolMetrics poolMetrics,
+            QueryStatistics queryStatistics,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        this.poolMetrics = poolMetrics;
+        this.queryStatistics = queryStatistics;
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @GetMapping("/pool")
+    public List<PoolMetrics.PoolSnapshot> getPoolStats() {
+        return poolMetrics.snapshot();
+    }
+
+    @GetMapping("/replica")
+    public ResponseEntity<ReplicaLagMonitor.ReplicaStatus> getReplicaStatus() {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(monitor.getStatus());
+    }
+
+    @GetMapping("/queries")
+    public List<QueryStatistics.QueryStat> getQueryStats(
+            @RequestParam(defaultValue = "20") int limit) {
+        return queryStatistics.top(limit);
+    }
+
+    @DeleteMapping("/queries/reset")
+    public String resetQueryStats() {
+        queryStatistics.reset();
+        return "📉 Статистика запросов сброшена";
+    }
+}
@@ -1,15 +1,12 @@
 package com.example.shop.controllers;
 
-import java.io.BufferedReader;
-import java.io.File;
+import com.example.shop.logs.LogArchives;
+import com.example.shop.logs.LogRange;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.regex.Pattern;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
@@ -26,9 +23,14 @@ public class LogController {
 
     private static final Path LOGS_DIR = Paths.get("logs").toAbsolutePath().normalize();
     private static final Pattern SAFE_DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
-    private static final String LOG_PATH = "logs/app.log";
-    private static final DateTimeFormatter 
-        LOG_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final Pattern SAFE_TIME_PATTERN =
+        Pattern.compile("\\d{4}-\\d{2}-\\d{2}(T\\d{2}:\\d{2}(:\\d{2})?)?");
+
+    private final LogArchives logArchives;
+
+    public LogController(LogArchives logArchives) {
+        this.logArchives = logArchives;
+    }
 
     @GetMapping
     public ResponseEntity<InputStreamResource> getLogs(
@@ -36,25 +38,22 @@ public class LogController {
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to) {
 
-        File fullLogFile = new File(LOG_PATH);
-        if (!fullLogFile.exists()) {
-            return ResponseEntity.notFound().build();
-        }
-
         if (!isValidParamCombination(date, from, to)) {
             return ResponseEntity.badRequest().body(null);
         }
 
         try {
+            if (!logArchives.exists()) {
+                return ResponseEntity.notFound().build();
+            }
+
             Path filteredLogPath = getFilteredLogPath(date, from, to);
             if (!filteredLogPath.startsWith(LOGS_DIR)) {
                 return ResponseEntity.badRequest().body(null); // path traversal
             }
 
-            LocalDate fromDate = getFromDate(date, from);
-            LocalDate toDate = getToDate(date, to);
-
-            writeFilteredLogs(fullLogFile, filteredLogPath, fromDate, toDate);
+            LogRange range = date != null ? LogRange.of(date, date) : LogRange.of(from, to);
+            writeFilteredLogs(filteredLogPath, range);
 
             InputStreamResource resource = new InputStreamResource(
                     new FileInputStream(filteredLogPath.toFile()));
@@ -75,46 +74,25 @@ public class LogController {
 
     private Path getFilteredLogPath(String date, String from, String to) {
         if (date != null) {
-            validateDate(date);
+            validate(SAFE_DATE_PATTERN, date);
             return LOGS_DIR.resolve("log-" + date + ".log").normalize();
         }
-        validateDate(from);
-        validateDate(to);
-        return LOGS_DIR.resolve("log-" + from + "_to_" + to + ".log").normalize();
-    }
-
-    private void validateDate(String date) {
-        if (!SAFE_DATE_PATTERN.matcher(date).matches()) {
-            throw new IllegalArgumentException("Invalid date format: " + date);
-        }
+        validate(SAFE_TIME_PATTERN, from);
+        validate(SAFE_TIME_PATTERN, to);
+        String name = "log-" + from + "_to_" + to + ".log";
+        return LOGS_DIR.resolve(name.replace(':', '-')).normalize();
     }
 
-    private LocalDate getFromDate(String date, String from) {
-        return LocalDate.parse(date != null ? date : from, LOG_DATE_FORMAT);
-    }
-
-    private LocalDate getToDate(String date, String to) {
-        return LocalDate.parse(date != null ? date : to, LOG_DATE_FORMAT);
-    }
-
-    private void writeFilteredLogs(
-            File source, Path target, LocalDate fromDate, LocalDate toDate) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(source));
-            PrintWriter writer = new PrintWriter(target.toFile())) {
-
-            reader.lines()
-                    .filter(line -> isLineInRange(line, fromDate, toDate))
-                    .forEach(writer::println);
+    private void validate(Pattern pattern, String value) {
+        if (!pattern.matcher(value).matches()) {
+            throw new IllegalArgumentException("Invalid date format: " + value);
         }
     }
 
-    private boolean isLineInRange(String line, LocalDate fromDate, LocalDate toDate) {
-        try {
-            String datePart = line.substring(0, 10);
-            LocalDate logDate = LocalDate.parse(datePart, LOG_DATE_FORMAT);
-            return !logDate.isBefore(fromDate) && !logDate.isAfter(toDate);
-        } catch (Exception e) {
-            return false;
+    /** Archives of days outside the range are not opened, indexed ones are read by frame. */
+    private void writeFilteredLogs(Path target, LogRange range) throws IOException {
+        try (PrintWriter writer = new PrintWriter(target.toFile())) {
+            logArchives.read(range, writer::println);
         }
     }
-}
\ No newline at end of file
+}
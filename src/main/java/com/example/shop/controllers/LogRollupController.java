@@ -0,0 +1,56 @@
+package com.example.shop.controllers;
+
+import com.example.shop.logs.LogHistogram;
+import com.example.shop.logs.LogRange;
+import com.example.shop.logs.LogRollups;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import org.slf4j.event.Level;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Log line counts per minute, hour or any whole number of minutes, from the rollups kept by
+ * {@link LogRollups} instead of the log files:
+ * {@code /logs/rollups?from=2025-05-13&to=2025-05-13&level=ERROR&logger=GlobalExceptionHandler}.
+ */
+@RestController
+@RequestMapping("/logs")
+public class LogRollupController {
+
+    private final LogRollups logRollups;
+
+    public LogRollupController(LogRollups logRollups) {
+        this.logRollups = logRollups;
+    }
+
+    /**
+     * @param from   a day or a time ({@code 2025-05-13T10:00}), inclusive
+     * @param to     a day (inclusive) or a time (exclusive)
+     * @param step   bucket width ({@code 1m}, {@code 15m}, {@code 1h}, {@code PT1H})
+     * @param level  the lowest level to count ({@code WARN} also counts {@code ERROR})
+     * @param logger a part of the logger name as written in the log
+     */
+    @GetMapping("/rollups")
+    public LogHistogram getRollups(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "1m") String step,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger) {
+        LogRange range;
+        Duration width;
+        try {
+            range = LogRange.of(from, to);
+            width = DurationStyle.detectAndParse(step);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный интервал: " + e.getParsedString());
+        }
+        return logRollups.histogram(range, width,
+            level == null ? null : Level.valueOf(level.toUpperCase(Locale.ROOT)), logger);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.shop.controllers;
+
+import com.example.shop.logs.LogTail;
+import com.example.shop.logs.LogTail.Filter;
+import com.example.shop.logs.LogTail.Subscription;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live tail of the application log as Server-Sent Events. Every {@code log} event carries one
+ * or more lines (one {@code data} field per line); a {@code skipped} event tells how many lines
+ * were left out because the client did not keep up. Without new lines a comment is sent every
+ * {@code shop.logs.tail.heartbeat}.
+ */
+@RestController
+@RequestMapping("/logs")
+public class LogTailController {
+
+    private final LogTail logTail;
+    private final Duration timeout;
+
+    public LogTailController(
+            LogTail logTail,
+            @Value("${shop.logs.tail.timeout:30m}") Duration timeout) {
+        this.logTail = logTail;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param level  the lowest level to send ({@code WARN} also sends {@code ERROR})
+     * @param logger a part of the logger name ({@code GlobalExceptionHandler})
+     * @param text   a part of the line
+     */
+    @GetMapping("/tail")
+    public ResponseEntity<SseEmitter> tail(
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
+            @RequestParam(required = false) String text) throws IOException {
+        Filter filter = new Filter(
+            level == null ? null : Level.valueOf(level.toUpperCase(Locale.ROOT)),
+            logger, text);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = logTail.subscribe(filter, (lines, skipped) -> {
+            if (lines.isEmpty() && skipped == 0) {
+                emitter.send(SseEmitter.event().comment("ping"));
+                return;
+            }
+            if (!lines.isEmpty()) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name("log");
+                lines.forEach(event::data);
+                emitter.send(event);
+            }
+            if (skipped > 0) {
+                emitter.send(SseEmitter.event().name("skipped").data(skipped));
+            }
+        });
+        if (subscription == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        // Без первого события заголовки ответа не отправятся до первой строки лога
+        emitter.send(SseEmitter.event().comment("tail"));
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.shop.controllers;
+
+import com.example.shop.services.ProductImportService;
+import com.example.shop.services.ProductImportService.ImportProgress;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Map;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Shop API", description = "Операции с пользователями, заказами и продуктами")
+@RestController
+@RequestMapping("/api/products/import")
+public class ProductImportController {
+
+    private final ProductImportService importService;
+
+    public ProductImportController(ProductImportService importService) {
+        this.importService = importService;
+    }
+
+    @Operation(summary = "Потоковый импорт продуктов из JSON-массива (асинхронно)")
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, String>> start(HttpServletRequest request)
+            throws IOException {
+        String id = importService.enqueue(request.getInputStream());
+        importService.run(id);
+        return ResponseEntity.accepted().body(Map.of("jobId", id));
+    }
+
+    @Operation(summary = "Ход импорта продуктов")
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportProgress> progress(@PathVariable String id) {
+        return importService.getProgress(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.shop.controllers;
+
+import com.example.shop.search.ProductSearchIndex;
+import com.example.shop.search.ProductSearchIndex.SearchHit;
+import com.example.shop.search.ProductSearchIndex.SearchMode;
+import com.example.shop.search.ProductSearchIndex.SearchQuery;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Shop API", description = "Операции с пользователями, заказами и продуктами")
+@RestController
+@RequestMapping("/api/products")
+public class ProductSearchController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final ProductSearchIndex searchIndex;
+
+    public ProductSearchController(ProductSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Operation(summary = "Поиск продуктов по названию (префикс или нечёткий), категориям и цене")
+    @GetMapping("/search")
+    public List<SearchHit> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "prefix") String mode,
+            @RequestParam(required = false) Set<Long> category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "20") int limit) {
+        SearchMode searchMode;
+        try {
+            searchMode = SearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный режим поиска: " + mode);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        return searchIndex.search(
+            new SearchQuery(q, searchMode, category, minPrice, maxPrice, limit));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.shop.controllers;
+
+import com.example.shop.analytics.SalesAnalytics;
+import com.example.shop.analytics.SalesAnalytics.Dimension;
+import com.example.shop.analytics.SalesAnalytics.ReconciliationReport;
+import com.example.shop.analytics.SalesAnalytics.SalesBucket;
+import com.example.shop.analytics.SalesAnalytics.SalesMetric;
+import com.example.shop.analytics.SalesAnalytics.SalesTotals;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Shop API", description = "Операции с пользователями, заказами и продуктами")
+@RestController
+@RequestMapping("/api/analytics")
+public class SalesAnalyticsController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final SalesAnalytics salesAnalytics;
+
+    public SalesAnalyticsController(SalesAnalytics salesAnalytics) {
+        this.salesAnalytics = salesAnalytics;
+    }
+
+    @Operation(summary = "Топ товаров, пользователей или категорий по заказам или выручке")
+    @GetMapping("/{dimension}/top")
+    public List<SalesTotals> top(
+            @PathVariable String dimension,
+            @RequestParam(defaultValue = "orders") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        return salesAnalytics.top(parse(Dimension.class, dimension),
+            parse(SalesMetric.class, by), limit);
+    }
+
+    @Operation(summary = "Заказы и выручка одного товара, пользователя или категории")
+    @GetMapping("/{dimension}/{id}")
+    public SalesTotals totals(@PathVariable String dimension, @PathVariable long id) {
+        return salesAnalytics.totals(parse(Dimension.class, dimension), id);
+    }
+
+    @Operation(summary = "Почасовые продажи за период (по умолчанию последние сутки)")
+    @GetMapping("/series")
+    public List<SalesBucket> series(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to == null ? LocalDateTime.now().plusHours(1) : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from должен быть раньше to");
+        }
+        return salesAnalytics.series(start, end);
+    }
+
+    @Operation(summary = "Сверить аналитику с базой данных")
+    @PostMapping("/reconcile")
+    public ReconciliationReport reconcile() {
+        return salesAnalytics.reconcile();
+    }
+
+    @Operation(summary = "Результат последней сверки")
+    @GetMapping("/reconcile")
+    public ResponseEntity<ReconciliationReport> lastReconciliation() {
+        ReconciliationReport report = salesAnalytics.getLastReconciliation();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестное значение: " + value);
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.example.shop.controllers;
 
+import com.example.shop.catalog.CatalogJsonCache;
+import com.example.shop.catalog.CatalogSnapshot;
+import com.example.shop.catalog.CatalogSnapshot.CategoryMatch;
+import com.example.shop.catalog.CatalogSnapshots;
+import com.example.shop.exceptions.ConflictException;
+import com.example.shop.exceptions.NotFoundException;
 import com.example.shop.models.Category;
 import com.example.shop.models.Order;
 import com.example.shop.models.Product;
 import com.example.shop.models.User;
 import com.example.shop.services.ShopService;
+import com.example.shop.services.ShopService.OrderPatch;
+import com.example.shop.services.ShopService.ProductPatch;
+import com.example.shop.stats.HeavyHitters;
+import com.example.shop.stats.HeavyHitters.Kind;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -24,6 +46,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controller for handling shop-related API requests.
@@ -35,26 +58,145 @@ import org.springframework.web.bind.annotation.RestController;
 public class ShopController {
 
     private final ShopService shopService;
+    private final CatalogSnapshots catalogSnapshots;
+    private final CatalogJsonCache catalogJsonCache;
+    private final ObjectMapper objectMapper;
+    private final HeavyHitters heavyHitters;
 
     /**
      * Constructor-based dependency injection for ShopService.
      *
      * @param shopService the service layer for handling product operations
+     * @param catalogSnapshots read-optimized copy of the catalog used for listings
+     * @param catalogJsonCache full listings encoded once per catalog version
+     * @param objectMapper source of the JSON generator for listings
+     * @param heavyHitters tracks the hottest order lookups for cache pre-warming
      */
     @Autowired
-    public ShopController(ShopService shopService) {
+    public ShopController(ShopService shopService, CatalogSnapshots catalogSnapshots,
+                          CatalogJsonCache catalogJsonCache, ObjectMapper objectMapper,
+                          HeavyHitters heavyHitters) {
         this.shopService = shopService;
+        this.catalogSnapshots = catalogSnapshots;
+        this.catalogJsonCache = catalogJsonCache;
+        this.objectMapper = objectMapper;
+        this.heavyHitters = heavyHitters;
     }
 
     /**
-     * Retrieves all available products.
+     * Retrieves available products, optionally filtered. Served from the catalog snapshot and
+     * written straight to the response without loading entities; the unfiltered listing is sent
+     * as pre-encoded bytes. Every listing carries the ETag of the full listing and is answered
+     * with 304 when {@code If-None-Match} still matches it.
      *
-     * @return a list of products
+     * @param category products in these categories
+     * @param match {@code any} (default) or {@code all} of the requested categories
+     * @param minPrice inclusive lower price bound
+     * @param maxPrice inclusive upper price bound
+     * @param webRequest source of the conditional request headers
+     * @param response the response the JSON array is written to
      */
-    @Operation(summary = "Получить все продукты")
-    @GetMapping("/products")
-    public List<Product> getAllProducts() {
-        return shopService.getAllProducts();
+    @Operation(summary = "Получить все продукты (фильтры по категориям и цене)")
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getAllProducts(
+            @RequestParam(required = false) Set<Long> category,
+            @RequestParam(defaultValue = "any") String match,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            WebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+        CategoryMatch categoryMatch;
+        try {
+            categoryMatch = CategoryMatch.valueOf(match.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("match должен быть any или all: " + match);
+        }
+        CatalogJsonCache.Encoded listing = catalogJsonCache.products();
+        if (category == null && minPrice == null && maxPrice == null) {
+            writeEncoded(listing, webRequest, response);
+            return;
+        }
+        if (notModified(listing, webRequest, response)) {
+            return;
+        }
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        writeProducts(snapshot,
+            snapshot.select(category, categoryMatch, minPrice, maxPrice), response);
+    }
+
+    /**
+     * Retrieves the products of one category from the catalog snapshot.
+     *
+     * @param id the ID of the category
+     * @param minPrice inclusive lower price bound
+     * @param maxPrice inclusive upper price bound
+     * @param webRequest source of the conditional request headers
+     * @param response the response the JSON array is written to
+     */
+    @Operation(summary = "Получить продукты категории")
+    @GetMapping(value = "/categories/{id}/products", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getCategoryProducts(
+            @PathVariable Long id,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            WebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        if (!snapshot.hasCategory(id)) {
+            throw new NotFoundException("Категория с id=" + id + " не найдена");
+        }
+        if (notModified(catalogJsonCache.products(), webRequest, response)) {
+            return;
+        }
+        writeProducts(snapshot,
+            snapshot.select(Set.of(id), CategoryMatch.ANY, minPrice, maxPrice), response);
+    }
+
+    private void writeProducts(CatalogSnapshot snapshot, RoaringBitmap positions,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator =
+                 objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            snapshot.writeJson(positions, generator);
+        }
+    }
+
+    private void writeEncoded(CatalogJsonCache.Encoded encoded, WebRequest webRequest,
+                              HttpServletResponse response) throws IOException {
+        if (notModified(encoded, webRequest, response)) {
+            return;
+        }
+        byte[] body = encoded.json();
+        if (acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = encoded.gzip();
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean notModified(CatalogJsonCache.Encoded encoded, WebRequest webRequest,
+                                       HttpServletResponse response) {
+        // no-cache: клиент хранит ответ, но каждый раз переспрашивает сервер по ETag
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return webRequest.checkNotModified(encoded.etag());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
     /**
@@ -118,22 +260,43 @@ public class ShopController {
     @Operation(summary = "Получить заказы по продукту")
     @GetMapping("/orders/by-product")
     public List<Order> getOrdersByProduct(@RequestParam String productName) {
+        heavyHitters.record(Kind.PRODUCT_NAMES, productName);
         return shopService.getOrdersByProductName(productName);
     }
 
     @Operation(summary = "Получить заказы по продукту")
     @GetMapping("/orders/by-productN")
     public List<Order> getOrdersByProductNameNative(@RequestParam String productName) {
+        heavyHitters.record(Kind.PRODUCT_NAMES, productName);
         return shopService.getOrdersByProductNameNative(productName);
     }
 
     @Operation(summary = "Получить заказы по пользователю")
     @GetMapping("/orders/by-username")
     public ResponseEntity<List<Order>> getOrdersByUserName(@RequestParam String userName) {
+        heavyHitters.record(Kind.USER_NAMES, userName);
         List<Order> orders = shopService.getOrdersByUserNameCached(userName);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Changes the user or the products of an order if it is still at {@code version}.
+     *
+     * @param id the ID of the order
+     * @param patch the expected version and the fields to change
+     * @return the updated order; 409 with the current order if it changed in the meantime
+     */
+    @Operation(summary = "Частично изменить заказ (проверка version)")
+    @PatchMapping("/orders/{id}")
+    public Order patchOrder(@PathVariable Long id, @RequestBody OrderPatch patch) {
+        try {
+            return shopService.patchOrder(id, patch);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Заказ id=" + id + " изменён, версия " + patch.version()
+                + " устарела", shopService.getOrderById(id).orElse(null));
+        }
+    }
+
     @Operation(summary = "Удалить заказ")
     @DeleteMapping("/orders/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
@@ -154,10 +317,18 @@ public class ShopController {
         return ResponseEntity.ok("Кэш заказов по имени пользователя очищен");
     }
 
+    /**
+     * Retrieves all categories as pre-encoded bytes of the catalog snapshot, with ETag
+     * revalidation.
+     *
+     * @param webRequest source of the conditional request headers
+     * @param response the response the JSON array is written to
+     */
     @Operation(summary = "Получить список категорий")
-    @GetMapping("/categories")
-    public List<Category> getAllCategories() {
-        return shopService.getAllCategories();
+    @GetMapping(value = "/categories", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getAllCategories(WebRequest webRequest, HttpServletResponse response)
+            throws IOException {
+        writeEncoded(catalogJsonCache.categories(), webRequest, response);
     }
 
     @Operation(summary = "Добавить категорию")
@@ -193,6 +364,25 @@ public class ShopController {
         return shopService.updateProduct(id, updatedProduct);
     }
 
+    /**
+     * Changes only the given fields of a product if it is still at {@code version}.
+     *
+     * @param id the ID of the product
+     * @param patch the expected version and the fields to change
+     * @return the updated product; 409 with the current product if it changed in the meantime
+     */
+    @Operation(summary = "Частично изменить продукт (проверка version)")
+    @PatchMapping("/products/{id}")
+    public Product patchProduct(@PathVariable Long id, @RequestBody ProductPatch patch) {
+        try {
+            return shopService.patchProduct(id, patch);
+        } catch (OptimisticLockingFailureException e) {
+            // Откат уже очистил контекст: читаем состояние, которое закоммитил конкурент
+            throw new ConflictException("Продукт id=" + id + " изменён, версия " + patch.version()
+                + " устарела", shopService.getProductById(id).orElse(null));
+        }
+    }
+
     @Operation(summary = "Удалить продукт")
     @DeleteMapping("/products/{id}")
     public ResponseEntity<String> deleteProduct(@PathVariable Long id) {
@@ -1,8 +1,13 @@
 package com.example.shop.controllers;
 
 import com.example.shop.services.VisitCounterService;
+import com.example.shop.stats.HeavyHitters;
+import com.example.shop.stats.HeavyHitters.Kind;
+import com.example.shop.stats.SpaceSaving.Item;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,24 +19,58 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/visits")
 public class VisitController {
 
+    private static final int MAX_LIMIT = 100;
+
     private final VisitCounterService visitCounterService;
+    private final HeavyHitters heavyHitters;
 
     @Autowired
-    public VisitController(VisitCounterService visitCounterService) {
+    public VisitController(VisitCounterService visitCounterService, HeavyHitters heavyHitters) {
         this.visitCounterService = visitCounterService;
+        this.heavyHitters = heavyHitters;
     }
 
     @GetMapping("/count")
-    public Map<String, Integer> getAllVisits() {
-        return visitCounterService.getAllStats().entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get()));
+    public Map<String, Long> getAllVisits() {
+        return visitCounterService.getAllStats();
     }
 
     @GetMapping("/count/endpoint")
-    public int getCount(@RequestParam String path) {
+    public long getCount(@RequestParam String path) {
         return visitCounterService.getVisitCount(path);
     }
     
+    /**
+     * Most frequent endpoints, looked-up product and user names and clients.
+     *
+     * @param kind one of {@code endpoints}, {@code product_names}, {@code user_names},
+     *             {@code clients}; all of them when omitted
+     * @param limit entries per kind
+     */
+    @GetMapping("/top")
+    public Map<Kind, List<Item>> getTop(
+            @RequestParam(required = false) String kind,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        Map<Kind, List<Item>> top = new EnumMap<>(Kind.class);
+        if (kind == null) {
+            for (Kind k : Kind.values()) {
+                top.put(k, heavyHitters.top(k, limit));
+            }
+        } else {
+            Kind k;
+            try {
+                k = Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный вид статистики: " + kind);
+            }
+            top.put(k, heavyHitters.top(k, limit));
+        }
+        return top;
+    }
+
     @DeleteMapping("/reset")
     public String resetAll() {
         visitCounterService.resetAll();
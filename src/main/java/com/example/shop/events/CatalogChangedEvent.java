@@ -0,0 +1,53 @@
+package com.example.shop.events;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Appended to the {@code Outbox} by catalog writes and delivered after the commit, possibly
+ * merged with other changes and more than once. Listeners that maintain in-memory views of the
+ * catalog should use {@code @TransactionalEventListener(fallbackExecution = true)} and re-read
+ * the saved products, so that a repeated or merged event has the same effect.
+ *
+ * @param savedProducts     products created or updated, including their category links
+ * @param deletedProducts   products removed
+ * @param changedCategories categories created or removed
+ */
+public record CatalogChangedEvent(
+        Set<Long> savedProducts,
+        Set<Long> deletedProducts,
+        Set<Long> changedCategories) {
+
+    public static CatalogChangedEvent productsSaved(Collection<Long> ids) {
+        return new CatalogChangedEvent(ids(ids), Set.of(), Set.of());
+    }
+
+    public static CatalogChangedEvent productDeleted(Long id) {
+        return new CatalogChangedEvent(Set.of(), ids(Collections.singleton(id)), Set.of());
+    }
+
+    public static CatalogChangedEvent categoryChanged(Long id) {
+        return new CatalogChangedEvent(Set.of(), Set.of(), ids(Collections.singleton(id)));
+    }
+
+    /** Union of several changes, as if they had been made by one write. */
+    public static CatalogChangedEvent merge(Collection<CatalogChangedEvent> events) {
+        Set<Long> saved = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        Set<Long> categories = new HashSet<>();
+        for (CatalogChangedEvent event : events) {
+            saved.addAll(event.savedProducts());
+            deleted.addAll(event.deletedProducts());
+            categories.addAll(event.changedCategories());
+        }
+        return new CatalogChangedEvent(ids(saved), ids(deleted), ids(categories));
+    }
+
+    private static Set<Long> ids(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.shop.events;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Appended to the {@code Outbox} by order writes and delivered after the commit. Each delta
+ * carries the amounts involved, so listeners can keep aggregates up to date without re-reading
+ * orders that no longer exist by the time the event arrives. Listeners should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}.
+ *
+ * @param deltas one entry per affected order
+ */
+public record OrdersChangedEvent(List<OrderDelta> deltas) {
+
+    public static OrdersChangedEvent of(Collection<OrderDelta> deltas) {
+        return new OrdersChangedEvent(deltas.stream().filter(Objects::nonNull).toList());
+    }
+
+    /** The same deltas marked with the outbox row they were delivered from. */
+    public OrdersChangedEvent withOutboxId(long outboxId) {
+        return new OrdersChangedEvent(deltas.stream().map(d -> new OrderDelta(d.userId(),
+            d.placedAt(), d.orders(), d.lines(), outboxId)).toList());
+    }
+
+    /** All deltas of several events, in order. */
+    public static OrdersChangedEvent merge(Collection<OrdersChangedEvent> events) {
+        return new OrdersChangedEvent(events.stream().flatMap(e -> e.deltas().stream()).toList());
+    }
+
+    /**
+     * Change of one order.
+     *
+     * @param userId   the owner of the order
+     * @param placedAt when the order was created
+     * @param orders   {@code +1} for a new order, {@code -1} for a removed one, {@code 0} when
+     *                 only some of its products were removed
+     * @param lines    the products added ({@code quantity = 1}) or removed ({@code -1})
+     * @param outboxId the outbox row the delta was delivered from, {@code 0} until it is
+     *                 delivered; all deltas of one row share it
+     */
+    public record OrderDelta(long userId, LocalDateTime placedAt, int orders, List<Line> lines,
+                             long outboxId) {
+
+        public static OrderDelta placed(Order order) {
+            return of(order, 1, products(order), 1);
+        }
+
+        public static OrderDelta removed(Order order) {
+            return of(order, -1, products(order), -1);
+        }
+
+        /**
+         * Removal of one product from an order.
+         *
+         * @param orderRemoved whether the order became empty and was deleted
+         */
+        public static OrderDelta productRemoved(Order order, Product product,
+                                                boolean orderRemoved) {
+            return of(order, orderRemoved ? -1 : 0, List.of(product), -1);
+        }
+
+        private static OrderDelta of(Order order, int orders, List<Product> products,
+                                     int quantity) {
+            if (order == null || order.getUser() == null || order.getUser().getId() == null) {
+                return null;
+            }
+            List<Line> lines = new ArrayList<>(products.size());
+            for (Product product : products) {
+                Line line = Line.of(product, quantity);
+                if (line != null) {
+                    lines.add(line);
+                }
+            }
+            return new OrderDelta(order.getUser().getId(), order.getCreatedAt(), orders,
+                List.copyOf(lines), 0);
+        }
+
+        private static List<Product> products(Order order) {
+            return order == null || order.getProducts() == null ? List.of() : order.getProducts();
+        }
+    }
+
+    /**
+     * One product of an order.
+     *
+     * @param priceCents  the product price in cents at the time of the change
+     * @param categoryIds the product categories at the time of the change
+     */
+    public record Line(long productId, long priceCents, List<Long> categoryIds, int quantity) {
+
+        public static Line of(Product product, int quantity) {
+            if (product == null || product.getId() == null) {
+                return null;
+            }
+            List<Long> categories = product.getCategories() == null ? List.of()
+                : product.getCategories().stream().map(Category::getId)
+                    .filter(Objects::nonNull).distinct().toList();
+            return new Line(product.getId(), cents(product.getPrice()), categories, quantity);
+        }
+
+        public static long cents(Double price) {
+            return price == null ? 0 : Math.round(price * 100);
+        }
+    }
+}
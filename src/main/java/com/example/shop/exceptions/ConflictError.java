@@ -0,0 +1,14 @@
+package com.example.shop.exceptions;
+
+public class ConflictError extends ApiError {
+    private Object current;
+
+    public ConflictError(String message, Object current) {
+        super(409, message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.shop.exceptions;
+
+/**
+ * The entity changed since the client read it; carries its current state for the 409 response.
+ */
+public class ConflictException extends RuntimeException {
+    private final transient Object current;
+
+    public ConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
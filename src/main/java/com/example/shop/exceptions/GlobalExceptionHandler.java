@@ -3,6 +3,7 @@ package com.example.shop.exceptions;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -62,9 +63,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new ApiError(405, message), HttpStatus.METHOD_NOT_ALLOWED);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ConflictError> handleConflict(ConflictException ex) {
+        logger.warn("⚠️ Conflict: {}", ex.getMessage());
+        return new ResponseEntity<>(new ConflictError(ex.getMessage(), ex.getCurrent()),
+            HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex) {
+        logger.warn("⚠️ Concurrent modification: {}", ex.getMessage());
+        return new ResponseEntity<>(new ApiError(409,
+            "Запись изменена параллельным запросом, повторите с актуальной версией"),
+            HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFound(NotFoundException ex) {
         return new ResponseEntity<>(new ApiError(404, ex.getMessage()), HttpStatus.NOT_FOUND);
     }
-}
 
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<ApiError> handleGone(GoneException ex) {
+        logger.warn("⚠️ Gone: {}", ex.getMessage());
+        return new ResponseEntity<>(new ApiError(410, ex.getMessage()), HttpStatus.GONE);
+    }
+}
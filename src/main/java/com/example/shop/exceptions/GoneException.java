@@ -0,0 +1,10 @@
+package com.example.shop.exceptions;
+
+/**
+ * The requested state is no longer kept, e.g. a delta-sync token older than the change log.
+ */
+public class GoneException extends RuntimeException {
+    public GoneException(String message) {
+        super(message);
+    }
+}
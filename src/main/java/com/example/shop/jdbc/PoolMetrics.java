@@ -0,0 +1,133 @@
+package com.example.shop.jdbc;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects HikariCP wait-time and usage metrics for every pool created by the application.
+ * The same events are published to Micrometer as the standard {@code hikaricp.*} meters.
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private final MetricsTrackerFactory micrometer;
+
+    public PoolMetrics(MeterRegistry meterRegistry) {
+        this.micrometer = new MicrometerMetricsTrackerFactory(meterRegistry);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolStats, micrometer.create(poolName, poolStats));
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * Returns a point-in-time view of all pools.
+     *
+     * @return one snapshot per pool
+     */
+    public List<PoolSnapshot> snapshot() {
+        return trackers.entrySet().stream()
+            .map(e -> e.getValue().snapshot(e.getKey()))
+            .toList();
+    }
+
+    /**
+     * Pool state together with accumulated acquire (wait) and usage times.
+     */
+    public record PoolSnapshot(
+            String pool,
+            int active,
+            int idle,
+            int total,
+            int pending,
+            int max,
+            long acquired,
+            double avgWaitMillis,
+            double maxWaitMillis,
+            double avgUsageMillis,
+            long maxUsageMillis,
+            long timeouts) {
+    }
+
+    private static final class Tracker implements IMetricsTracker {
+        private final PoolStats stats;
+        private final IMetricsTracker delegate;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder usages = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAccumulator maxUsageMillis = new LongAccumulator(Math::max, 0);
+        private final LongAdder timeouts = new LongAdder();
+
+        Tracker(PoolStats stats, IMetricsTracker delegate) {
+            this.stats = stats;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            acquired.increment();
+            waitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            usages.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+            maxUsageMillis.accumulate(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        PoolSnapshot snapshot(String pool) {
+            long acquiredCount = acquired.sum();
+            long usageCount = usages.sum();
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return new PoolSnapshot(
+                pool,
+                stats.getActiveConnections(),
+                stats.getIdleConnections(),
+                stats.getTotalConnections(),
+                stats.getPendingThreads(),
+                stats.getMaxConnections(),
+                acquiredCount,
+                acquiredCount == 0 ? 0 : waitNanos.sum() / nanosPerMilli / acquiredCount,
+                maxWaitNanos.get() / nanosPerMilli,
+                usageCount == 0 ? 0 : (double) usageMillis.sum() / usageCount,
+                maxUsageMillis.get(),
+                timeouts.sum());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.shop.jdbc;
+
+import com.example.shop.config.PoolProperties;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-statement execution counters and the slow-query log.
+ *
+ * <p>Statements are keyed by their SQL text with whitespace collapsed. The number of distinct
+ * keys is bounded; once the limit is reached new statements are counted under {@code <other>}.
+ */
+@Component
+public class QueryStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatistics.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SQL_LENGTH = 300;
+    static final String OTHER = "<other>";
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    // Число отслеживаемых запросов без <other>; место занимается внутри computeIfAbsent
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final long slowThresholdNanos;
+    private final int maxTrackedQueries;
+
+    public QueryStatistics(PoolProperties properties) {
+        this.slowThresholdNanos = properties.getSlowQueryThreshold().toNanos();
+        this.maxTrackedQueries = properties.getMaxTrackedQueries();
+    }
+
+    /**
+     * Records one statement execution.
+     *
+     * @param sql the executed SQL
+     * @param elapsedNanos execution time
+     * @param failed whether the statement threw
+     */
+    public void record(String sql, long elapsedNanos, boolean failed) {
+        String normalized = normalize(sql);
+        Counter counter = counters.get(normalized);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(normalized, k -> reserve() ? new Counter() : null);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(OTHER, k -> new Counter());
+            }
+        }
+        counter.record(elapsedNanos, failed, elapsedNanos >= slowThresholdNanos);
+
+        // В лог всегда сам запрос, даже если в статистике он учтён под <other>
+        if (elapsedNanos >= slowThresholdNanos && logger.isWarnEnabled()) {
+            logger.warn("🐢 Медленный запрос ({} мс): {}",
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), normalized);
+        }
+    }
+
+    /**
+     * Returns the statements with the highest total execution time.
+     *
+     * @param limit maximum number of entries
+     * @return statistics ordered by total time, descending
+     */
+    public List<QueryStat> top(int limit) {
+        return counters.entrySet().stream()
+            .map(e -> e.getValue().snapshot(e.getKey()))
+            .sorted(Comparator.comparingDouble(QueryStat::totalMillis).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    public void reset() {
+        counters.clear();
+        tracked.set(0);
+    }
+
+    private boolean reserve() {
+        return tracked.getAndUpdate(n -> n < maxTrackedQueries ? n + 1 : n) < maxTrackedQueries;
+    }
+
+    private static String normalize(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        String compact = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return compact.length() > MAX_SQL_LENGTH ? compact.substring(0, MAX_SQL_LENGTH) : compact;
+    }
+
+    /**
+     * Aggregated statistics of one statement.
+     */
+    public record QueryStat(
+            String sql,
+            long count,
+            long errors,
+            long slow,
+            double totalMillis,
+            double avgMillis,
+            double maxMillis) {
+    }
+
+    private static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, boolean failed, boolean isSlow) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) {
+                errors.increment();
+            }
+            if (isSlow) {
+                slow.increment();
+            }
+        }
+
+        QueryStat snapshot(String sql) {
+            long n = count.sum();
+            double total = totalNanos.sum() / 1_000_000.0;
+            return new QueryStat(sql, n, errors.sum(), slow.sum(), total,
+                n == 0 ? 0 : total / n, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
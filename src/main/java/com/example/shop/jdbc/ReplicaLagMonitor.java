@@ -0,0 +1,108 @@
+package com.example.shop.jdbc;
+
+import com.example.shop.config.ReplicaProperties;
+import jakarta.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Periodically measures replication lag and tells {@link ReplicaRoutingDataSource} whether
+ * reads may go to the replica.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+
+    private volatile boolean healthy;
+    private volatile Long lagSeconds;
+    private volatile String reason = "not checked yet";
+    private volatile Instant lastCheck;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${shop.datasource.replica.check-interval-ms:5000}",
+        initialDelayString = "${shop.datasource.replica.check-interval-ms:5000}")
+    public void checkLag() {
+        Long lag = null;
+        String problem = null;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+            if (!rs.next()) {
+                problem = "replication is not configured";
+            } else {
+                Object value = rs.getObject(lagColumnIndex(rs.getMetaData()));
+                if (value == null) {
+                    problem = "replication is stopped";
+                } else {
+                    lag = Long.parseLong(value.toString());
+                }
+            }
+        } catch (SQLException | NumberFormatException e) {
+            problem = "lag check failed: " + e.getMessage();
+        }
+
+        if (problem == null && lag > properties.getMaxLag().toSeconds()) {
+            problem = "lag " + lag + "s exceeds " + properties.getMaxLag().toSeconds() + "s";
+        }
+        update(problem == null, lag, problem);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Returns the last observed replica state.
+     *
+     * @return replica health, lag and the reason for a fallback to the primary
+     */
+    public ReplicaStatus getStatus() {
+        return new ReplicaStatus(healthy, lagSeconds, healthy ? null : reason, lastCheck);
+    }
+
+    private void update(boolean nowHealthy, Long lag, String problem) {
+        boolean wasHealthy = healthy;
+        lagSeconds = lag;
+        reason = problem;
+        lastCheck = Instant.now();
+        healthy = nowHealthy;
+
+        if (wasHealthy && !nowHealthy) {
+            logger.warn("⚠️ Реплика недоступна для чтения ({}), чтение идёт с primary", problem);
+        } else if (!wasHealthy && nowHealthy) {
+            logger.info("✅ Реплика снова используется для чтения, отставание {} с", lag);
+        }
+    }
+
+    private int lagColumnIndex(ResultSetMetaData meta) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (meta.getColumnLabel(i).equalsIgnoreCase(properties.getLagColumn())) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Replica state exposed over {@code /db/replica}.
+     */
+    public record ReplicaStatus(boolean healthy, Long lagSeconds, String reason,
+            Instant lastCheck) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.shop.jdbc;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections of {@code @Transactional(readOnly = true)} work to the replica while it
+ * is healthy, everything else to the primary.
+ *
+ * <p>Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for a connection before the read-only flag of the transaction is published.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource
+        implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isHealthy()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Closes the primary pool; the replica pool is a bean of its own.
+     */
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
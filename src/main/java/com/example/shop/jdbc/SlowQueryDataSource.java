@@ -0,0 +1,132 @@
+package com.example.shop.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps a {@link DataSource} so every JDBC statement execution is timed and reported to
+ * {@link QueryStatistics}.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final QueryStatistics statistics;
+
+    public SlowQueryDataSource(DataSource target, QueryStatistics statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class,
+            obtainTargetDataSource().getConnection(username, password), null);
+    }
+
+    /**
+     * Closes the underlying pool when the application context shuts down.
+     */
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        while (target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        if (target instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private <T> T wrap(Class<T> type, T target, String sql) {
+        InvocationHandler handler = type == Connection.class
+            ? new ConnectionHandler(target)
+            : new StatementHandler(target, sql);
+        return type.cast(Proxy.newProxyInstance(
+            SlowQueryDataSource.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        if ("equals".equals(method.getName())) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(method.getName())) {
+            return System.identityHashCode(proxy);
+        }
+        return null;
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Object target;
+
+        ConnectionHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object same = identity(proxy, method, args);
+            if (same != null) {
+                return same;
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (result instanceof Statement
+                    && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return wrap((Class<Object>) method.getReturnType(), result, sql);
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object same = identity(proxy, method, args);
+            if (same != null) {
+                return same;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s
+                ? s : preparedSql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = SlowQueryDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                statistics.record(sql, System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.shop.logs;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A rotated log file ({@code app.log.2025-05-13.0.gz}) as block gzip: a sequence of independent
+ * gzip members ("frames") of about {@code frameSize} uncompressed bytes each, cut at line ends,
+ * with a sidecar index ({@code .gz.idx}) of each frame's offset, length and earliest/latest line
+ * timestamps. Any gzip reader still sees one stream of the whole log ({@code zcat} reads all
+ * members); {@link #read} decompresses only the frames that overlap the requested range.
+ *
+ * <p>Archives without a valid index (as logback writes them, or if the data file changed after
+ * indexing) are read whole.
+ */
+public final class LogArchive {
+
+    private static final int INDEX_MAGIC = 0x4c474958; // "LGIX"
+    private static final int INDEX_VERSION = 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * One gzip member of the archive.
+     *
+     * @param earliest earliest line timestamp, {@code null} if no line in the frame has one
+     * @param latest   latest line timestamp; lines of concurrent threads may be out of order
+     */
+    record Frame(long offset, int length, LocalDateTime earliest, LocalDateTime latest) {
+    }
+
+    private LogArchive() {
+    }
+
+    static Path indexOf(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".idx");
+    }
+
+    /** Whether the archive has an index that matches its current contents. */
+    public static boolean isIndexed(Path archive) throws IOException {
+        return readIndex(archive) != null;
+    }
+
+    /**
+     * Rewrites {@code archive} in place as block gzip and writes its index. The new file replaces
+     * the old one atomically; the index is written last, so a crash in between leaves a valid
+     * archive that is simply indexed again.
+     *
+     * @return the number of frames
+     */
+    public static int compact(Path archive, int frameSize) throws IOException {
+        Path data = archive.resolveSibling(archive.getFileName() + ".tmp");
+        Path index = archive.resolveSibling(archive.getFileName() + ".idx.tmp");
+        List<Frame> frames;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive), 1 << 16);
+             OutputStream out = Files.newOutputStream(data)) {
+            FrameWriter writer = new FrameWriter(out, frameSize);
+            byte[] chunk = new byte[1 << 16];
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] == '\n') {
+                        line.write(chunk, start, i + 1 - start);
+                        writer.line(line);
+                        start = i + 1;
+                    }
+                }
+                line.write(chunk, start, n - start);
+            }
+            if (line.size() > 0) {
+                writer.line(line);
+            }
+            frames = writer.finish();
+        } catch (IOException e) {
+            Files.deleteIfExists(data);
+            throw e;
+        }
+        long size = Files.size(data);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(index))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(size);
+            out.writeInt(frames.size());
+            for (Frame frame : frames) {
+                out.writeLong(frame.offset());
+                out.writeInt(frame.length());
+                out.writeLong(toMillis(frame.earliest()));
+                out.writeLong(toMillis(frame.latest()));
+            }
+        }
+        Files.move(data, archive, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        Files.move(index, indexOf(archive), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        return frames.size();
+    }
+
+    /**
+     * Passes the lines of {@code archive} whose timestamp is in {@code range} to {@code action},
+     * in file order. Lines without a timestamp are skipped.
+     */
+    public static void read(Path archive, LogRange range, Consumer<String> action)
+            throws IOException {
+        List<Frame> frames = readIndex(archive);
+        if (frames == null) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(archive), 1 << 16)) {
+                readLines(in, range, action);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            for (Frame frame : covering(frames, range)) {
+                ByteBuffer buffer = ByteBuffer.allocate(frame.length());
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, frame.offset() + buffer.position()) < 0) {
+                        throw new EOFException("Кадр за концом архива " + archive);
+                    }
+                }
+                readLines(new GZIPInputStream(new ByteArrayInputStream(buffer.array())),
+                    range, action);
+            }
+        }
+    }
+
+    /** Frames that may hold lines in {@code range}. */
+    static List<Frame> covering(List<Frame> frames, LogRange range) {
+        return frames.stream()
+            .filter(frame -> frame.earliest() != null
+                && range.overlaps(frame.earliest(), frame.latest()))
+            .toList();
+    }
+
+    /** The frames of {@code archive}, or {@code null} if it has no index for its contents. */
+    static List<Frame> readIndex(Path archive) throws IOException {
+        Path index = indexOf(archive);
+        if (!Files.exists(index) || !Files.exists(archive)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Files.readAllBytes(index)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION
+                    || in.readLong() != Files.size(archive)) {
+                return null;
+            }
+            int count = in.readInt();
+            List<Frame> frames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                frames.add(new Frame(in.readLong(), in.readInt(),
+                    fromMillis(in.readLong()), fromMillis(in.readLong())));
+            }
+            return frames;
+        } catch (IOException e) {
+            // Обрезанный или чужой индекс: архив читается целиком
+            return null;
+        }
+    }
+
+    static void readLines(InputStream in, LogRange range, Consumer<String> action)
+            throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LocalDateTime time = LogRange.timestampOf(line);
+                if (time != null && range.contains(time)) {
+                    action.accept(line);
+                }
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? NO_TIMESTAMP : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == NO_TIMESTAMP ? null
+            : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /** Collects lines into frames and writes every full frame as its own gzip member. */
+    private static final class FrameWriter {
+        private final OutputStream out;
+        private final int frameSize;
+        private final ByteArrayOutputStream frame;
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        private final List<Frame> frames = new ArrayList<>();
+        private long offset;
+        private LocalDateTime earliest;
+        private LocalDateTime latest;
+
+        FrameWriter(OutputStream out, int frameSize) {
+            this.out = out;
+            this.frameSize = frameSize;
+            this.frame = new ByteArrayOutputStream(frameSize + 4096);
+        }
+
+        void line(ByteArrayOutputStream line) throws IOException {
+            byte[] bytes = line.toByteArray();
+            line.reset();
+            LocalDateTime time = LogRange.timestampOf(
+                new String(bytes, 0, Math.min(bytes.length, 19), StandardCharsets.ISO_8859_1));
+            if (time != null) {
+                if (earliest == null || time.isBefore(earliest)) {
+                    earliest = time;
+                }
+                if (latest == null || time.isAfter(latest)) {
+                    latest = time;
+                }
+            }
+            frame.write(bytes);
+            if (frame.size() >= frameSize) {
+                flush();
+            }
+        }
+
+        List<Frame> finish() throws IOException {
+            if (frame.size() > 0) {
+                flush();
+            }
+            return frames;
+        }
+
+        private void flush() throws IOException {
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 1 << 16)) {
+                frame.writeTo(gzip);
+            }
+            compressed.writeTo(out);
+            frames.add(new Frame(offset, compressed.size(), earliest, latest));
+            offset += compressed.size();
+            frame.reset();
+            earliest = null;
+            latest = null;
+        }
+    }
+}
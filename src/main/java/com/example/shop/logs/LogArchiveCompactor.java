@@ -0,0 +1,124 @@
+package com.example.shop.logs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Background upkeep of rotated logs: rewrites archives logback has finished writing as indexed
+ * block gzip ({@link LogArchive#compact}) and deletes the oldest archives once all of them take
+ * more than {@code shop.logs.retention.max-total-size}. Logback's own {@code max-history}
+ * cleanup keeps working, the file names do not change.
+ */
+@Component
+public class LogArchiveCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogArchiveCompactor.class);
+
+    private final LogArchives logArchives;
+    private final int frameSize;
+    private final Duration minAge;
+    private final DataSize maxTotalSize;
+
+    public LogArchiveCompactor(
+            LogArchives logArchives,
+            @Value("${shop.logs.archive.frame-size:1MB}") DataSize frameSize,
+            @Value("${shop.logs.archive.min-age:1m}") Duration minAge,
+            @Value("${shop.logs.retention.max-total-size:1GB}") DataSize maxTotalSize) {
+        this.logArchives = logArchives;
+        this.frameSize = (int) frameSize.toBytes();
+        this.minAge = minAge;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shop.logs.archive.compact-interval-ms:300000}",
+        initialDelayString = "${shop.logs.archive.compact-interval-ms:300000}")
+    public void scheduledRun() {
+        try {
+            compactPending();
+            enforceRetention();
+        } catch (IOException e) {
+            logger.warn("⚠️ Обслуживание архивов логов не выполнено: {}", e.toString());
+        }
+    }
+
+    /**
+     * Indexes every archive without a valid index that has not been modified for
+     * {@code shop.logs.archive.min-age} (logback compresses a rotated file in the background).
+     *
+     * @return how many archives were rewritten
+     */
+    public int compactPending() throws IOException {
+        Instant settled = Instant.now().minus(minAge);
+        int compacted = 0;
+        for (Path archive : logArchives.archives()) {
+            if (LogArchive.isIndexed(archive)
+                    || Files.getLastModifiedTime(archive).toInstant().isAfter(settled)) {
+                continue;
+            }
+            try {
+                long before = Files.size(archive);
+                int frames = LogArchive.compact(archive, frameSize);
+                logger.info("🗜 Архив {} переписан: {} кадров, {} -> {} байт",
+                    archive.getFileName(), frames, before, Files.size(archive));
+                compacted++;
+            } catch (IOException e) {
+                logger.warn("⚠️ Не удалось переписать архив {}: {}", archive, e.toString());
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Deletes the oldest archives (with their indexes) until the rest fit into
+     * {@code shop.logs.retention.max-total-size}, and indexes left behind by logback's cleanup.
+     *
+     * @return how many archives were deleted
+     */
+    public int enforceRetention() throws IOException {
+        List<Path> archives = logArchives.archives();
+        long total = 0;
+        for (Path archive : archives) {
+            total += sizeWithIndex(archive);
+        }
+        int removed = 0;
+        for (Path archive : archives) {
+            if (total <= maxTotalSize.toBytes()) {
+                break;
+            }
+            total -= sizeWithIndex(archive);
+            Files.deleteIfExists(archive);
+            Files.deleteIfExists(LogArchive.indexOf(archive));
+            removed++;
+        }
+        if (removed > 0) {
+            logger.info("🧹 Удалено {} архивов логов сверх {}", removed, maxTotalSize);
+        }
+
+        try (Stream<Path> files = Files.list(logArchives.getLogFile().getParent())) {
+            for (Path index : files.filter(f -> f.getFileName().toString().endsWith(".gz.idx"))
+                    .toList()) {
+                String name = index.getFileName().toString();
+                if (!Files.exists(index.resolveSibling(name.substring(0, name.length() - 4)))) {
+                    Files.deleteIfExists(index);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static long sizeWithIndex(Path archive) throws IOException {
+        Path index = LogArchive.indexOf(archive);
+        return Files.size(archive) + (Files.exists(index) ? Files.size(index) : 0);
+    }
+}
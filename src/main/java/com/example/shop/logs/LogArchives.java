@@ -0,0 +1,100 @@
+package com.example.shop.logs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The application log ({@code logging.file.name}) together with the archives logback rotates it
+ * into ({@code app.log.2025-05-13.0.gz}, Spring Boot's default file name pattern), read as one
+ * log: archives of days outside the requested range are not opened, indexed archives are read
+ * frame by frame ({@link LogArchive}).
+ */
+@Component
+public class LogArchives {
+
+    private static final String DEFAULT_LOG_FILE = "logs/app.log";
+
+    private record Archive(Path path, LocalDate day, int index) {
+    }
+
+    private final Path logFile;
+    private final Pattern archiveName;
+
+    public LogArchives(@Value("${logging.file.name:" + DEFAULT_LOG_FILE + "}") String logFile) {
+        this.logFile = Paths.get(logFile == null || logFile.isBlank() ? DEFAULT_LOG_FILE : logFile)
+            .toAbsolutePath().normalize();
+        this.archiveName = Pattern.compile(Pattern.quote(this.logFile.getFileName().toString())
+            + "\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.gz");
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /** Whether there is anything to read: the current log or at least one archive. */
+    public boolean exists() throws IOException {
+        return Files.exists(logFile) || !archives().isEmpty();
+    }
+
+    /** Rotated archives, oldest first. */
+    public List<Path> archives() throws IOException {
+        return list().map(Archive::path).toList();
+    }
+
+    /**
+     * Passes the lines whose timestamp is in {@code range} to {@code action}: archives oldest
+     * first, then the current log.
+     */
+    public void read(LogRange range, Consumer<String> action) throws IOException {
+        readArchives(range, action);
+        if (Files.exists(logFile)) {
+            try (InputStream in = Files.newInputStream(logFile)) {
+                LogArchive.readLines(in, range, action);
+            }
+        }
+    }
+
+    /** Like {@link #read}, but the rotated archives only. */
+    public void readArchives(LogRange range, Consumer<String> action) throws IOException {
+        List<Archive> archives = list().toList();
+        for (Archive archive : archives) {
+            if (range.overlaps(archive.day().atStartOfDay(),
+                    archive.day().plusDays(1).atStartOfDay().minusNanos(1))) {
+                LogArchive.read(archive.path(), range, action);
+            }
+        }
+    }
+
+    private Stream<Archive> list() throws IOException {
+        Path dir = logFile.getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .map(path -> {
+                    Matcher matcher = archiveName.matcher(path.getFileName().toString());
+                    return matcher.matches() ? new Archive(path,
+                        LocalDate.parse(matcher.group(1)), Integer.parseInt(matcher.group(2)))
+                        : null;
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Archive::day).thenComparingInt(Archive::index))
+                .toList()
+                .stream();
+        }
+    }
+}
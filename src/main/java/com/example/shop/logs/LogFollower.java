@@ -0,0 +1,182 @@
+package com.example.shop.logs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the lines appended to a log file and follows it across rotations: once logback has
+ * renamed the file away, the rest of the old file is read and the new one is opened from its
+ * start. Not thread-safe; {@link #readAvailable} and {@link #followRotation} are called from the
+ * owner's polling thread.
+ */
+final class LogFollower {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogFollower.class);
+    private static final int MAX_LINE = 64 * 1024;
+
+    private final Path file;
+    private final Consumer<String> onLine;
+    private final Runnable onChunk;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final ByteArrayOutputStream partial = new ByteArrayOutputStream(256);
+    private FileChannel channel;
+    private Object fileKey;
+
+    /**
+     * @param onLine  gets every complete line, without the line terminator
+     * @param onChunk runs after the lines of every block read from the file
+     */
+    LogFollower(Path file, Consumer<String> onLine, Runnable onChunk) {
+        this.file = file;
+        this.onLine = onLine;
+        this.onChunk = onChunk;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /** Skips what the file holds now; only lines written later are read. */
+    void openAtEnd() {
+        if (open()) {
+            try {
+                channel.position(channel.size());
+            } catch (IOException e) {
+                close();
+            }
+        }
+    }
+
+    /** Opens the current file at its start; {@code false} if it does not exist yet. */
+    boolean open() {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            partial.reset();
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.warn("⚠️ Не удалось открыть {}: {}", file, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * The first complete line of the opened file, read without moving the position; {@code null}
+     * if nothing is open or the file has no complete line yet.
+     */
+    String firstLine() {
+        if (channel == null) {
+            return null;
+        }
+        ByteBuffer head = ByteBuffer.allocate(MAX_LINE);
+        int scanned = 0;
+        try {
+            while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+                for (; scanned < head.position(); scanned++) {
+                    if (head.get(scanned) == '\n') {
+                        int length = scanned > 0 && head.get(scanned - 1) == '\r'
+                            ? scanned - 1 : scanned;
+                        return new String(head.array(), 0, length, StandardCharsets.UTF_8);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Ошибка чтения {}: {}", file, e.toString());
+        }
+        return null;
+    }
+
+    void readAvailable() {
+        if (channel == null && !open()) {
+            return;
+        }
+        try {
+            if (channel.size() < channel.position()) {
+                // файл обрезан на месте (copytruncate)
+                channel.position(0);
+                partial.reset();
+            }
+            int n;
+            while ((n = channel.read(buffer.clear())) > 0) {
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (bytes[i] == '\n') {
+                        append(bytes, start, i - start);
+                        emit();
+                        start = i + 1;
+                    }
+                }
+                append(bytes, start, n - start);
+                onChunk.run();
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Ошибка чтения {}: {}", file, e.toString());
+            close();
+        }
+    }
+
+    /** After the file was renamed away: finishes the old one and switches to the new. */
+    void followRotation() {
+        if (channel == null) {
+            return;
+        }
+        Object current;
+        try {
+            current = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return; // новый файл ещё не создан
+        }
+        if (current != null && !Objects.equals(current, fileKey)) {
+            readAvailable();
+            if (partial.size() > 0) {
+                emit();
+                onChunk.run();
+            }
+            close();
+            if (open()) {
+                readAvailable();
+            }
+        }
+    }
+
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // файл только читался
+            }
+            channel = null;
+        }
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        int room = MAX_LINE - partial.size();
+        partial.write(bytes, offset, Math.max(0, Math.min(length, room)));
+    }
+
+    private void emit() {
+        int length = partial.size();
+        byte[] bytes = partial.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        partial.reset();
+        onLine.accept(new String(bytes, 0, length, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.shop.logs;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Log line counts of {@code /logs/rollups}: per {@code step} and in total per level and logger,
+ * most frequent first.
+ *
+ * @param countedUpTo the start of the minute after the newest counted line, {@code null} if
+ *                    nothing has been counted yet
+ */
+public record LogHistogram(
+        LocalDateTime from,
+        LocalDateTime to,
+        Duration step,
+        long total,
+        List<Bucket> buckets,
+        Map<String, Long> byLevel,
+        Map<String, Long> byLogger,
+        LocalDateTime countedUpTo) {
+
+    /** Lines from {@code time} to {@code time + step}. */
+    public record Bucket(LocalDateTime time, long count) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.shop.logs;
+
+import java.time.LocalDateTime;
+import org.slf4j.event.Level;
+
+/**
+ * The header of a line in Spring Boot's log file format
+ * ({@code 2025-05-13T10:00:00.123Z  INFO 1234 --- [main] c.e.shop.services.ShopService : ...}).
+ *
+ * @param level  {@code null} if the token after the timestamp is not a level
+ * @param logger logger name as written (abbreviated to 40 characters), empty if not found
+ */
+public record LogLine(LocalDateTime time, Level level, String logger) {
+
+    /** Parses the header, or returns {@code null} for lines without a timestamp. */
+    public static LogLine parse(String line) {
+        LocalDateTime time = LogRange.timestampOf(line);
+        if (time == null) {
+            return null;
+        }
+        int start = line.indexOf(' ');
+        while (start >= 0 && start < line.length() && line.charAt(start) == ' ') {
+            start++;
+        }
+        if (start < 0 || start >= line.length()) {
+            return new LogLine(time, null, "");
+        }
+        int end = line.indexOf(' ', start);
+        Level level = parseLevel(line.substring(start, end < 0 ? line.length() : end));
+        String logger = "";
+        int thread = end < 0 ? -1 : line.indexOf("] ", end);
+        int message = thread < 0 ? -1 : line.indexOf(" : ", thread);
+        if (message > 0) {
+            logger = line.substring(thread + 2, message).trim();
+        }
+        return new LogLine(time, level, logger);
+    }
+
+    private static Level parseLevel(String token) {
+        return switch (token) {
+            case "ERROR" -> Level.ERROR;
+            case "WARN" -> Level.WARN;
+            case "INFO" -> Level.INFO;
+            case "DEBUG" -> Level.DEBUG;
+            case "TRACE" -> Level.TRACE;
+            default -> null;
+        };
+    }
+}
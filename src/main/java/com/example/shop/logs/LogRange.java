@@ -0,0 +1,65 @@
+package com.example.shop.logs;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Time range of log lines, {@code from} inclusive and {@code to} exclusive, in the local time
+ * written at the start of every line.
+ */
+public record LogRange(LocalDateTime from, LocalDateTime to) {
+
+    /**
+     * Parses request bounds: a day ({@code 2025-05-13}, the whole day for {@code to}) or a time
+     * ({@code 2025-05-13T10:00}).
+     *
+     * @throws DateTimeParseException if a bound is neither
+     */
+    public static LogRange of(String from, String to) {
+        LocalDateTime start = from.length() == 10
+            ? LocalDate.parse(from).atStartOfDay() : LocalDateTime.parse(from);
+        LocalDateTime end = to.length() == 10
+            ? LocalDate.parse(to).plusDays(1).atStartOfDay() : LocalDateTime.parse(to);
+        return new LogRange(start, end);
+    }
+
+    /** Whole days from {@code from} to {@code to}, both inclusive. */
+    public static LogRange ofDays(LocalDate from, LocalDate to) {
+        return new LogRange(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    public boolean contains(LocalDateTime time) {
+        return !time.isBefore(from) && time.isBefore(to);
+    }
+
+    /** Whether anything between {@code first} and {@code last} (inclusive) is in the range. */
+    public boolean overlaps(LocalDateTime first, LocalDateTime last) {
+        return first.isBefore(to) && !last.isBefore(from);
+    }
+
+    /**
+     * Timestamp of a log line: date and time up to seconds ({@code 2025-05-13T10:00:00.123Z ...}
+     * or {@code 2025-05-13 10:00:00 ...}), a bare date, or {@code null} for lines that do not start
+     * with one, such as stack trace lines.
+     */
+    public static LocalDateTime timestampOf(String line) {
+        if (line.length() < 10) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(line.substring(0, 10));
+            if (line.length() >= 19 && (line.charAt(10) == 'T' || line.charAt(10) == ' ')) {
+                try {
+                    return date.atTime(LocalTime.parse(line.substring(11, 19)));
+                } catch (DateTimeParseException e) {
+                    // после даты не время: строка относится к началу дня
+                }
+            }
+            return date.atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
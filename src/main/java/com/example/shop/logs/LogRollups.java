@@ -0,0 +1,542 @@
+package com.example.shop.logs;
+
+import com.example.shop.logs.LogHistogram.Bucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-minute counts of log lines by level and logger, for {@code /logs/rollups}.
+ *
+ * <p>A background thread counts the lines appended to the application log as they are written
+ * ({@link LogFollower}) and appends every finished minute to a file per day in
+ * {@code shop.logs.rollups.dir}: the minute and pairs of key id and count, with the keys (level
+ * and logger) kept once in {@code keys.bin}. A minute counts as finished once a line two
+ * minutes later has been read, so lines of concurrent threads written slightly out of order
+ * still land in it.
+ *
+ * <p>On startup the stored minutes are loaded and everything logged after the last of them is
+ * counted from the rotated archives and the current log; on the first start that is every
+ * archive, afterwards usually only the current log. Lines of stored minutes are never counted
+ * twice. Minutes older than {@code shop.logs.rollups.retention} are dropped.
+ *
+ * <p>A failed read is logged and retried with a growing delay, up to a minute; the gauge
+ * {@code shop.logs.rollups.lag} shows how far behind the counted minutes are.
+ */
+@Component
+public class LogRollups implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogRollups.class);
+    private static final String KEYS_FILE = "keys.bin";
+    private static final String DAY_FILE_SUFFIX = ".bin";
+    private static final int MAX_BUCKETS = 50_000;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    /** What lines are counted by; {@code level} is {@code null} for lines without one. */
+    private record Key(Level level, String logger) {
+    }
+
+    /** Counts of one minute per key id; a minute has few keys, so they are searched linearly. */
+    private static final class MinuteCounts {
+        private int[] keys = new int[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        void add(int key, int count) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    counts[i] += count;
+                    return;
+                }
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            keys[size] = key;
+            counts[size++] = count;
+        }
+    }
+
+    private final LogArchives logArchives;
+    private final boolean enabled;
+    private final Path dir;
+    private final Duration retention;
+    private final Duration pollInterval;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private Thread thread;
+
+    // Под this
+    private final Map<Key, Integer> keyIds = new HashMap<>();
+    private final List<Key> keys = new ArrayList<>();
+    private final NavigableMap<Long, MinuteCounts> minutes = new TreeMap<>();
+    private long latestMinute = NONE;
+
+    // Только поток свёртки
+    private LogFollower follower;
+    private long persistedUpTo = NONE;
+    private int persistedKeys;
+
+    public LogRollups(
+            LogArchives logArchives,
+            @Value("${shop.logs.rollups.enabled:true}") boolean enabled,
+            @Value("${shop.logs.rollups.dir:}") String dir,
+            @Value("${shop.logs.rollups.retention:30d}") Duration retention,
+            @Value("${shop.logs.rollups.poll-interval:1s}") Duration pollInterval) {
+        this.logArchives = logArchives;
+        this.enabled = enabled;
+        this.dir = dir.isBlank()
+            ? logArchives.getLogFile().resolveSibling("rollups")
+            : Paths.get(dir).toAbsolutePath().normalize();
+        this.retention = retention;
+        this.pollInterval = pollInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        thread = new Thread(this::run, "log-rollups");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped.countDown();
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shop.logs.rollups.lag", this, LogRollups::lagSeconds)
+            .description("Сколько секунд назад кончилась последняя посчитанная минута лога")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    private void run() {
+        boolean caughtUp = false;
+        int failures = 0;
+        long delay = 0;
+        try {
+            while (!stopped.await(delay, TimeUnit.MILLISECONDS)) {
+                try {
+                    if (caughtUp) {
+                        poll();
+                    } else {
+                        catchUp();
+                        caughtUp = true;
+                    }
+                    failures = 0;
+                    delay = pollInterval.toMillis();
+                } catch (IOException | RuntimeException e) {
+                    if (!caughtUp) {
+                        reset();
+                    }
+                    failures++;
+                    delay = Math.min(pollInterval.toMillis() << Math.min(failures, 16),
+                        MAX_BACKOFF.toMillis());
+                    logger.warn("⚠️ Ошибка свёртки логов ({} подряд), повтор через {} мс: {}",
+                        failures, delay, e.toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (follower != null) {
+                follower.close();
+            }
+        }
+    }
+
+    /** Loads the stored minutes and counts everything logged after them. */
+    void catchUp() throws IOException {
+        long started = System.nanoTime();
+        load();
+        // Текущий лог открывается до просмотра архивов: если его ротируют во время просмотра,
+        // follower дочитает его, а из архивов берутся только строки старше его первой строки
+        follower = new LogFollower(logArchives.getLogFile(), this::count, () -> { });
+        follower.open();
+        String firstLine = follower.firstLine();
+        LocalDateTime before = firstLine == null ? null : LogRange.timestampOf(firstLine);
+        LocalDateTime after = persistedUpTo == NONE ? LocalDateTime.MIN : toTime(persistedUpTo + 1);
+        logArchives.readArchives(new LogRange(after, before == null ? LocalDateTime.MAX : before),
+            this::count);
+        follower.readAvailable();
+        persist();
+        synchronized (this) {
+            logger.info("📊 Свёртка логов: {} минут, {} ключей, загружено за {} мс",
+                minutes.size(), keys.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    /** Counts the lines written since the last call and stores the minutes that finished. */
+    void poll() throws IOException {
+        follower.readAvailable();
+        follower.followRotation();
+        persist();
+    }
+
+    /**
+     * Counts of the lines in {@code range}, to the minute, whose level is at least {@code level}
+     * and whose logger name contains {@code logger} ({@code null} for any).
+     *
+     * @throws IllegalArgumentException if {@code step} is not a whole number of minutes, the
+     *                                  range is empty or has more than 50 000 steps
+     */
+    public LogHistogram histogram(LogRange range, Duration step, Level level, String logger) {
+        if (step.isNegative() || step.isZero() || step.toSeconds() % 60 != 0
+                || step.toNanosPart() != 0) {
+            throw new IllegalArgumentException("Шаг должен быть целым числом минут: " + step);
+        }
+        long stepMinutes = step.toMinutes();
+        long first = toMinute(range.from());
+        long end = toMinute(range.to())
+            + (range.to().getSecond() == 0 && range.to().getNano() == 0 ? 0 : 1);
+        if (end <= first) {
+            throw new IllegalArgumentException("Пустой интервал: " + range);
+        }
+        long bucketCount = (end - first + stepMinutes - 1) / stepMinutes;
+        if (bucketCount > MAX_BUCKETS) {
+            throw new IllegalArgumentException(
+                "Больше " + MAX_BUCKETS + " шагов, увеличьте step: " + bucketCount);
+        }
+        long[] buckets = new long[(int) bucketCount];
+        long[] byKey;
+        List<Key> keySnapshot;
+        long countedUpTo;
+        synchronized (this) {
+            keySnapshot = List.copyOf(keys);
+            boolean[] matches = new boolean[keys.size()];
+            for (int i = 0; i < matches.length; i++) {
+                Key key = keys.get(i);
+                matches[i] = (level == null
+                        || key.level() != null && key.level().toInt() >= level.toInt())
+                    && (logger == null || key.logger().contains(logger));
+            }
+            byKey = new long[keys.size()];
+            for (Map.Entry<Long, MinuteCounts> entry
+                    : minutes.subMap(first, true, end, false).entrySet()) {
+                int bucket = (int) ((entry.getKey() - first) / stepMinutes);
+                MinuteCounts counts = entry.getValue();
+                for (int i = 0; i < counts.size; i++) {
+                    if (matches[counts.keys[i]]) {
+                        buckets[bucket] += counts.counts[i];
+                        byKey[counts.keys[i]] += counts.counts[i];
+                    }
+                }
+            }
+            countedUpTo = latestMinute;
+        }
+
+        List<Bucket> bucketList = new ArrayList<>(buckets.length);
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            bucketList.add(new Bucket(toTime(first + i * stepMinutes), buckets[i]));
+            total += buckets[i];
+        }
+        Map<String, Long> byLevel = new HashMap<>();
+        Map<String, Long> byLogger = new HashMap<>();
+        for (int i = 0; i < byKey.length; i++) {
+            if (byKey[i] > 0) {
+                Key key = keySnapshot.get(i);
+                byLevel.merge(key.level() == null ? "" : key.level().name(), byKey[i], Long::sum);
+                byLogger.merge(key.logger(), byKey[i], Long::sum);
+            }
+        }
+        return new LogHistogram(toTime(first), toTime(end), step, total, bucketList,
+            sortedByCount(byLevel), sortedByCount(byLogger),
+            countedUpTo == NONE ? null : toTime(countedUpTo + 1));
+    }
+
+    /** Seconds since the end of the newest counted minute, {@code NaN} before the first one. */
+    private double lagSeconds() {
+        long newest;
+        synchronized (this) {
+            newest = latestMinute;
+        }
+        return newest == NONE ? Double.NaN
+            : Duration.between(toTime(newest + 1), LocalDateTime.now()).toSeconds();
+    }
+
+    /** Forgets everything a failed {@link #catchUp} has loaded or counted. */
+    private void reset() {
+        if (follower != null) {
+            follower.close();
+            follower = null;
+        }
+        synchronized (this) {
+            keyIds.clear();
+            keys.clear();
+            minutes.clear();
+            latestMinute = NONE;
+        }
+        persistedUpTo = NONE;
+        persistedKeys = 0;
+    }
+
+    private void count(String line) {
+        LogLine header = LogLine.parse(line);
+        if (header == null) {
+            return;
+        }
+        long minute = toMinute(header.time());
+        if (minute <= persistedUpTo) {
+            return;
+        }
+        Key key = new Key(header.level(), header.logger());
+        synchronized (this) {
+            Integer id = keyIds.get(key);
+            if (id == null) {
+                id = keys.size();
+                keys.add(key);
+                keyIds.put(key, id);
+            }
+            minutes.computeIfAbsent(minute, m -> new MinuteCounts()).add(id, 1);
+            latestMinute = Math.max(latestMinute, minute);
+        }
+    }
+
+    /** Appends new keys and the finished minutes to the store, then applies the retention. */
+    private void persist() throws IOException {
+        List<Key> newKeys;
+        NavigableMap<Long, int[][]> finished = new TreeMap<>();
+        long upTo;
+        long cutoff = toMinute(LocalDateTime.now().minus(retention));
+        synchronized (this) {
+            if (latestMinute == NONE || latestMinute - 2 <= persistedUpTo) {
+                return;
+            }
+            upTo = latestMinute - 2;
+            minutes.subMap(persistedUpTo, false, upTo, true).forEach((minute, counts) ->
+                finished.put(minute, new int[][] {
+                    Arrays.copyOf(counts.keys, counts.size),
+                    Arrays.copyOf(counts.counts, counts.size)}));
+            newKeys = List.copyOf(keys.subList(persistedKeys, keys.size()));
+            minutes.headMap(cutoff).clear();
+        }
+
+        Files.createDirectories(dir);
+        if (!newKeys.isEmpty()) {
+            try (DataOutputStream out = append(dir.resolve(KEYS_FILE))) {
+                for (Key key : newKeys) {
+                    writeString(out, key.level() == null ? "" : key.level().name());
+                    writeString(out, key.logger());
+                }
+            }
+            persistedKeys += newKeys.size();
+        }
+        LocalDate day = null;
+        DataOutputStream out = null;
+        try {
+            for (Map.Entry<Long, int[][]> entry : finished.entrySet()) {
+                LocalDate minuteDay = toTime(entry.getKey()).toLocalDate();
+                if (entry.getKey() < cutoff) {
+                    continue;
+                }
+                if (!minuteDay.equals(day)) {
+                    if (out != null) {
+                        out.close();
+                    }
+                    day = minuteDay;
+                    out = append(dir.resolve(day + DAY_FILE_SUFFIX));
+                }
+                int[] ids = entry.getValue()[0];
+                int[] counts = entry.getValue()[1];
+                out.writeLong(entry.getKey());
+                out.writeInt(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    out.writeInt(ids[i]);
+                    out.writeInt(counts[i]);
+                }
+            }
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+        persistedUpTo = upTo;
+        deleteExpired(toTime(cutoff).toLocalDate());
+    }
+
+    private void load() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        long cutoff = toMinute(LocalDateTime.now().minus(retention));
+        deleteExpired(toTime(cutoff).toLocalDate());
+        List<Key> loadedKeys = new ArrayList<>();
+        Path keysFile = dir.resolve(KEYS_FILE);
+        if (Files.exists(keysFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(keysFile));
+            int valid = 0;
+            try {
+                while (buffer.hasRemaining()) {
+                    String level = readString(buffer);
+                    String name = readString(buffer);
+                    loadedKeys.add(new Key(level.isEmpty() ? null : Level.valueOf(level), name));
+                    valid = buffer.position();
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                truncate(keysFile, valid);
+            }
+        }
+
+        NavigableMap<Long, MinuteCounts> loaded = new TreeMap<>();
+        for (Path file : dayFiles()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            int valid = 0;
+            long previous = NONE;
+            try {
+                while (buffer.hasRemaining()) {
+                    long minute = buffer.getLong();
+                    int size = buffer.getInt();
+                    MinuteCounts counts = new MinuteCounts();
+                    for (int i = 0; i < size; i++) {
+                        int id = buffer.getInt();
+                        int count = buffer.getInt();
+                        if (id < 0 || id >= loadedKeys.size()) {
+                            throw new IllegalArgumentException("Неизвестный ключ " + id);
+                        }
+                        counts.add(id, count);
+                    }
+                    valid = buffer.position();
+                    // минуты пишутся по возрастанию; повтор — запись после сбоя на середине файла
+                    if (minute > previous && minute >= cutoff) {
+                        loaded.computeIfAbsent(minute, m -> new MinuteCounts());
+                        MinuteCounts target = loaded.get(minute);
+                        for (int i = 0; i < counts.size; i++) {
+                            target.add(counts.keys[i], counts.counts[i]);
+                        }
+                    }
+                    previous = Math.max(previous, minute);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                // запись, оборванная при остановке: отбрасывается и пересчитывается из лога
+                truncate(file, valid);
+            }
+        }
+
+        synchronized (this) {
+            loadedKeys.forEach(key -> {
+                keyIds.put(key, keys.size());
+                keys.add(key);
+            });
+            minutes.putAll(loaded);
+            if (!loaded.isEmpty()) {
+                latestMinute = loaded.lastKey();
+            }
+        }
+        persistedKeys = loadedKeys.size();
+        persistedUpTo = loaded.isEmpty() ? NONE : loaded.lastKey();
+    }
+
+    private List<Path> dayFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(file -> file.getFileName().toString().matches(
+                    "\\d{4}-\\d{2}-\\d{2}\\" + DAY_FILE_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private void deleteExpired(LocalDate firstKept) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        for (Path file : dayFiles()) {
+            String name = file.getFileName().toString();
+            LocalDate day = LocalDate.parse(name.substring(0, 10));
+            if (day.isBefore(firstKept)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static DataOutputStream append(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        logger.warn("⚠️ {} обрезан до {} байт: последняя запись неполная", file, size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Long> sortedByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime toTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
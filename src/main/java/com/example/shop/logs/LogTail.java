@@ -0,0 +1,312 @@
+package com.example.shop.logs;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the application log for {@code /logs/tail}. One thread reads the lines appended to
+ * the file and hands every subscriber the ones that pass its {@link Filter}; lines without a
+ * timestamp (stack traces) go with the line before them. The follower wakes up on file system
+ * events or every {@code shop.logs.tail.poll-interval}, and runs only while someone is
+ * subscribed, starting at the end of the file.
+ *
+ * <p>When logback rotates the file, the rest of the renamed file is read before the follower
+ * switches to the new one from its start.
+ *
+ * <p>The follower never waits for a subscriber: each one has a queue of
+ * {@code shop.logs.tail.buffer-size} lines, sent by a thread of its own, and lines that do not
+ * fit are counted and reported to the subscriber as a single "skipped" notice instead.
+ */
+@Component
+public class LogTail implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTail.class);
+    private static final int MAX_BATCH = 500;
+
+    /** Where a subscriber's lines go; called from one sender thread at a time. */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Delivers the next lines, then the number of lines skipped after them because the
+         * queue was full. Both empty means a heartbeat.
+         *
+         * @throws IOException if the subscriber is gone; it is then unsubscribed
+         */
+        void send(List<String> lines, long skipped) throws IOException;
+    }
+
+    /**
+     * Which lines a subscriber wants; {@code null} parts match everything.
+     *
+     * @param level  the lowest level, {@code WARN} also matches {@code ERROR}
+     * @param logger a part of the logger name as written in the file
+     * @param text   a part of the line
+     */
+    public record Filter(Level level, String logger, String text) {
+
+        boolean matches(LogLine header, String line) {
+            return (level == null
+                    || header.level() != null && header.level().toInt() >= level.toInt())
+                && (logger == null || header.logger().contains(logger))
+                && (text == null || line.contains(text));
+        }
+    }
+
+    private final LogArchives logArchives;
+    private final Duration pollInterval;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration heartbeat;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong skippedLines = new AtomicLong();
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "log-tail-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Под this
+    private Thread follower;
+    private boolean stopped;
+
+    public LogTail(
+            LogArchives logArchives,
+            @Value("${shop.logs.tail.poll-interval:250ms}") Duration pollInterval,
+            @Value("${shop.logs.tail.buffer-size:1000}") int bufferSize,
+            @Value("${shop.logs.tail.max-subscribers:50}") int maxSubscribers,
+            @Value("${shop.logs.tail.heartbeat:15s}") Duration heartbeat) {
+        this.logArchives = logArchives;
+        this.pollInterval = pollInterval;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Starts sending new lines that pass {@code filter} to {@code sink}.
+     *
+     * @return the subscription, or {@code null} if there are already
+     *         {@code shop.logs.tail.max-subscribers}
+     */
+    public Subscription subscribe(Filter filter, Sink sink) {
+        synchronized (this) {
+            if (stopped || subscriptions.size() >= maxSubscribers) {
+                return null;
+            }
+            Subscription subscription = new Subscription(filter, sink);
+            subscriptions.add(subscription);
+            if (follower == null) {
+                // Позиция берётся до возврата: подписчик получит всё, что запишут после
+                LogFollower reader =
+                    new LogFollower(logArchives.getLogFile(), this::publish, this::flush);
+                reader.openAtEnd();
+                follower = new Thread(() -> follow(reader), "log-tail");
+                follower.setDaemon(true);
+                follower.start();
+            }
+            return subscription;
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shop.logs.tail.subscribers", subscriptions, Set::size)
+            .register(registry);
+        FunctionCounter.builder("shop.logs.tail.skipped", skippedLines, AtomicLong::get)
+            .description("Строки, не отправленные медленным подписчикам /logs/tail")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            thread = follower;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+        subscriptions.forEach(Subscription::close);
+        senders.shutdownNow();
+    }
+
+    private boolean keepFollowing() {
+        synchronized (this) {
+            if (stopped || subscriptions.isEmpty()) {
+                follower = null;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void follow(LogFollower reader) {
+        Path file = reader.getFile();
+        WatchService watcher = null;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // без уведомлений файл просто перечитывается раз в poll-interval
+            logger.debug("WatchService недоступен для {}: {}", file.getParent(), e.toString());
+        }
+        try {
+            while (keepFollowing()) {
+                reader.readAvailable();
+                reader.followRotation();
+                sendHeartbeats();
+                if (watcher != null) {
+                    var key = watcher.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Чтение {} для /logs/tail остановлено: {}", file, e.toString());
+            subscriptions.forEach(Subscription::close);
+            keepFollowing();
+        } finally {
+            reader.close();
+            try {
+                if (watcher != null) {
+                    watcher.close();
+                }
+            } catch (IOException e) {
+                // закрываем при остановке, ошибка не важна
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        long due = System.nanoTime() - heartbeat.toNanos();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.lastSent < due) {
+                subscription.heartbeatDue = true;
+                subscription.schedule();
+            }
+        }
+    }
+
+    private void publish(String line) {
+        LogLine header = LogLine.parse(line);
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(header, line);
+        }
+    }
+
+    private void flush() {
+        subscriptions.forEach(Subscription::schedule);
+    }
+
+    /** A subscriber: its filter, its queue and its sender. */
+    public final class Subscription implements AutoCloseable {
+        private final Filter filter;
+        private final Sink sink;
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long lastSent = System.nanoTime();
+        private volatile boolean heartbeatDue;
+        // Только поток follower: прошла ли фильтр последняя строка с отметкой времени
+        private boolean lastMatched;
+
+        private Subscription(Filter filter, Sink sink) {
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        private void offer(LogLine header, String line) {
+            if (header != null) {
+                lastMatched = filter.matches(header, line);
+            }
+            if (lastMatched && !queue.offer(line)) {
+                skipped.incrementAndGet();
+                skippedLines.incrementAndGet();
+            }
+        }
+
+        private void schedule() {
+            if (closed || queue.isEmpty() && skipped.get() == 0 && !heartbeatDue) {
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                List<String> batch = new ArrayList<>(Math.min(bufferSize, MAX_BATCH));
+                while (!closed) {
+                    batch.clear();
+                    queue.drainTo(batch, MAX_BATCH);
+                    long lost = skipped.getAndSet(0);
+                    if (batch.isEmpty() && lost == 0 && !heartbeatDue) {
+                        break;
+                    }
+                    heartbeatDue = false;
+                    sink.send(batch, lost);
+                    lastSent = System.nanoTime();
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty() || skipped.get() > 0) {
+                schedule();
+            }
+        }
+
+        /** Stops delivery; safe to call more than once and from any thread. */
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+    }
+}
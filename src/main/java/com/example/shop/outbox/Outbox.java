@@ -0,0 +1,94 @@
+package com.example.shop.outbox;
+
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.events.OrdersChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactional outbox for domain events. Writers {@link #append} an event instead of publishing
+ * it: the event becomes a row of {@code outbox_events} in the writing transaction, so it exists
+ * if and only if the change was committed. {@link OutboxDispatcher} delivers the rows to the
+ * in-process listeners in the background, after the request has returned; a caller that has to
+ * read its own write waits for the returned id with {@link OutboxDispatcher#awaitDelivered}.
+ */
+@Component
+public class Outbox {
+
+    /** Stored {@code event_type} of every event the outbox accepts. */
+    static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+        "CatalogChanged", CatalogChangedEvent.class,
+        "OrdersChanged", OrdersChangedEvent.class);
+
+    private static final String INSERT =
+        "INSERT INTO outbox_events (event_type, payload, created_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxDispatcher dispatcher;
+
+    public Outbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                  OutboxDispatcher dispatcher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Stores the event in the current transaction and wakes the dispatcher once it commits.
+     * Outside a transaction the row is committed on its own.
+     *
+     * @param event a {@link CatalogChangedEvent} or {@link OrdersChangedEvent}
+     * @return the id of the outbox row
+     */
+    public long append(Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + event, e);
+        }
+        String type = typeOf(event);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT, new String[] {"id"});
+            ps.setString(1, type);
+            ps.setString(2, payload);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, keyHolder);
+        long id = keyHolder.getKey().longValue();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        dispatcher.wakeUp();
+                    }
+                });
+        } else {
+            dispatcher.wakeUp();
+        }
+        return id;
+    }
+
+    private static String typeOf(Object event) {
+        for (Map.Entry<String, Class<?>> e : EVENT_TYPES.entrySet()) {
+            if (e.getValue() == event.getClass()) {
+                return e.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип события: " + event.getClass());
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.shop.outbox;
+
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.events.OrdersChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers the rows of {@code outbox_events} to the in-process listeners, in id order and in
+ * batches, on a single background thread. A batch is decoded, coalesced into at most one
+ * {@link CatalogChangedEvent} and one {@link OrdersChangedEvent} and published outside any
+ * transaction, so the existing {@code @TransactionalEventListener(fallbackExecution = true)}
+ * listeners run right away on the dispatcher thread.
+ *
+ * <p>Writers do not wait for the listeners. One that has to read its own write from an
+ * in-memory view passes the id returned by {@link Outbox#append} to {@link #awaitDelivered}
+ * after its transaction has ended, so no connection is held while it waits.
+ *
+ * <p>Delivery is at least once: the cursor moves past a batch only after every listener
+ * returned, a failed batch is retried on the next run and, after
+ * {@code shop.outbox.max-attempts} failures, delivered event by event with the failing events
+ * skipped. The cursor lives in memory because all listeners are in-memory views rebuilt on
+ * startup; every instance reads the whole table and starts from its newest row.
+ *
+ * <p>Ids are assigned at insert but become visible at commit, so a transaction that commits
+ * after a later one leaves a gap behind the cursor. Gaps are re-read on every run until they
+ * show up or {@code shop.outbox.gap-timeout} passes (rolled back writes never fill them).
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String SELECT_AFTER =
+        "SELECT id, event_type, payload FROM outbox_events WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM outbox_events";
+    private static final String DELETE_DELIVERED =
+        "DELETE FROM outbox_events WHERE created_at < ? AND id <= ?";
+    private static final int MAX_TRACKED_GAPS = 1000;
+    private static final String DISPATCHER_THREAD = "outbox-dispatcher";
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) ->
+        new Row(rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, DISPATCHER_THREAD);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    // Под this
+    private long cursor;
+    // Id пропуска -> System.nanoTime() его обнаружения
+    private final Map<Long, Long> gaps = new TreeMap<>();
+    private int failedAttempts;
+
+    // Под progress: доставленное на конец последнего пакета, для ожидающих в awaitDelivered
+    private final Object progress = new Object();
+    private long deliveredUpTo;
+    private Set<Long> undelivered = Set.of();
+    // Сколько раз доставка не удалась: ожидающие писатели не ждут повтора
+    private long failedRuns;
+
+    public OutboxDispatcher(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${shop.outbox.batch-size:500}") int batchSize,
+            @Value("${shop.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${shop.outbox.gap-timeout:1m}") Duration gapTimeout,
+            @Value("${shop.outbox.retention:24h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        this.cursor = jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class);
+        this.deliveredUpTo = cursor;
+    }
+
+    /**
+     * Schedules a run on the dispatcher thread unless one is already waiting; called by
+     * {@link Outbox} after every commit that appended events.
+     */
+    public void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                try {
+                    dispatch();
+                } catch (RuntimeException e) {
+                    logger.warn("⚠️ Доставка событий outbox прервана: {}", e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Приложение останавливается
+            wakeUpPending.set(false);
+        }
+    }
+
+    /**
+     * Wakes the dispatcher and waits until the event with the given id has been delivered, at
+     * most {@code timeout}. Returns right away on the dispatcher thread (a listener that writes)
+     * and when a delivery fails while waiting. Call it outside a transaction.
+     *
+     * @param id the id returned by {@link Outbox#append}
+     * @return whether the event has been delivered
+     */
+    public boolean awaitDelivered(long id, Duration timeout) {
+        wakeUp();
+        if (Thread.currentThread().getName().equals(DISPATCHER_THREAD)) {
+            return false;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            long failedBefore = failedRuns;
+            while (!new Progress(deliveredUpTo, undelivered).delivered(id)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || failedRuns != failedBefore) {
+                    logger.debug("Событие outbox #{} не доставлено синхронно", id);
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * What has been delivered as of the end of the last batch. Every event of a row that is not
+     * {@linkplain Progress#delivered(long) delivered} yet reaches the listeners later, unless its
+     * transaction rolled back or its gap expired.
+     */
+    public Progress getProgress() {
+        synchronized (progress) {
+            return new Progress(deliveredUpTo, undelivered);
+        }
+    }
+
+    /** Picks up events whose wake-up was lost, e.g. written by another instance. */
+    @Scheduled(fixedDelayString = "${shop.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Delivers every committed event this instance has not delivered yet.
+     *
+     * @return how many outbox rows were delivered
+     */
+    public synchronized int dispatch() {
+        try {
+            int delivered = deliverLateRows();
+            while (true) {
+                List<Row> batch = jdbcTemplate.query(SELECT_AFTER, ROW_MAPPER, cursor, batchSize);
+                if (batch.isEmpty() || !deliver(batch)) {
+                    return delivered;
+                }
+                for (Row row : batch) {
+                    trackGaps(cursor + 1, row.id());
+                    cursor = row.id();
+                }
+                delivered += batch.size();
+                publishProgress(false);
+                if (batch.size() < batchSize) {
+                    return delivered;
+                }
+            }
+        } catch (RuntimeException e) {
+            publishProgress(true);
+            throw e;
+        } finally {
+            publishProgress(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shop.outbox.prune-interval-ms:600000}",
+        initialDelayString = "${shop.outbox.prune-interval-ms:600000}")
+    public void scheduledPrune() {
+        prune();
+    }
+
+    /**
+     * Deletes delivered rows older than {@code shop.outbox.retention}.
+     *
+     * @return how many rows were deleted
+     */
+    public int prune() {
+        long delivered;
+        synchronized (this) {
+            delivered = cursor;
+        }
+        int removed = jdbcTemplate.update(DELETE_DELIVERED,
+            Timestamp.valueOf(LocalDateTime.now().minus(retention)), delivered);
+        if (removed > 0) {
+            logger.info("🧹 Удалено {} событий outbox старше {}", removed, retention);
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Merges a batch into at most one event per type, in order of first appearance. Listeners
+     * re-read saved products and apply order deltas one by one, so the merged event has the
+     * same effect as the separate ones.
+     */
+    static List<Object> coalesce(List<Object> events) {
+        Map<Class<?>, List<Object>> byType = new LinkedHashMap<>();
+        events.forEach(e -> byType.computeIfAbsent(e.getClass(), t -> new ArrayList<>()).add(e));
+        List<Object> merged = new ArrayList<>(byType.size());
+        byType.forEach((type, same) -> merged.add(same.size() == 1 ? same.get(0)
+            : type == CatalogChangedEvent.class
+                ? CatalogChangedEvent.merge(
+                    same.stream().map(CatalogChangedEvent.class::cast).toList())
+                : OrdersChangedEvent.merge(
+                    same.stream().map(OrdersChangedEvent.class::cast).toList())));
+        return merged;
+    }
+
+    private int deliverLateRows() {
+        if (gaps.isEmpty()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int before = gaps.size();
+        gaps.values().removeIf(seen -> now - seen > gapTimeout.toNanos());
+        if (gaps.size() < before) {
+            logger.debug("Пропуски outbox не заполнились за {}, забываем {} id", gapTimeout,
+                before - gaps.size());
+        }
+        if (gaps.isEmpty()) {
+            return 0;
+        }
+        String sql = "SELECT id, event_type, payload FROM outbox_events WHERE id IN ("
+            + String.join(", ", Collections.nCopies(gaps.size(), "?")) + ") ORDER BY id";
+        List<Row> late = jdbcTemplate.query(sql, ROW_MAPPER, gaps.keySet().toArray());
+        if (late.isEmpty() || !deliver(late)) {
+            return 0;
+        }
+        late.forEach(row -> gaps.remove(row.id()));
+        return late.size();
+    }
+
+    /** Wakes the callers waiting in {@link #awaitDelivered}; called under {@code this}. */
+    private void publishProgress(boolean failed) {
+        synchronized (progress) {
+            deliveredUpTo = cursor;
+            undelivered = gaps.isEmpty() ? Set.of() : Set.copyOf(gaps.keySet());
+            if (failed) {
+                failedRuns++;
+            }
+            progress.notifyAll();
+        }
+    }
+
+    private void trackGaps(long expected, long id) {
+        long now = System.nanoTime();
+        for (long missing = expected; missing < id; missing++) {
+            if (gaps.size() >= MAX_TRACKED_GAPS) {
+                logger.warn("⚠️ Слишком много пропусков в outbox, id {}..{} не отслеживаются",
+                    missing, id - 1);
+                return;
+            }
+            gaps.put(missing, now);
+        }
+    }
+
+    private boolean deliver(List<Row> rows) {
+        List<Object> events = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Object event = decode(row);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        try {
+            coalesce(events).forEach(eventPublisher::publishEvent);
+            failedAttempts = 0;
+            return true;
+        } catch (RuntimeException e) {
+            failedAttempts++;
+            if (failedAttempts < maxAttempts) {
+                publishProgress(true);
+                logger.warn("⚠️ События outbox #{}..#{} не доставлены (попытка {} из {}): {}",
+                    rows.get(0).id(), rows.get(rows.size() - 1).id(), failedAttempts,
+                    maxAttempts, e.toString());
+                return false;
+            }
+        }
+
+        failedAttempts = 0;
+        logger.error("❌ События outbox #{}..#{} не доставлены за {} попыток, доставляем по "
+            + "одному", rows.get(0).id(), rows.get(rows.size() - 1).id(), maxAttempts);
+        for (Row row : rows) {
+            Object event = decode(row);
+            if (event == null) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                logger.error("❌ Событие outbox #{} ({}) пропущено", row.id(), row.type(), e);
+            }
+        }
+        return true;
+    }
+
+    private Object decode(Row row) {
+        Class<?> type = Outbox.EVENT_TYPES.get(row.type());
+        if (type == null) {
+            logger.error("❌ Событие outbox #{} неизвестного типа {} пропущено", row.id(),
+                row.type());
+            return null;
+        }
+        try {
+            Object event = objectMapper.readValue(row.payload(), type);
+            return event instanceof OrdersChangedEvent orders ? orders.withOutboxId(row.id())
+                : event;
+        } catch (IOException e) {
+            logger.error("❌ Событие outbox #{} ({}) не читается и пропущено", row.id(),
+                row.type(), e);
+            return null;
+        }
+    }
+
+    private record Row(long id, String type, String payload) {
+    }
+
+    /**
+     * Delivery progress of this instance.
+     *
+     * @param deliveredUpTo the cursor: rows up to it have been delivered except the gaps
+     * @param undelivered   ids up to the cursor that were not visible yet, still re-read
+     */
+    public record Progress(long deliveredUpTo, Set<Long> undelivered) {
+
+        public boolean delivered(long id) {
+            return id <= deliveredUpTo && !undelivered.contains(id);
+        }
+    }
+}
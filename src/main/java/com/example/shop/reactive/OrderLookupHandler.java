@@ -0,0 +1,53 @@
+package com.example.shop.reactive;
+
+import com.example.shop.exceptions.ApiError;
+import com.example.shop.models.Order;
+import com.example.shop.stats.HeavyHitters;
+import com.example.shop.stats.HeavyHitters.Kind;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional endpoints of the reactive order lookups. The body is written as the orders arrive:
+ * a JSON array by default, one order per line with {@code Accept: application/x-ndjson}.
+ */
+public class OrderLookupHandler {
+
+    private final ReactiveOrderLookup orderLookup;
+    private final HeavyHitters heavyHitters;
+
+    public OrderLookupHandler(ReactiveOrderLookup orderLookup, HeavyHitters heavyHitters) {
+        this.orderLookup = orderLookup;
+        this.heavyHitters = heavyHitters;
+    }
+
+    public Mono<ServerResponse> byProductName(ServerRequest request) {
+        return lookup(request, "productName", Kind.PRODUCT_NAMES,
+            orderLookup::ordersByProductName);
+    }
+
+    public Mono<ServerResponse> byUserName(ServerRequest request) {
+        return lookup(request, "userName", Kind.USER_NAMES, orderLookup::ordersByUserName);
+    }
+
+    private Mono<ServerResponse> lookup(ServerRequest request, String parameter, Kind kind,
+                                        Function<String, Flux<Order>> orders) {
+        Optional<String> key = request.queryParam(parameter);
+        if (key.isEmpty()) {
+            return ServerResponse.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ApiError(400, "Параметр " + parameter + " обязателен"));
+        }
+        heavyHitters.record(kind, key.get());
+        MediaType type = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+            ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok()
+            .contentType(type)
+            .body(orders.apply(key.get()), Order.class);
+    }
+}
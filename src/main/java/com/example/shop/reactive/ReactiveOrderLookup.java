@@ -0,0 +1,193 @@
+package com.example.shop.reactive;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.r2dbc.spi.Readable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Hibernate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the {@code OrderRepository} order lookups by product name and by user
+ * name, on R2DBC instead of JPA.
+ *
+ * <p>Orders are read in keyset pages of {@code shop.reactive.batch-size}; the products and
+ * categories of a page are loaded with one more query, and the next page is read only when the
+ * subscriber asks for more, so a slow client holds neither a thread nor a connection while it
+ * reads. Each query takes a pooled connection and returns it before the next one.
+ *
+ * <p>A hit in the Caffeine caches of the servlet endpoints is served from memory. A streamed
+ * read is not put there: it can take as long as the client reads, and an order write that
+ * invalidated the cache in the meantime would be undone by a stale result.
+ */
+public class ReactiveOrderLookup {
+
+    private static final String ORDERS_BY_PRODUCT_NAME = """
+        SELECT DISTINCT o.id, o.user_id, u.name AS user_name, o.created_at, o.version
+        FROM orders o
+        JOIN users u ON u.id = o.user_id
+        JOIN order_product op ON op.order_id = o.id
+        JOIN products p ON p.id = op.product_id
+        WHERE p.name = :key AND o.id > :after
+        ORDER BY o.id
+        LIMIT :limit
+        """;
+
+    private static final String ORDERS_BY_USER_NAME = """
+        SELECT o.id, o.user_id, u.name AS user_name, o.created_at, o.version
+        FROM orders o
+        JOIN users u ON u.id = o.user_id
+        WHERE u.name = :key AND o.id > :after
+        ORDER BY o.id
+        LIMIT :limit
+        """;
+
+    private static final String PRODUCTS_OF_ORDERS = """
+        SELECT op.order_id, p.id, p.name, p.price, p.version,
+               c.id AS category_id, c.name AS category_name
+        FROM order_product op
+        JOIN products p ON p.id = op.product_id
+        LEFT JOIN product_category pc ON pc.product_id = p.id
+        LEFT JOIN categories c ON c.id = pc.category_id
+        WHERE op.order_id IN (:ids)
+        ORDER BY op.order_id, p.id, c.id
+        """;
+
+    private record ProductRow(long orderId, Product product, Category category) {
+    }
+
+    private final DatabaseClient databaseClient;
+    private final Cache<String, List<Order>> orderCache;
+    private final Cache<String, List<Order>> orderByUserNameCache;
+    private final int batchSize;
+
+    public ReactiveOrderLookup(
+            DatabaseClient databaseClient,
+            Cache<String, List<Order>> orderCache,
+            Cache<String, List<Order>> orderByUserNameCache,
+            int batchSize) {
+        this.databaseClient = databaseClient;
+        this.orderCache = orderCache;
+        this.orderByUserNameCache = orderByUserNameCache;
+        this.batchSize = batchSize;
+    }
+
+    /** Orders containing a product named {@code productName}, by id. */
+    public Flux<Order> ordersByProductName(String productName) {
+        return lookup(orderCache, ORDERS_BY_PRODUCT_NAME, productName);
+    }
+
+    /** Orders of the user named {@code userName}, by id. */
+    public Flux<Order> ordersByUserName(String userName) {
+        return lookup(orderByUserNameCache, ORDERS_BY_USER_NAME, userName);
+    }
+
+    private Flux<Order> lookup(Cache<String, List<Order>> cache, String sql, String key) {
+        return Flux.defer(() -> {
+            List<Order> cached = cache.getIfPresent(key);
+            if (cached != null && isLoaded(cached)) {
+                return Flux.fromIterable(cached);
+            }
+            return page(sql, key, 0)
+                .expand(page -> page.size() < batchSize
+                    ? Mono.empty() : page(sql, key, page.get(page.size() - 1).getId()))
+                .concatMapIterable(page -> page);
+        });
+    }
+
+    private Mono<List<Order>> page(String sql, String key, long after) {
+        return databaseClient.sql(sql)
+            .bind("key", key)
+            .bind("after", after)
+            .bind("limit", batchSize)
+            .map(ReactiveOrderLookup::toOrder)
+            .all()
+            .collectList()
+            .flatMap(orders -> orders.isEmpty() ? Mono.just(orders) : withProducts(orders));
+    }
+
+    private Mono<List<Order>> withProducts(List<Order> orders) {
+        Map<Long, Order> byId = new LinkedHashMap<>();
+        for (Order order : orders) {
+            order.setProducts(new ArrayList<>());
+            byId.put(order.getId(), order);
+        }
+        return databaseClient.sql(PRODUCTS_OF_ORDERS)
+            .bind("ids", byId.keySet())
+            .map(ReactiveOrderLookup::toProductRow)
+            .all()
+            .collectList()
+            .map(rows -> {
+                // Один экземпляр товара и категории на страницу, как в контексте персистентности
+                Map<Long, Product> products = new HashMap<>();
+                Map<Long, Category> categories = new HashMap<>();
+                for (ProductRow row : rows) {
+                    Product product = products.computeIfAbsent(
+                        row.product().getId(), id -> row.product());
+                    List<Product> ofOrder = byId.get(row.orderId()).getProducts();
+                    if (ofOrder.isEmpty() || ofOrder.get(ofOrder.size() - 1) != product) {
+                        ofOrder.add(product);
+                    }
+                    if (row.category() != null) {
+                        Category category = categories.computeIfAbsent(
+                            row.category().getId(), id -> row.category());
+                        if (!product.getCategories().contains(category)) {
+                            product.getCategories().add(category);
+                        }
+                    }
+                }
+                return orders;
+            });
+    }
+
+    /** Whether cached orders can be written without a Hibernate session. */
+    private static boolean isLoaded(List<Order> orders) {
+        for (Order order : orders) {
+            if (!Hibernate.isInitialized(order.getProducts())) {
+                return false;
+            }
+            for (Product product : order.getProducts()) {
+                if (!Hibernate.isInitialized(product)
+                        || !Hibernate.isInitialized(product.getCategories())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Order toOrder(Readable row) {
+        User user = new User(row.get("user_name", String.class));
+        user.setId(row.get("user_id", Long.class));
+        Order order = new Order(user, List.of());
+        order.setId(row.get("id", Long.class));
+        order.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        order.setVersion(row.get("version", Long.class));
+        return order;
+    }
+
+    private static ProductRow toProductRow(Readable row) {
+        Product product = new Product(row.get("name", String.class),
+            row.get("price", Double.class));
+        product.setId(row.get("id", Long.class));
+        product.setVersion(row.get("version", Long.class));
+        product.setCategories(new ArrayList<>());
+        Long categoryId = row.get("category_id", Long.class);
+        Category category = null;
+        if (categoryId != null) {
+            category = new Category(row.get("category_name", String.class));
+            category.setId(categoryId);
+        }
+        return new ProductRow(row.get("order_id", Long.class), product, category);
+    }
+}
@@ -1,9 +1,22 @@
 package com.example.shop.repositories;
 
 import com.example.shop.models.Category;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-}
\ No newline at end of file
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findAll();
+
+    // Для снимка каталога: мимо кэша запросов, чтобы не прогревать его чтением с primary
+    @Query("SELECT c FROM Category c")
+    List<Category> findAllUncached();
+}
@@ -0,0 +1,80 @@
+package com.example.shop.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts already validated orders with JDBC batches. Hibernate cannot batch inserts of
+ * {@code IDENTITY} entities, so bulk import writes {@code orders} and {@code order_product}
+ * directly; on MySQL {@code rewriteBatchedStatements} turns each batch into multi-row inserts.
+ */
+@Repository
+public class OrderBatchWriter {
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (user_id, created_at) VALUES (?, ?)";
+    private static final String INSERT_ORDER_PRODUCT =
+        "INSERT INTO order_product (order_id, product_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the orders and their product links in two batches.
+     *
+     * @param rows user id, distinct product ids and creation time of every order
+     * @return generated order ids, in the order of {@code rows}
+     */
+    public List<Long> insert(List<OrderRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement =
+                     connection.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderRow row : rows) {
+                    statement.setLong(1, row.userId());
+                    statement.setTimestamp(2, Timestamp.valueOf(row.createdAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> generated = new ArrayList<>(rows.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generated.add(keys.getLong(1));
+                    }
+                }
+                return generated;
+            }
+        });
+        if (ids == null || ids.size() != rows.size()) {
+            throw new IllegalStateException("Драйвер вернул не все ключи пакетной вставки заказов");
+        }
+
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            for (Long productId : rows.get(i).productIds()) {
+                links.add(new long[] {ids.get(i), productId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER_PRODUCT, links, links.size(), (ps, link) -> {
+            ps.setLong(1, link[0]);
+            ps.setLong(2, link[1]);
+        });
+        return ids;
+    }
+
+    /** One order to insert. */
+    public record OrderRow(long userId, List<Long> productIds, LocalDateTime createdAt) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.shop.repositories;
 
 import com.example.shop.models.Order;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -23,4 +24,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT o FROM Order o WHERE o.user.name = :userName")
     List<Order> findOrdersByUserName(@Param("userName") String userName);
-}
\ No newline at end of file
+
+    // Для дельта-синхронизации: товары заказов одним запросом, без N+1
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.products")
+    List<Order> findAllWithProducts();
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.products WHERE o.id IN :ids")
+    List<Order> findAllWithProductsByIdIn(@Param("ids") Collection<Long> ids);
+}
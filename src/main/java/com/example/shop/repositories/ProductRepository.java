@@ -1,9 +1,27 @@
 package com.example.shop.repositories;
 
 import com.example.shop.models.Product;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
+
+    // Для построения индексов в памяти: категории одним запросом, без N+1
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.categories")
+    List<Product> findAllWithCategories();
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.categories WHERE p.id IN :ids")
+    List<Product> findAllWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,314 @@
+package com.example.shop.search;
+
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.repositories.ProductRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory product search over names and categories.
+ *
+ * <p>Names are split into lower-case words. A sorted word → products map answers prefix queries,
+ * a trigram → products map answers fuzzy (typo-tolerant) queries ranked by trigram Jaccard
+ * similarity. The index is loaded when the application starts and updated from
+ * {@link CatalogChangedEvent}s after the writing transaction commits.
+ *
+ * <p>A rebuild fills a new index while searches keep using the old one, then swaps it in. Events
+ * and rebuilds are applied one at a time, each re-reading the products after the previous one
+ * finished, so an event delivered during a rebuild waits for it and is applied on top of the new
+ * index rather than being wiped by it.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double FUZZY_THRESHOLD = 0.3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Held while an update reads the database and applies it; orders rebuilds and events. */
+    private final Object updates = new Object();
+
+    private Postings index = new Postings();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Вызывается после коммита другой транзакции: нужна собственная
+        this.transactionTemplate.setPropagationBehavior(
+            TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int size;
+        synchronized (updates) {
+            List<Product> products = transactionTemplate.execute(
+                status -> productRepository.findAllWithCategories());
+            Postings rebuilt = new Postings();
+            Objects.requireNonNull(products).forEach(rebuilt::add);
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            size = products.size();
+        }
+        logger.info("🔎 Поисковый индекс построен: {} продуктов", size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (updates) {
+            List<Product> saved = event.savedProducts().isEmpty() ? List.of()
+                : transactionTemplate.execute(status ->
+                    productRepository.findAllWithCategoriesByIdIn(event.savedProducts()));
+            lock.writeLock().lock();
+            try {
+                event.deletedProducts().forEach(index::remove);
+                event.savedProducts().forEach(index::remove);
+                Objects.requireNonNull(saved).forEach(index::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query search parameters
+     * @return matching products, best first, at most {@code query.limit()}
+     */
+    public List<SearchHit> search(SearchQuery query) {
+        String text = query.text() == null ? "" : query.text().trim();
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scored;
+            if (text.isEmpty()) {
+                scored = new HashMap<>();
+                index.docs.keySet().forEach(id -> scored.put(id, 1.0));
+            } else if (query.mode() == SearchMode.FUZZY) {
+                scored = fuzzy(text);
+            } else {
+                scored = prefix(text);
+            }
+            return scored.entrySet().stream()
+                .filter(e -> matchesFilters(index.docs.get(e.getKey()), query))
+                .map(e -> index.docs.get(e.getKey()).hit(e.getValue()))
+                .sorted(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(SearchHit::name)
+                    .thenComparing(SearchHit::id))
+                .limit(query.limit())
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Every query word must be a prefix of some word of the name; whole-word matches rank higher. */
+    private Map<Long, Double> prefix(String text) {
+        List<String> queryWords = words(text);
+        Map<Long, Double> scored = null;
+        for (String word : queryWords) {
+            Map<Long, Double> matches = new HashMap<>();
+            NavigableMap<String, Set<Long>> prefixed =
+                index.words.subMap(word, true, word + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Set<Long>> entry : prefixed.entrySet()) {
+                double score = entry.getKey().equals(word) ? 1.0 : 0.5;
+                entry.getValue().forEach(id -> matches.merge(id, score, Math::max));
+            }
+            if (scored == null) {
+                scored = matches;
+            } else {
+                Map<Long, Double> previous = scored;
+                scored = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : matches.entrySet()) {
+                    Double before = previous.get(entry.getKey());
+                    if (before != null) {
+                        scored.put(entry.getKey(), before + entry.getValue());
+                    }
+                }
+            }
+            if (scored.isEmpty()) {
+                break;
+            }
+        }
+        if (scored == null) {
+            return Map.of();
+        }
+        int count = queryWords.size();
+        scored.replaceAll((id, score) -> score / count);
+        return scored;
+    }
+
+    private Map<Long, Double> fuzzy(String text) {
+        Set<String> queryTrigrams = trigrams(words(text));
+        Map<Long, Integer> common = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = index.trigrams.get(trigram);
+            if (ids != null) {
+                ids.forEach(id -> common.merge(id, 1, Integer::sum));
+            }
+        }
+        Map<Long, Double> scored = new HashMap<>();
+        common.forEach((id, shared) -> {
+            int union = queryTrigrams.size() + index.docs.get(id).trigrams.size() - shared;
+            double similarity = (double) shared / union;
+            if (similarity >= FUZZY_THRESHOLD) {
+                scored.put(id, similarity);
+            }
+        });
+        return scored;
+    }
+
+    private boolean matchesFilters(Doc doc, SearchQuery query) {
+        if (query.minPrice() != null && doc.price < query.minPrice()) {
+            return false;
+        }
+        if (query.maxPrice() != null && doc.price > query.maxPrice()) {
+            return false;
+        }
+        if (query.categories() == null || query.categories().isEmpty()) {
+            return true;
+        }
+        for (Long category : query.categories()) {
+            Set<Long> members = index.categories.get(category);
+            if (members != null && members.contains(doc.id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    /** Trigrams of every word padded as in pg_trgm: two spaces before, one after. */
+    static Set<String> trigrams(Collection<String> words) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /** The documents and posting maps; replaced as a whole by {@link #rebuild()}. */
+    private static final class Postings {
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> words = new TreeMap<>();
+        private final Map<String, Set<Long>> trigrams = new HashMap<>();
+        private final Map<Long, Set<Long>> categories = new HashMap<>();
+
+        void add(Product product) {
+            List<String> nameWords = words(product.getName());
+            List<Long> categoryIds = product.getCategories() == null ? List.of()
+                : product.getCategories().stream().map(Category::getId).distinct().toList();
+            Doc doc = new Doc(product.getId(), product.getName(),
+                product.getPrice() == null ? 0 : product.getPrice(), categoryIds,
+                new HashSet<>(nameWords), trigrams(nameWords));
+            docs.put(doc.id, doc);
+            doc.words.forEach(w -> words.computeIfAbsent(w, k -> new HashSet<>()).add(doc.id));
+            doc.trigrams.forEach(
+                t -> trigrams.computeIfAbsent(t, k -> new HashSet<>()).add(doc.id));
+            categoryIds.forEach(
+                c -> categories.computeIfAbsent(c, k -> new HashSet<>()).add(doc.id));
+        }
+
+        void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            doc.words.forEach(w -> removePosting(words, w, id));
+            doc.trigrams.forEach(t -> removePosting(trigrams, t, id));
+            doc.categoryIds.forEach(c -> removePosting(categories, c, id));
+        }
+    }
+
+    private record Doc(Long id, String name, double price, List<Long> categoryIds,
+                       Set<String> words, Set<String> trigrams) {
+
+        SearchHit hit(double score) {
+            return new SearchHit(id, name, price, categoryIds, score);
+        }
+    }
+
+    /** How {@link SearchQuery#text()} is matched against product names. */
+    public enum SearchMode {
+        PREFIX,
+        FUZZY
+    }
+
+    /**
+     * Search parameters; {@code null} filters are not applied.
+     *
+     * @param categories products in any of these categories
+     */
+    public record SearchQuery(String text, SearchMode mode, Set<Long> categories,
+                              Double minPrice, Double maxPrice, int limit) {
+    }
+
+    /** A matching product with its relevance in {@code [0, 1]}. */
+    public record SearchHit(Long id, String name, double price, List<Long> categoryIds,
+                            double score) {
+    }
+}
@@ -1,13 +1,15 @@
 package com.example.shop.services;
 
-import java.io.BufferedReader;
+import com.example.shop.logs.LogArchives;
+import com.example.shop.logs.LogRange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,35 +18,31 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
-public class AsyncLogService {
+public class AsyncLogService implements MeterBinder {
 
     private static final Path LOGS_DIR = Paths.get("logs").toAbsolutePath().normalize();
-    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    private final LogArchives logArchives;
     private final Map<String, String> statusMap = new ConcurrentHashMap<>();
     private final Map<String, Path> fileMap = new ConcurrentHashMap<>();
 
+    public AsyncLogService(LogArchives logArchives) {
+        this.logArchives = logArchives;
+    }
+
+    /** Marks the job as waiting for an executor thread; call before {@link #generate}. */
+    public void enqueue(String id) {
+        statusMap.put(id, "QUEUED");
+    }
+
     @Async
-    public void generate(String id, LocalDate from, LocalDate to) {
+    public void generate(String id, LogRange range) {
         statusMap.put(id, "IN_PROGRESS");
         try {
             Thread.sleep(15000);
             Path outPath = LOGS_DIR.resolve("log-" + id + ".log");
-            Path inPath = LOGS_DIR.resolve("app.log");
-            try (BufferedReader reader = Files.newBufferedReader(inPath);
-                PrintWriter writer = new PrintWriter(outPath.toFile())) {
-
-                reader.lines()
-                    .filter(line -> {
-                        try {
-                            String datePart = line.substring(0, 10);
-                            LocalDate d = LocalDate.parse(datePart, FORMAT);
-                            return !d.isBefore(from) && !d.isAfter(to);
-                        } catch (Exception e) {
-                            return false;
-                        }
-                    })
-                    .forEach(writer::println);
+            try (PrintWriter writer = new PrintWriter(outPath.toFile())) {
+                logArchives.read(range, writer::println);
             }
             fileMap.put(id, outPath);
             statusMap.put(id, "DONE");
@@ -60,6 +58,17 @@ public class AsyncLogService {
         return statusMap.getOrDefault(id, "NOT_FOUND");
     }
 
+    /** Publishes {@code shop.async.jobs} per status; {@code QUEUED} is the executor backlog. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String status : new String[] {"QUEUED", "IN_PROGRESS", "DONE", "ERROR"}) {
+            Gauge.builder("shop.async.jobs", statusMap,
+                    m -> m.values().stream().filter(status::equals).count())
+                .tag("status", status)
+                .register(registry);
+        }
+    }
+
     public Optional<InputStreamResource> getFile(String id) throws IOException {
         Path file = fileMap.get(id);
         if (file != null && Files.exists(file)) {
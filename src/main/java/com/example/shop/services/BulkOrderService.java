@@ -0,0 +1,166 @@
+package com.example.shop.services;
+
+import com.example.shop.changes.ChangeLog;
+import com.example.shop.events.OrdersChangedEvent;
+import com.example.shop.events.OrdersChangedEvent.Line;
+import com.example.shop.events.OrdersChangedEvent.OrderDelta;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.outbox.Outbox;
+import com.example.shop.repositories.OrderBatchWriter;
+import com.example.shop.repositories.OrderBatchWriter.OrderRow;
+import com.example.shop.repositories.ProductRepository;
+import com.example.shop.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Creates orders in bulk. All users and products referenced by a chunk are resolved with two
+ * {@code IN} queries, valid orders are written with JDBC batches and the order caches are flushed
+ * once per chunk instead of once per order.
+ */
+@Service
+public class BulkOrderService {
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final OrderBatchWriter orderBatchWriter;
+    private final Cache<String, List<Order>> orderCache;
+    private final Cache<String, List<Order>> orderByUserNameCache;
+    private final Outbox outbox;
+    private final ChangeLog changeLog;
+
+    public BulkOrderService(
+            UserRepository userRepository,
+            ProductRepository productRepository,
+            OrderBatchWriter orderBatchWriter,
+            Cache<String, List<Order>> orderCache,
+            Cache<String, List<Order>> orderByUserNameCache,
+            Outbox outbox,
+            ChangeLog changeLog) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.orderBatchWriter = orderBatchWriter;
+        this.orderCache = orderCache;
+        this.orderByUserNameCache = orderByUserNameCache;
+        this.outbox = outbox;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Validates and inserts one chunk of orders. Invalid items are rejected individually, the
+     * rest of the chunk is still created.
+     *
+     * @param orders the orders, referencing users and products by id
+     * @param firstIndex position of the first order in the whole request, used in the results
+     * @return one result per order, in input order
+     */
+    @Transactional
+    public List<ItemResult> saveChunk(List<Order> orders, int firstIndex) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getUser() != null && order.getUser().getId() != null) {
+                userIds.add(order.getUser().getId());
+            }
+            if (order.getProducts() != null) {
+                order.getProducts().stream()
+                    .filter(Objects::nonNull)
+                    .map(Product::getId)
+                    .filter(Objects::nonNull)
+                    .forEach(productIds::add);
+            }
+        }
+        Set<Long> knownUsers = new HashSet<>();
+        userRepository.findAllById(userIds).forEach(u -> knownUsers.add(u.getId()));
+        // Категории нужны для событий аналитики: подгружаются тем же запросом
+        Map<Long, Product> knownProducts = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllWithCategoriesByIdIn(productIds)
+                .forEach(p -> knownProducts.put(p.getId(), p));
+        }
+
+        ItemResult[] results = new ItemResult[orders.size()];
+        List<OrderRow> rows = new ArrayList<>();
+        List<Integer> rowPositions = new ArrayList<>();
+        List<OrderDelta> deltas = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < orders.size(); i++) {
+            String error = validate(orders.get(i), knownUsers, knownProducts);
+            if (error != null) {
+                results[i] = ItemResult.rejected(firstIndex + i, error);
+                continue;
+            }
+            Order order = orders.get(i);
+            // order_product имеет составной ключ: один товар входит в заказ один раз
+            Set<Long> distinct = new LinkedHashSet<>();
+            order.getProducts().forEach(p -> distinct.add(p.getId()));
+            rows.add(new OrderRow(order.getUser().getId(), List.copyOf(distinct), now));
+            rowPositions.add(i);
+            deltas.add(new OrderDelta(order.getUser().getId(), now, 1, distinct.stream()
+                .map(id -> Line.of(knownProducts.get(id), 1)).toList(), 0));
+        }
+
+        List<Long> ids = orderBatchWriter.insert(rows);
+        for (int r = 0; r < ids.size(); r++) {
+            int position = rowPositions.get(r);
+            results[position] = ItemResult.created(firstIndex + position, ids.get(r));
+        }
+        if (!ids.isEmpty()) {
+            orderCache.invalidateAll();
+            orderByUserNameCache.invalidateAll();
+            outbox.append(OrdersChangedEvent.of(deltas));
+            changeLog.ordersSaved(ids);
+        }
+        return List.of(results);
+    }
+
+    private static String validate(Order order, Set<Long> knownUsers,
+                                   Map<Long, Product> knownProducts) {
+        if (order == null) {
+            return "Пустой заказ";
+        }
+        User user = order.getUser();
+        if (user == null || user.getId() == null) {
+            return "Пользователь обязателен для заказа";
+        }
+        if (!knownUsers.contains(user.getId())) {
+            return "User not found: " + user.getId();
+        }
+        if (order.getProducts() == null || order.getProducts().isEmpty()) {
+            return "Заказ должен содержать хотя бы один товар";
+        }
+        for (Product product : order.getProducts()) {
+            if (product == null || product.getId() == null) {
+                return "Товар без id";
+            }
+            if (!knownProducts.containsKey(product.getId())) {
+                return "Product not found: " + product.getId();
+            }
+        }
+        return null;
+    }
+
+    /** Outcome of one order of a bulk request; {@code index} is its position in the request. */
+    public record ItemResult(int index, String status, Long orderId, String error) {
+
+        static ItemResult created(int index, Long orderId) {
+            return new ItemResult(index, "CREATED", orderId, null);
+        }
+
+        static ItemResult rejected(int index, String error) {
+            return new ItemResult(index, "REJECTED", null, error);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.shop.services;
+
+import com.example.shop.changes.ChangeLog;
+import com.example.shop.changes.ChangeLog.Change;
+import com.example.shop.changes.ChangeLog.Feed;
+import com.example.shop.changes.ChangeSet;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.repositories.OrderRepository;
+import com.example.shop.repositories.ProductRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Delta sync of products and orders: a client loads a feed once without a token and from then on
+ * receives only what was saved or deleted after the token of its previous response, so a poll
+ * costs as much as the changes since the last one rather than the whole data set.
+ */
+@Service
+public class ChangeSyncService {
+
+    private final ChangeLog changeLog;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final int pageSize;
+
+    public ChangeSyncService(
+            ChangeLog changeLog,
+            ProductRepository productRepository,
+            OrderRepository orderRepository,
+            @Value("${shop.changes.page-size:1000}") int pageSize) {
+        this.changeLog = changeLog;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Products changed after {@code since}, or all products with a starting token.
+     *
+     * @param since token of the previous response, {@code null} for a full load
+     */
+    @Transactional(readOnly = true)
+    public ChangeSet<Product> getProductChanges(String since) {
+        if (since == null) {
+            long token = changeLog.head(Feed.PRODUCTS);
+            return new ChangeSet<>(Long.toString(token),
+                productRepository.findAllWithCategories(), List.of(), false);
+        }
+        return changes(Feed.PRODUCTS, since,
+            productRepository::findAllWithCategoriesByIdIn, Product::getId);
+    }
+
+    /**
+     * Orders changed after {@code since}, or all orders with a starting token.
+     *
+     * @param since token of the previous response, {@code null} for a full load
+     */
+    @Transactional(readOnly = true)
+    public ChangeSet<Order> getOrderChanges(String since) {
+        if (since == null) {
+            long token = changeLog.head(Feed.ORDERS);
+            return new ChangeSet<>(Long.toString(token),
+                orderRepository.findAllWithProducts(), List.of(), false);
+        }
+        return changes(Feed.ORDERS, since,
+            orderRepository::findAllWithProductsByIdIn, Order::getId);
+    }
+
+    private <T> ChangeSet<T> changes(Feed feed, String since,
+                                     Function<Collection<Long>, List<T>> loader,
+                                     Function<T, Long> idOf) {
+        ChangeLog.Page page = changeLog.read(feed, parseToken(since), pageSize);
+        Set<Long> saved = new LinkedHashSet<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Change change : page.changes()) {
+            if (change.deleted()) {
+                deleted.add(change.entityId());
+            } else {
+                saved.add(change.entityId());
+            }
+        }
+        List<T> upserted = saved.isEmpty() ? List.of() : loader.apply(saved);
+        // Сохранена, но уже удалена транзакцией, чья запись в журнале ещё не видна
+        Set<Long> found = upserted.stream().map(idOf).collect(Collectors.toSet());
+        saved.stream().filter(id -> !found.contains(id)).forEach(deleted::add);
+        return new ChangeSet<>(Long.toString(page.token()), upserted, deleted, page.hasMore());
+    }
+
+    private static long parseToken(String since) {
+        long token;
+        try {
+            token = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            token = -1;
+        }
+        if (token < 0) {
+            throw new IllegalArgumentException("Некорректный токен since: " + since);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.shop.services;
+
+import com.example.shop.cache.CatalogCache;
+import com.example.shop.changes.ChangeLog;
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.outbox.Outbox;
+import com.example.shop.repositories.CategoryRepository;
+import com.example.shop.repositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streaming product import. The upload is spooled to a temporary file and then read element by
+ * element with a {@link JsonParser}; only one chunk of products is held in memory at a time and
+ * every chunk is committed in its own transaction.
+ *
+ * <p>Finished and failed jobs stay available to the progress endpoint for
+ * {@code shop.products.import.retention} and are then dropped; running jobs are kept.
+ */
+@Service
+public class ProductImportService implements MeterBinder {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String[] STATUSES = {"QUEUED", "IN_PROGRESS", "DONE", "ERROR"};
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Outbox outbox;
+    private final ChangeLog changeLog;
+    private final int chunkSize;
+    private final Cache<String, Job> jobs;
+
+    public ProductImportService(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            CatalogCache catalogCache,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            Outbox outbox,
+            ChangeLog changeLog,
+            @Value("${shop.products.import.chunk-size:1000}") int chunkSize,
+            @Value("${shop.products.import.retention:1h}") Duration retention) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.outbox = outbox;
+        this.changeLog = changeLog;
+        this.chunkSize = chunkSize;
+        this.jobs = Caffeine.newBuilder()
+            .expireAfter(new JobExpiry(retention.toNanos()))
+            .build();
+    }
+
+    /**
+     * Copies the upload to a temporary file and registers a queued job for it.
+     *
+     * @param upload request body, a JSON array of products
+     * @return the job id; pass it to {@link #run} to start the import
+     */
+    public String enqueue(InputStream upload) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createTempFile("product-import-", ".json");
+        long size;
+        try {
+            size = Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // Загрузка оборвалась: задачи не будет, и файл удалять больше некому
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        jobs.put(id, new Job(file, size));
+        return id;
+    }
+
+    @Async
+    public void run(String id) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null) {
+            return;
+        }
+        job.status = "IN_PROGRESS";
+        try (JsonParser parser = objectMapper.getFactory().createParser(job.file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Ожидался JSON-массив продуктов");
+            }
+            List<Product> chunk = new ArrayList<>(chunkSize);
+            long index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                chunk.add(objectMapper.readValue(parser, Product.class));
+                if (chunk.size() == chunkSize) {
+                    saveChunk(job, chunk, index);
+                    index += chunk.size();
+                    chunk.clear();
+                }
+                job.bytesRead.set(parser.getCurrentLocation().getByteOffset());
+            }
+            if (!chunk.isEmpty()) {
+                saveChunk(job, chunk, index);
+            }
+            job.bytesRead.set(job.size);
+            job.status = "DONE";
+        } catch (JsonProcessingException e) {
+            job.fail("Некорректный JSON после элемента " + job.processed.get() + ": "
+                + e.getOriginalMessage());
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.file);
+            } catch (IOException ignored) {
+                // временный файл удалит ОС
+            }
+            // Обновление записи запускает отсчёт retention для завершённой задачи
+            jobs.asMap().replace(id, job);
+        }
+    }
+
+    public Optional<ImportProgress> getProgress(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id)).map(Job::progress);
+    }
+
+    private void saveChunk(Job job, List<Product> chunk, long firstIndex) {
+        Set<Long> categoryIds = chunk.stream()
+            .filter(p -> p.getCategories() != null)
+            .flatMap(p -> p.getCategories().stream())
+            .filter(Objects::nonNull)
+            .map(Category::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+
+        int imported = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Map<Long, Category> categories = new HashMap<>();
+            categoryRepository.findAllById(categoryIds).forEach(c -> categories.put(c.getId(), c));
+
+            List<Product> valid = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Product product = chunk.get(i);
+                String error = validate(product, categories);
+                if (error != null) {
+                    job.reject(firstIndex + i, error);
+                    continue;
+                }
+                List<Category> resolved = product.getCategories() == null ? List.of()
+                    : product.getCategories().stream()
+                        .map(c -> categories.get(c.getId()))
+                        .distinct()
+                        .toList();
+                product.setId(null);
+                product.setCategories(resolved);
+                catalogCache.evictCategoryProducts(resolved);
+                valid.add(product);
+            }
+            if (valid.isEmpty()) {
+                return 0;
+            }
+            productRepository.saveAll(valid);
+            List<Long> ids = valid.stream().map(Product::getId).toList();
+            outbox.append(CatalogChangedEvent.productsSaved(ids));
+            changeLog.productsSaved(ids);
+            return valid.size();
+        }));
+        job.imported.addAndGet(imported);
+        job.processed.addAndGet(chunk.size());
+    }
+
+    private String validate(Product product, Map<Long, Category> categories) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        if (product.getCategories() != null) {
+            for (Category category : product.getCategories()) {
+                if (category == null || !categories.containsKey(category.getId())) {
+                    return "Category not found with id: "
+                        + (category == null ? null : category.getId());
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Publishes {@code shop.import.jobs} per status. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String status : STATUSES) {
+            Gauge.builder("shop.import.jobs", jobs,
+                    c -> c.asMap().values().stream().filter(j -> status.equals(j.status)).count())
+                .tag("status", status)
+                .register(registry);
+        }
+    }
+
+    /**
+     * Import state as returned by the progress endpoint.
+     *
+     * @param percent share of the upload already parsed, by bytes
+     * @param errors  first rejected elements, by position in the array
+     */
+    public record ImportProgress(
+            String status,
+            long processed,
+            long imported,
+            long rejected,
+            int percent,
+            String failure,
+            List<ItemError> errors) {
+    }
+
+    /** A rejected element. */
+    public record ItemError(long index, String error) {
+    }
+
+    /** Running jobs never expire; finished ones expire {@code retention} after finishing. */
+    private record JobExpiry(long retentionNanos) implements Expiry<String, Job> {
+
+        @Override
+        public long expireAfterCreate(String id, Job job, long currentTime) {
+            return job.isFinished() ? retentionNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Job job, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(id, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Job job, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class Job {
+        private final Path file;
+        private final long size;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ItemError> errors = new ArrayList<>();
+        private volatile String status = "QUEUED";
+        private volatile String failure;
+
+        Job(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        void reject(long index, String error) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ItemError(index, error));
+                }
+            }
+        }
+
+        boolean isFinished() {
+            return "DONE".equals(status) || "ERROR".equals(status);
+        }
+
+        void fail(String message) {
+            failure = message;
+            status = "ERROR";
+        }
+
+        ImportProgress progress() {
+            List<ItemError> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            int percent = size == 0 ? 100 : (int) (bytesRead.get() * 100 / size);
+            return new ImportProgress(status, processed.get(), imported.get(), rejected.get(),
+                percent, failure, reported);
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.example.shop.services;
 
+import com.example.shop.cache.CatalogCache;
+import com.example.shop.changes.ChangeLog;
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.events.OrdersChangedEvent;
+import com.example.shop.events.OrdersChangedEvent.OrderDelta;
 import com.example.shop.exceptions.NotFoundException;
 import com.example.shop.models.Category;
 import com.example.shop.models.Order;
 import com.example.shop.models.Product;
 import com.example.shop.models.User;
+import com.example.shop.outbox.Outbox;
 import com.example.shop.repositories.CategoryRepository;
 import com.example.shop.repositories.OrderRepository;
 import com.example.shop.repositories.ProductRepository;
 import com.example.shop.repositories.UserRepository;
 import com.github.benmanes.caffeine.cache.Cache;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +43,27 @@ public class ShopService {
     private final CategoryRepository categoryRepository;
     private final Cache<String, List<Order>> orderCache;
     private final Cache<String, List<Order>> orderByUserNameCache;
+    private final CatalogCache catalogCache;
+    private final Outbox outbox;
+    private final ChangeLog changeLog;
+
+    /**
+     * Partial product update; {@code null} fields stay unchanged.
+     *
+     * @param version the version the client read; the update is rejected if the product has
+     *                changed since
+     */
+    public record ProductPatch(Long version, String name, Double price, List<Long> categoryIds) {
+    }
+
+    /**
+     * Partial order update; {@code null} fields stay unchanged.
+     *
+     * @param version the version the client read; the update is rejected if the order has
+     *                changed since
+     */
+    public record OrderPatch(Long version, Long userId, List<Long> productIds) {
+    }
 
     @Autowired
     public ShopService(
@@ -42,32 +72,47 @@ public class ShopService {
             OrderRepository orderRepository,
             CategoryRepository categoryRepository,
             Cache<String, List<Order>> orderCache,
-            Cache<String, List<Order>> orderByUserNameCache) {
+            Cache<String, List<Order>> orderByUserNameCache,
+            CatalogCache catalogCache,
+            Outbox outbox,
+            ChangeLog changeLog) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.categoryRepository = categoryRepository;
         this.orderCache = orderCache;
         this.orderByUserNameCache = orderByUserNameCache;
+        this.catalogCache = catalogCache;
+        this.outbox = outbox;
+        this.changeLog = changeLog;
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
+    @Transactional
     public Product saveProduct(Product product) {
         List<Category> realCategories = product.getCategories().stream()
             .map(c -> categoryRepository.findById(c.getId())
                 .orElseThrow(() -> new NotFoundException(CATEGORY_NOT_FOUND + c.getId())))
+            .distinct()
             .toList();
 
         product.setCategories(realCategories);
+        catalogCache.evictCategoryProducts(realCategories);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        outbox.append(CatalogChangedEvent.productsSaved(
+            Collections.singletonList(saved.getId())));
+        changeLog.productsSaved(Collections.singletonList(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -77,23 +122,75 @@ public class ShopService {
                 product.setName(updatedProduct.getName());
                 product.setPrice(updatedProduct.getPrice());
 
-                List<Category> realCategories = new ArrayList<>(
-                    updatedProduct.getCategories().stream()
-                        .map(c -> categoryRepository.findById(c.getId())
-                            .orElseThrow(() -> new 
-                            NotFoundException(CATEGORY_NOT_FOUND + c.getId())))
-                        .toList()
-                );
-
-                product.setCategories(realCategories);
+                // Без поля categories категории продукта не меняются
+                if (updatedProduct.getCategories() != null) {
+                    List<Category> realCategories = new ArrayList<>(
+                        updatedProduct.getCategories().stream()
+                            .map(c -> categoryRepository.findById(c.getId())
+                                .orElseThrow(() -> new
+                                NotFoundException(CATEGORY_NOT_FOUND + c.getId())))
+                            .distinct()
+                            .toList()
+                    );
+
+                    catalogCache.evictCategoryProducts(product.getCategories());
+                    catalogCache.evictCategoryProducts(realCategories);
+                    product.setCategories(realCategories);
+                }
 
-                return ResponseEntity.ok(productRepository.save(product));
+                Product saved = productRepository.save(product);
+                outbox.append(CatalogChangedEvent.productsSaved(List.of(id)));
+                changeLog.productsSaved(List.of(id));
+                return ResponseEntity.ok(saved);
             }).orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             throw new IllegalStateException("Ошибка при обновлении продукта: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Applies the non-null fields of the patch if the product is still at
+     * {@code patch.version()}. Only changed columns are written, and the UPDATE itself checks
+     * the version, so an edit committed concurrently is never overwritten.
+     *
+     * @throws ObjectOptimisticLockingFailureException if the product has a different version;
+     *         a concurrent commit surfaces as the same exception when this transaction commits
+     */
+    @Transactional
+    public Product patchProduct(Long id, ProductPatch patch) {
+        Product product = productRepository.findById(id)
+            .orElseThrow(() -> new NotFoundException("Продукт с id=" + id + " не найден"));
+        checkVersion(Product.class, id, patch.version(), product.getVersion());
+
+        if (patch.name() != null) {
+            if (patch.name().isBlank()) {
+                throw new IllegalArgumentException("Название продукта не может быть пустым");
+            }
+            product.setName(patch.name());
+        }
+        if (patch.price() != null) {
+            if (patch.price() <= 0) {
+                throw new IllegalArgumentException("Цена должна быть больше нуля");
+            }
+            product.setPrice(patch.price());
+        }
+        if (patch.categoryIds() != null) {
+            List<Category> realCategories = patch.categoryIds().stream()
+                .map(categoryId -> categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new NotFoundException(CATEGORY_NOT_FOUND + categoryId)))
+                .distinct()
+                .toList();
+            catalogCache.evictCategoryProducts(product.getCategories());
+            catalogCache.evictCategoryProducts(realCategories);
+            product.setCategories(new ArrayList<>(realCategories));
+        }
+
+        Product saved = productRepository.save(product);
+        outbox.append(CatalogChangedEvent.productsSaved(List.of(id)));
+        changeLog.productsSaved(List.of(id));
+        return saved;
+    }
+
     @Transactional
     public ResponseEntity<String> deleteProduct(Long id) {
         Optional<Product> optionalProduct = productRepository.findById(id);
@@ -106,12 +203,15 @@ public class ShopService {
 
         List<Long> affectedOrders = new ArrayList<>();
         List<Long> deletedOrders = new ArrayList<>();
+        List<OrderDelta> deltas = new ArrayList<>();
 
         List<Order> allOrders = orderRepository.findAll();
         for (Order order : allOrders) {
             boolean removed = order.getProducts().removeIf(p -> p.getId().equals(product.getId()));
             if (removed) {
-                if (order.getProducts().isEmpty()) {
+                boolean emptied = order.getProducts().isEmpty();
+                deltas.add(OrderDelta.productRemoved(order, product, emptied));
+                if (emptied) {
                     orderRepository.delete(order);
                     deletedOrders.add(order.getId());
                 } else {
@@ -121,10 +221,18 @@ public class ShopService {
             }
         }
 
+        catalogCache.evictCategoryProducts(product.getCategories());
         product.getCategories().clear();
         productRepository.save(product);
 
         productRepository.delete(product);
+        outbox.append(CatalogChangedEvent.productDeleted(id));
+        if (!deltas.isEmpty()) {
+            outbox.append(OrdersChangedEvent.of(deltas));
+        }
+        changeLog.productDeleted(id);
+        changeLog.ordersSaved(affectedOrders);
+        changeLog.ordersDeleted(deletedOrders);
 
         String msg = "✅ Товар с id=" + id + " удалён.\n"
                 + "Обновлены заказы: " + affectedOrders + "\n"
@@ -135,14 +243,17 @@ public class ShopService {
         return ResponseEntity.ok(msg);
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional
     public User saveUser(User user) {
         return userRepository.save(user);
     }
 
+    @Transactional
     public ResponseEntity<User> updateUser(Long id, User updatedUser) {
         return userRepository.findById(id).map(user -> {
             user.setName(updatedUser.getName());
@@ -150,13 +261,23 @@ public class ShopService {
         }).orElse(ResponseEntity.notFound().build());
     }
 
+    @Transactional
     public ResponseEntity<Void> deleteUser(Long id) {
         return userRepository.findById(id).map(user -> {
+            // Заказы пользователя удаляются каскадом
+            List<Order> orders = user.getOrders() == null ? List.of() : user.getOrders();
+            List<OrderDelta> deltas = orders.stream().map(OrderDelta::removed).toList();
+            List<Long> deletedOrders = orders.stream().map(Order::getId).toList();
             userRepository.delete(user);
+            if (!deltas.isEmpty()) {
+                outbox.append(OrdersChangedEvent.of(deltas));
+            }
+            changeLog.ordersDeleted(deletedOrders);
             return ResponseEntity.ok().<Void>build();
         }).orElseThrow(() -> new NotFoundException("Пользователь с id=" + id + " не найден"));
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserNameCached(String userName) {
         List<Order> cached = orderByUserNameCache.getIfPresent(userName);
         if (cached != null) {
@@ -185,18 +306,22 @@ public class ShopService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    @Transactional
     public Order saveOrder(Order order) {
         Long userId = order.getUser().getId();
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND));
 
+        // order_product имеет составной ключ: один товар входит в заказ один раз
         List<Product> realProducts = order.getProducts().stream()
             .map(p -> productRepository.findById(p.getId())
                 .orElseThrow(() -> new NotFoundException(PRODUCT_NOT_FOUND)))
+            .distinct()
             .toList();
 
         order.setUser(user);
@@ -208,9 +333,66 @@ public class ShopService {
             logger.info("✅ Кэш заказов очищен после создания нового заказа");
         }
 
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        outbox.append(
+            OrdersChangedEvent.of(Collections.singletonList(OrderDelta.placed(saved))));
+        changeLog.ordersSaved(Collections.singletonList(saved.getId()));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Order> getOrderById(Long id) {
+        return orderRepository.findById(id);
+    }
+
+    /**
+     * Applies the non-null fields of the patch if the order is still at
+     * {@code patch.version()}; see {@link #patchProduct(Long, ProductPatch)}.
+     */
+    @Transactional
+    public Order patchOrder(Long id, OrderPatch patch) {
+        Order order = orderRepository.findById(id)
+            .orElseThrow(() -> new NotFoundException("Заказ с id=" + id + " не найден"));
+        checkVersion(Order.class, id, patch.version(), order.getVersion());
+        if (patch.userId() == null && patch.productIds() == null) {
+            return order;
+        }
+
+        OrderDelta before = OrderDelta.removed(order);
+        if (patch.userId() != null) {
+            order.setUser(userRepository.findById(patch.userId())
+                .orElseThrow(() -> new NotFoundException(USER_NOT_FOUND)));
+        }
+        if (patch.productIds() != null) {
+            if (patch.productIds().isEmpty()) {
+                throw new IllegalArgumentException("Заказ должен содержать хотя бы один товар");
+            }
+            order.setProducts(new ArrayList<>(patch.productIds().stream()
+                .map(productId -> productRepository.findById(productId)
+                    .orElseThrow(() -> new NotFoundException(PRODUCT_NOT_FOUND)))
+                .distinct()
+                .toList()));
+        }
+
+        orderCache.invalidateAll();
+        orderByUserNameCache.invalidateAll();
+        Order saved = orderRepository.save(order);
+        outbox.append(
+            OrdersChangedEvent.of(Arrays.asList(before, OrderDelta.placed(saved))));
+        changeLog.ordersSaved(List.of(id));
+        return saved;
+    }
+
+    private static void checkVersion(Class<?> type, Long id, Long expected, Long actual) {
+        if (expected == null) {
+            throw new IllegalArgumentException("version обязателен для частичного обновления");
+        }
+        if (!expected.equals(actual)) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByProductName(String productName) {
         List<Order> cached = orderCache.getIfPresent(productName);
         if (cached != null) {
@@ -233,14 +415,19 @@ public class ShopService {
         return orders;
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByProductNameNative(String productName) {
         return orderRepository.findOrdersByProductNameNative(productName);
     }
 
+    @Transactional
     public ResponseEntity<Void> deleteOrder(Long id) {
         orderCache.invalidateAll();
         return orderRepository.findById(id).map(order -> {
+            OrderDelta delta = OrderDelta.removed(order);
             orderRepository.delete(order);
+            outbox.append(OrdersChangedEvent.of(Collections.singletonList(delta)));
+            changeLog.ordersDeleted(List.of(id));
             if (logger.isInfoEnabled()) {
                 logger.info("🗑️ Заказ с id={} удалён", id);
             }
@@ -255,14 +442,19 @@ public class ShopService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    @Transactional
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        outbox.append(CatalogChangedEvent.categoryChanged(saved.getId()));
+        return saved;
     }
 
+    @Transactional
     public ResponseEntity<Void> deleteCategory(Long id) {
         return categoryRepository.findById(id).map(category -> {
             boolean usedByAnyProduct = productRepository.findAll().stream()
@@ -274,23 +466,32 @@ public class ShopService {
             }
 
             categoryRepository.delete(category);
+            catalogCache.evictCategoryProducts(List.of(category));
+            outbox.append(CatalogChangedEvent.categoryChanged(id));
             return ResponseEntity.ok().<Void>build();
         }).orElseThrow(() -> new NotFoundException("Категория с id=" + id + " не найдена"));
     }
 
+    @Transactional
     public List<Product> saveAllProducts(List<Product> products) {
-        return products.stream()
+        List<Product> saved = products.stream()
             .map(product -> {
                 List<Category> realCategories = product.getCategories().stream()
                     .map(c -> categoryRepository.findById(c.getId())
                             .orElseThrow(() -> new NotFoundException(
                                 CATEGORY_NOT_FOUND + c.getId())))
+                    .distinct()
                     .toList();
                 product.setCategories(realCategories);
+                catalogCache.evictCategoryProducts(realCategories);
                 return product;
             })
             .map(productRepository::save)
             .toList();
+        List<Long> savedIds = saved.stream().map(Product::getId).toList();
+        outbox.append(CatalogChangedEvent.productsSaved(savedIds));
+        changeLog.productsSaved(savedIds);
+        return saved;
     }
 
     private String sanitize(String input) {
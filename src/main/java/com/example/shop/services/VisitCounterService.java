@@ -1,9 +1,14 @@
 package com.example.shop.services;
 
+import com.example.shop.stats.HeavyHitters;
+import com.example.shop.stats.HeavyHitters.Kind;
+import com.example.shop.stats.SpaceSaving.Item;
 import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -12,26 +17,59 @@ import org.springframework.stereotype.Service;
 @Service
 public class VisitCounterService {
     private static final Logger logger = LoggerFactory.getLogger(VisitCounterService.class);
-    private final ConcurrentHashMap<String, AtomicInteger> counterMap = new ConcurrentHashMap<>();
+    // Счётчики по URI: только самые частые, память не растёт с числом различных URI
+    private final HeavyHitters heavyHitters;
     private final RateLimiter rateLimiter = RateLimiter.create(1000);
+    // Метрики помечаются шаблоном маршрута (/api/product/{id}), а не URI, чтобы не плодить серии
+    private final ConcurrentHashMap<String, Counter> routeCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public VisitCounterService(MeterRegistry meterRegistry, HeavyHitters heavyHitters) {
+        this.meterRegistry = meterRegistry;
+        this.heavyHitters = heavyHitters;
+        this.rejected = Counter.builder("shop.visits.rejected")
+            .description("Посещения, отброшенные ограничителем частоты")
+            .register(meterRegistry);
+    }
 
     public void recordVisit(String endpoint) {
+        recordVisit(endpoint, endpoint);
+    }
+
+    public void recordVisit(String endpoint, String route) {
+        recordVisit(endpoint, route, null);
+    }
+
+    public void recordVisit(String endpoint, String route, String client) {
         if (rateLimiter.tryAcquire()) {
-            counterMap.computeIfAbsent(endpoint, k -> new AtomicInteger(0)).incrementAndGet();
+            heavyHitters.record(Kind.ENDPOINTS, endpoint);
+            heavyHitters.record(Kind.CLIENTS, client);
+            routeCounters.computeIfAbsent(route, r -> Counter.builder("shop.visits")
+                .tag("route", r)
+                .register(meterRegistry)).increment();
         } else {
+            rejected.increment();
             logger.warn("⛔ Превышен лимит запросов к {}", endpoint);
         }
     }
 
-    public int getVisitCount(String endpoint) {
-        return counterMap.getOrDefault(endpoint, new AtomicInteger(0)).get();
+    /** Estimated visits of the endpoint; {@code 0} if it is not among the tracked ones. */
+    public long getVisitCount(String endpoint) {
+        return heavyHitters.estimate(Kind.ENDPOINTS, endpoint);
     }
 
-    public ConcurrentMap<String, AtomicInteger> getAllStats() {
-        return counterMap;
+    /** Estimated visits of the tracked endpoints, most visited first. */
+    public Map<String, Long> getAllStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (Item item : heavyHitters.top(Kind.ENDPOINTS, Integer.MAX_VALUE)) {
+            stats.put(item.key(), item.count());
+        }
+        return stats;
     }
 
     public void resetAll() {
-        counterMap.clear();
+        heavyHitters.clear(Kind.ENDPOINTS);
+        heavyHitters.clear(Kind.CLIENTS);
     }
-}
\ No newline at end of file
+}
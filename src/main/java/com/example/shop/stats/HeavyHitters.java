@@ -0,0 +1,63 @@
+package com.example.shop.stats;
+
+import com.example.shop.stats.SpaceSaving.Item;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Most frequent request keys with fixed memory: one {@link SpaceSaving} table of
+ * {@code shop.heavy-hitters.capacity} entries per {@link Kind}. Counts are halved every
+ * {@code shop.heavy-hitters.decay-interval-ms}, so the tables follow what is hot now rather than
+ * since startup.
+ */
+@Component
+public class HeavyHitters {
+
+    /** What is being counted. */
+    public enum Kind {
+        /** Request URIs. */
+        ENDPOINTS,
+        /** {@code productName} of order lookups. */
+        PRODUCT_NAMES,
+        /** {@code userName} of order lookups. */
+        USER_NAMES,
+        /** Client addresses. */
+        CLIENTS
+    }
+
+    private final Map<Kind, SpaceSaving> tables = new EnumMap<>(Kind.class);
+
+    public HeavyHitters(@Value("${shop.heavy-hitters.capacity:256}") int capacity) {
+        for (Kind kind : Kind.values()) {
+            tables.put(kind, new SpaceSaving(capacity));
+        }
+    }
+
+    public void record(Kind kind, String key) {
+        if (key != null) {
+            tables.get(kind).offer(key);
+        }
+    }
+
+    public List<Item> top(Kind kind, int limit) {
+        return tables.get(kind).top(limit);
+    }
+
+    public long estimate(Kind kind, String key) {
+        return tables.get(kind).estimate(key);
+    }
+
+    public void clear(Kind kind) {
+        tables.get(kind).clear();
+    }
+
+    @Scheduled(fixedDelayString = "${shop.heavy-hitters.decay-interval-ms:600000}",
+        initialDelayString = "${shop.heavy-hitters.decay-interval-ms:600000}")
+    public void decay() {
+        tables.values().forEach(SpaceSaving::decay);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.shop.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving top-k counter (Metwally et al.): tracks at most {@code capacity} keys. When a new
+ * key arrives and the table is full, it replaces the key with the smallest count and inherits
+ * that count as its error, so {@code count - error <= true frequency <= count}. Any key seen more
+ * than {@code n / capacity} times out of {@code n} is guaranteed to be tracked.
+ */
+public final class SpaceSaving {
+
+    private static final Comparator<Slot> BY_COUNT = Comparator
+        .comparingLong(Slot::count).thenComparingLong(Slot::sequence);
+
+    /**
+     * An estimated frequency.
+     *
+     * @param count upper bound of the frequency
+     * @param error how much of {@code count} may belong to evicted keys
+     */
+    public record Item(String key, long count, long error) {
+
+        /** Lower bound of the frequency. */
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Slot> slots;
+    private final NavigableSet<Slot> byCount = new TreeSet<>(BY_COUNT);
+    private long sequence;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity должна быть больше нуля: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String key) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            byCount.remove(slot);
+            put(new Slot(key, slot.count + 1, slot.error, sequence++));
+        } else if (slots.size() < capacity) {
+            put(new Slot(key, 1, 0, sequence++));
+        } else {
+            Slot min = byCount.pollFirst();
+            slots.remove(min.key);
+            put(new Slot(key, min.count + 1, min.count, sequence++));
+        }
+    }
+
+    /** The most frequent keys, highest count first. */
+    public synchronized List<Item> top(int limit) {
+        List<Item> result = new ArrayList<>(Math.min(limit, slots.size()));
+        Iterator<Slot> iterator = byCount.descendingIterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            Slot slot = iterator.next();
+            result.add(new Item(slot.key, slot.count, slot.error));
+        }
+        return result;
+    }
+
+    /** Estimated count of the key, or {@code 0} if it is not tracked. */
+    public synchronized long estimate(String key) {
+        Slot slot = slots.get(key);
+        return slot == null ? 0 : slot.count;
+    }
+
+    /**
+     * Halves every count so that keys which stopped being hot eventually drop out; keys whose
+     * count reaches zero are forgotten.
+     */
+    public synchronized void decay() {
+        List<Slot> current = new ArrayList<>(byCount);
+        slots.clear();
+        byCount.clear();
+        for (Slot slot : current) {
+            if (slot.count > 1) {
+                put(new Slot(slot.key, slot.count / 2, slot.error / 2, slot.sequence));
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        slots.clear();
+        byCount.clear();
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private void put(Slot slot) {
+        slots.put(slot.key, slot);
+        byCount.add(slot);
+    }
+
+    private record Slot(String key, long count, long error, long sequence) {
+    }
+}
@@ -0,0 +1,15 @@
+-- Заказ из нескольких товаров: связь заказ–товар переносится из orders.product_id в таблицу order_product.
+-- orders.price остаётся как история старых заказов; сущность её не читает, сумма считается по товарам.
+CREATE TABLE IF NOT EXISTS order_product (
+    order_id   BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    CONSTRAINT fk_order_product_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_product_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- Дубликаты (если order_product уже заполняла ddl-auto=update) удаляет V2 перед первичным ключом
+INSERT INTO order_product (order_id, product_id)
+    SELECT id, product_id FROM orders WHERE product_id IS NOT NULL;
+
+ALTER TABLE orders DROP CONSTRAINT fk_orders_product;
+ALTER TABLE orders DROP COLUMN product_id;
@@ -0,0 +1,39 @@
+-- Схема production-базы на момент перехода на Flyway (дамп shop_db_2025-04-02_034221.sql).
+-- Существующие базы помечаются этой версией (spring.flyway.baseline-on-migrate), скрипт для них не выполняется;
+-- поэтому он должен в точности совпадать с дампом, а приведение к текущим сущностям — в следующих версиях.
+
+CREATE TABLE users (
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE categories (
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id    BIGINT NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255) DEFAULT NULL,
+    price DOUBLE DEFAULT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    price      DOUBLE DEFAULT NULL,
+    user_id    BIGINT NOT NULL,
+    product_id BIGINT DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE product_category (
+    product_id  BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    CONSTRAINT FK5w81wp3eyugvi2lii94iao3fm FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT FKdswxvx2nl2032yjv609r29sdr FOREIGN KEY (category_id) REFERENCES categories (id)
+);
@@ -0,0 +1,31 @@
+-- Индексы для findOrdersByProductName / findOrdersByUserName
+CREATE INDEX idx_products_name ON products (name);
+CREATE INDEX idx_users_name ON users (name);
+
+-- Составные первичные ключи таблиц связей; дубликаты строк удаляются заранее.
+-- Без CREATE TABLE ... AS SELECT: MySQL с enforce_gtid_consistency его не выполняет
+-- (и без LIKE, которого нет в H2)
+CREATE TABLE order_product_dedup (
+    order_id   BIGINT NOT NULL,
+    product_id BIGINT NOT NULL
+);
+INSERT INTO order_product_dedup (order_id, product_id)
+    SELECT DISTINCT order_id, product_id FROM order_product;
+DELETE FROM order_product;
+INSERT INTO order_product (order_id, product_id)
+    SELECT order_id, product_id FROM order_product_dedup;
+DROP TABLE order_product_dedup;
+ALTER TABLE order_product ADD PRIMARY KEY (order_id, product_id);
+
+CREATE TABLE product_category_dedup (
+    product_id  BIGINT NOT NULL,
+    category_id BIGINT NOT NULL
+);
+INSERT INTO product_category_dedup (product_id, category_id)
+    SELECT DISTINCT product_id, category_id FROM product_category;
+DELETE FROM product_category;
+INSERT INTO product_category (product_id, category_id)
+    SELECT product_id, category_id FROM product_category_dedup;
+DROP TABLE product_category_dedup;
+ALTER TABLE product_category ADD PRIMARY KEY (product_id, category_id);
+
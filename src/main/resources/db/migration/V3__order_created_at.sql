@@ -0,0 +1,2 @@
+-- Время создания заказа для почасовой аналитики продаж; существующим заказам — время миграции
+ALTER TABLE orders ADD COLUMN created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,3 @@
+-- Версии строк для оптимистичных блокировок (@Version): PATCH и PUT продуктов и заказов
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
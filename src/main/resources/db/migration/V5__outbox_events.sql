@@ -0,0 +1,11 @@
+-- Transactional outbox: доменные события пишутся в одной транзакции с изменением (Outbox),
+-- фоновый OutboxDispatcher доставляет их подписчикам; строки старше shop.outbox.retention удаляются
+CREATE TABLE outbox_events (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(64) NOT NULL,
+    payload    MEDIUMTEXT  NOT NULL,
+    created_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_events_created_at ON outbox_events (created_at);
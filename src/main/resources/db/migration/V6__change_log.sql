@@ -0,0 +1,22 @@
+-- Журналы изменений для дельта-синхронизации (GET /api/products/changes, /api/orders/changes):
+-- строка на каждое сохранение или удаление в той же транзакции (ChangeLog), seq — токен клиента.
+-- У каждой ленты свой AUTO_INCREMENT, чтобы пропуски seq означали только незакоммиченные записи
+CREATE TABLE product_changes (
+    seq        BIGINT    NOT NULL AUTO_INCREMENT,
+    entity_id  BIGINT    NOT NULL,
+    deleted    BOOLEAN   NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_product_changes_changed_at ON product_changes (changed_at);
+
+CREATE TABLE order_changes (
+    seq        BIGINT    NOT NULL AUTO_INCREMENT,
+    entity_id  BIGINT    NOT NULL,
+    deleted    BOOLEAN   NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_order_changes_changed_at ON order_changes (changed_at);
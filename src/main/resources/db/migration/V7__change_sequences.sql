@@ -0,0 +1,14 @@
+-- Счётчики seq журналов изменений: ChangeLog берёт номера перед коммитом под блокировкой строки
+-- своей ленты, поэтому seq растёт в порядке коммитов и долгая транзакция не остаётся пропуском
+-- позади более поздних строк
+CREATE TABLE change_sequences (
+    feed     VARCHAR(32) NOT NULL,
+    last_seq BIGINT      NOT NULL,
+    PRIMARY KEY (feed)
+);
+
+INSERT INTO change_sequences (feed, last_seq)
+SELECT 'product_changes', COALESCE(MAX(seq), 0) FROM product_changes;
+
+INSERT INTO change_sequences (feed, last_seq)
+SELECT 'order_changes', COALESCE(MAX(seq), 0) FROM order_changes;
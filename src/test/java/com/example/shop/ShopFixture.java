@@ -0,0 +1,136 @@
+package com.example.shop;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against an embedded H2 database and seeds a synthetic catalog; shared
+ * by the JMH benchmarks ({@code src/jmh/java}) and the load tests ({@code src/loadtest/java}).
+ */
+public final class ShopFixture implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final ShopService shopService;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> userNames = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<String> productNames = new ArrayList<>();
+
+    private ShopFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.shopService = context.getBean(ShopService.class);
+    }
+
+    /**
+     * @param database     name of the in-memory H2 database
+     * @param args         extra application arguments ({@code --key=value}), applied last
+     * @param initializers initializers added before the context is refreshed
+     */
+    public static ShopFixture start(String database, List<String> args,
+                                    ApplicationContextInitializer<?>... initializers) {
+        List<String> all = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:h2:mem:" + database
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--server.port=0",
+            "--logging.file.name=",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.shop=WARN"));
+        all.addAll(args);
+        SpringApplication application = new SpringApplication(ShopApplication.class);
+        application.addInitializers(initializers);
+        return new ShopFixture(application.run(all.toArray(String[]::new)));
+    }
+
+    /**
+     * Saves users, products spread over the categories and orders of 3 random products. The
+     * data is the same for the same counts. With no categories the products get none.
+     */
+    public ShopFixture seed(int userCount, int productCount, int categoryCount, int orderCount) {
+        Random random = new Random(42);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(shopService.saveCategory(new Category("category-" + i)));
+        }
+        for (int i = 0; i < userCount; i++) {
+            User user = shopService.saveUser(new User("user-" + i));
+            userIds.add(user.getId());
+            userNames.add(user.getName());
+        }
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product("product-" + i, 1.0 + random.nextInt(1000));
+            product.setCategories(categories.isEmpty() ? List.of()
+                : List.of(categories.get(i % categoryCount)));
+            product = shopService.saveProduct(product);
+            productIds.add(product.getId());
+            productNames.add(product.getName());
+        }
+        for (int i = 0; i < orderCount; i++) {
+            shopService.saveOrder(newOrder(random));
+        }
+        return this;
+    }
+
+    /** A new, unsaved order of a random seeded user for 3 random seeded products. */
+    public Order newOrder(Random random) {
+        User user = new User();
+        user.setId(userIds.get(random.nextInt(userIds.size())));
+        List<Product> items = new ArrayList<>();
+        for (int j = 0; j < 3; j++) {
+            Product product = new Product();
+            product.setId(productIds.get(random.nextInt(productIds.size())));
+            items.add(product);
+        }
+        return new Order(user, items);
+    }
+
+    public List<Long> userIds() {
+        return userIds;
+    }
+
+    public List<String> userNames() {
+        return userNames;
+    }
+
+    public List<Long> productIds() {
+        return productIds;
+    }
+
+    public List<String> productNames() {
+        return productNames;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public ShopService shopService() {
+        return shopService;
+    }
+
+    public ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.shop.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.analytics.SalesAnalytics.Dimension;
+import com.example.shop.analytics.SalesAnalytics.ReconciliationReport;
+import com.example.shop.analytics.SalesAnalytics.SalesBucket;
+import com.example.shop.analytics.SalesAnalytics.SalesMetric;
+import com.example.shop.analytics.SalesAnalytics.SalesTotals;
+import com.example.shop.events.OrdersChangedEvent;
+import com.example.shop.events.OrdersChangedEvent.OrderDelta;
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.outbox.OutboxDispatcher;
+import com.example.shop.services.BulkOrderService;
+import com.example.shop.services.ShopService;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SalesAnalyticsIntegrationTest {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Category gadgets;
+    private Category sale;
+    private User alice;
+    private User bob;
+    private Product cable;
+    private Product phone;
+    private Product accessory;
+
+    @BeforeEach
+    void setUp() {
+        // База общая с другими тестами: свои данные помечены tag, проверки - только по ним
+        outboxDispatcher.dispatch();
+        salesAnalytics.reconcile();
+
+        String tag = "-" + System.nanoTime();
+        gadgets = shopService.saveCategory(new Category("Gadgets" + tag));
+        sale = shopService.saveCategory(new Category("Sale" + tag));
+        alice = shopService.saveUser(new User("alice" + tag));
+        bob = shopService.saveUser(new User("bob" + tag));
+        cable = product("Cable" + tag, 10.5, gadgets);
+        phone = product("Phone" + tag, 20.0, gadgets, sale);
+        accessory = product("Case" + tag, 5.0, sale);
+    }
+
+    @Test
+    void testTotalsFollowOrderWrites() {
+        List<SalesBucket> before = lastHours();
+        shopService.saveOrder(new Order(alice, List.of(cable, phone)));
+        shopService.saveOrder(new Order(bob, List.of(phone)));
+        bulkOrderService.saveChunk(List.of(new Order(bob, List.of(accessory))), 0);
+        outboxDispatcher.dispatch();
+
+        assertTotals(Dimension.PRODUCTS, phone.getId(), 2, 40.0);
+        assertTotals(Dimension.USERS, alice.getId(), 1, 30.5);
+        assertTotals(Dimension.USERS, bob.getId(), 2, 25.0);
+        assertTotals(Dimension.CATEGORIES, gadgets.getId(), 3, 50.5);
+        assertTotals(Dimension.CATEGORIES, sale.getId(), 3, 45.0);
+        assertEquals(List.of(phone.getId(), cable.getId(), accessory.getId()),
+            ours(salesAnalytics.top(Dimension.PRODUCTS, SalesMetric.ORDERS, Integer.MAX_VALUE),
+                phone.getId(), cable.getId(), accessory.getId()));
+        assertEquals(List.of(alice.getId(), bob.getId()),
+            ours(salesAnalytics.top(Dimension.USERS, SalesMetric.REVENUE, Integer.MAX_VALUE),
+                alice.getId(), bob.getId()));
+
+        List<SalesBucket> after = lastHours();
+        assertEquals(3, orders(after) - orders(before));
+        assertEquals(55.5, revenue(after) - revenue(before), 0.001);
+
+        // Товар уходит из заказа alice, а заказ bob с одним телефоном удаляется целиком
+        shopService.deleteProduct(phone.getId());
+        outboxDispatcher.dispatch();
+
+        assertTotals(Dimension.PRODUCTS, phone.getId(), 0, 0.0);
+        assertTotals(Dimension.USERS, alice.getId(), 1, 10.5);
+        assertTotals(Dimension.USERS, bob.getId(), 1, 5.0);
+        assertTotals(Dimension.CATEGORIES, sale.getId(), 1, 5.0);
+
+        ReconciliationReport report = salesAnalytics.reconcile();
+        assertFalse(report.drifted(), report.toString());
+    }
+
+    @Test
+    void testReconciliationRepairsDrift() {
+        Order order = shopService.saveOrder(new Order(alice, List.of(cable)));
+        outboxDispatcher.dispatch();
+        // Изменения мимо сервиса: цена и ещё одна строка заказа
+        jdbcTemplate.update("UPDATE products SET price = 12 WHERE id = ?", cable.getId());
+        jdbcTemplate.update("INSERT INTO order_product (order_id, product_id) VALUES (?, ?)",
+            order.getId(), accessory.getId());
+        assertTotals(Dimension.USERS, alice.getId(), 1, 10.5);
+
+        ReconciliationReport report = salesAnalytics.reconcile();
+
+        assertTrue(report.drifted());
+        assertEquals(2, report.driftedProducts());
+        assertEquals(1, report.driftedUsers());
+        assertTotals(Dimension.USERS, alice.getId(), 1, 17.0);
+        assertTotals(Dimension.CATEGORIES, sale.getId(), 1, 5.0);
+        assertFalse(salesAnalytics.reconcile().drifted());
+    }
+
+    @Test
+    void testDeletingUserRemovesTheirOrders() {
+        shopService.saveOrder(new Order(alice, List.of(cable)));
+        shopService.saveOrder(new Order(bob, List.of(phone, accessory)));
+
+        shopService.deleteUser(bob.getId());
+        outboxDispatcher.dispatch();
+
+        assertTotals(Dimension.USERS, bob.getId(), 0, 0.0);
+        assertTotals(Dimension.PRODUCTS, phone.getId(), 0, 0.0);
+        assertTotals(Dimension.CATEGORIES, sale.getId(), 0, 0.0);
+        assertTotals(Dimension.USERS, alice.getId(), 1, 10.5);
+        assertFalse(salesAnalytics.reconcile().drifted());
+    }
+
+    @Test
+    void testOutboxEventIsCountedOnce() {
+        shopService.saveOrder(new Order(alice, List.of(cable)));
+        outboxDispatcher.dispatch();
+        long last = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+        OrdersChangedEvent placed =
+            OrdersChangedEvent.of(List.of(OrderDelta.placed(new Order(alice, List.of(cable)))));
+
+        // Повторная доставка уже применённого события и события, учтённого загрузкой
+        salesAnalytics.onOrdersChanged(placed.withOutboxId(last));
+        assertTotals(Dimension.USERS, alice.getId(), 1, 10.5);
+        salesAnalytics.reconcile();
+        salesAnalytics.onOrdersChanged(placed.withOutboxId(last));
+        assertTotals(Dimension.USERS, alice.getId(), 1, 10.5);
+
+        salesAnalytics.onOrdersChanged(placed.withOutboxId(last + 1000));
+        salesAnalytics.onOrdersChanged(placed.withOutboxId(last + 1000));
+        assertTotals(Dimension.USERS, alice.getId(), 2, 21.0);
+    }
+
+    @Test
+    void testEndpoints() throws Exception {
+        shopService.saveOrder(new Order(alice, List.of(cable, phone)));
+        outboxDispatcher.dispatch();
+
+        mockMvc.perform(get("/api/analytics/products/top?by=revenue&limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/analytics/products/" + phone.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.revenue").value(20.0));
+        mockMvc.perform(get("/api/analytics/users/" + alice.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders").value(1))
+            .andExpect(jsonPath("$.revenue").value(30.5));
+        mockMvc.perform(get("/api/analytics/series"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isNotEmpty());
+        mockMvc.perform(get("/api/analytics/shops/top"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Product product(String name, double price, Category... categories) {
+        Product product = new Product(name, price);
+        product.setCategories(List.of(categories));
+        return shopService.saveProduct(product);
+    }
+
+    private void assertTotals(Dimension dimension, long id, long orders, double revenue) {
+        SalesTotals totals = salesAnalytics.totals(dimension, id);
+        assertEquals(orders, totals.orders(), dimension + " " + id);
+        assertEquals(revenue, totals.revenue(), 0.001, dimension + " " + id);
+    }
+
+    private List<SalesBucket> lastHours() {
+        return salesAnalytics.series(
+            LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+    }
+
+    private static long orders(List<SalesBucket> series) {
+        return series.stream().mapToLong(SalesBucket::orders).sum();
+    }
+
+    private static double revenue(List<SalesBucket> series) {
+        return series.stream().mapToDouble(SalesBucket::revenue).sum();
+    }
+
+    /** Ids of the ranking that belong to this test, in ranking order. */
+    private static List<Long> ours(List<SalesTotals> totals, Long... ids) {
+        List<Long> wanted = List.of(ids);
+        return totals.stream().map(SalesTotals::id).filter(wanted::contains).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.shop.assets;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticAssetsIntegrationTest {
+
+    private static final String MAIN_JS = "/static/js/main.d72923e7.js";
+    private static final String MAIN_JS_MAP = MAIN_JS + ".map";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemoryResourceResolver staticAssetsMemoryCache;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testHashedAssetIsServedPrecompressedAndImmutable() throws Exception {
+        byte[] original = new ClassPathResource("static" + MAIN_JS).getContentAsByteArray();
+
+        MvcResult gzipped = mockMvc.perform(get(MAIN_JS)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                "max-age=31536000, public, immutable"))
+            .andReturn();
+        byte[] body = gzipped.getResponse().getContentAsByteArray();
+        assertTrue(body.length < original.length / 2, "gzip: " + body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertArrayEquals(original, in.readAllBytes());
+        }
+
+        MvcResult plain = mockMvc.perform(get(MAIN_JS))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(header().stringValues(HttpHeaders.VARY,
+                hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andReturn();
+        assertArrayEquals(original, plain.getResponse().getContentAsByteArray());
+        assertTrue(plain.getResponse().getContentType().contains("javascript"));
+
+        if (new ClassPathResource("static" + MAIN_JS + ".br").exists()) {
+            mockMvc.perform(get(MAIN_JS).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"));
+        }
+    }
+
+    @Test
+    void testSmallFilesAreCachedInMemoryAndLargeOnesAreNot() throws Exception {
+        mockMvc.perform(get(MAIN_JS)).andExpect(status().isOk());
+        int files = staticAssetsMemoryCache.cachedFiles();
+        long bytes = staticAssetsMemoryCache.cachedBytes();
+        assertTrue(files >= 1);
+
+        mockMvc.perform(get(MAIN_JS)).andExpect(status().isOk());
+        assertEquals(files, staticAssetsMemoryCache.cachedFiles());
+
+        // 2 МБ — больше shop.assets.cache.max-file-size, отдаётся из файла
+        long mapSize = new ClassPathResource("static" + MAIN_JS_MAP).contentLength();
+        MvcResult map = mockMvc.perform(get(MAIN_JS_MAP)).andExpect(status().isOk()).andReturn();
+        assertEquals(mapSize, map.getResponse().getContentAsByteArray().length);
+        assertEquals(bytes, staticAssetsMemoryCache.cachedBytes());
+    }
+
+    @Test
+    void testUnhashedFilesAreRevalidated() throws Exception {
+        mockMvc.perform(get("/index.html"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void testFilesAreHandedToSendfileWhenSupported(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("large.js"), new byte[64 * 1024]);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SendfileResourceHttpMessageConverter.SENDFILE_SUPPORT, true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        new SendfileResourceHttpMessageConverter()
+            .write(new FileSystemResource(file), null, output);
+
+        assertEquals(file.toAbsolutePath().toString(),
+            request.getAttribute(SendfileResourceHttpMessageConverter.SENDFILE_FILENAME));
+        assertEquals(64 * 1024L,
+            request.getAttribute(SendfileResourceHttpMessageConverter.SENDFILE_END));
+        assertEquals(64 * 1024L, output.getHeaders().getContentLength());
+        assertEquals(0, output.getBodyAsBytes().length);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.shop.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.repositories.CategoryRepository;
+import com.example.shop.services.ShopService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class CatalogCacheIntegrationTest {
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Category books;
+    private Category music;
+
+    @BeforeEach
+    void setUp() {
+        catalogCache.evictAll();
+        books = shopService.saveCategory(new Category("Books " + System.nanoTime()));
+        music = shopService.saveCategory(new Category("Music " + System.nanoTime()));
+    }
+
+    @Test
+    void testCategoryProductsEvictedOnUpdateProduct() {
+        Product product = shopService.saveProduct(product("Guide", books));
+        assertEquals(List.of("Guide"), productNames(books));
+
+        shopService.updateProduct(product.getId(), product("Guide", music));
+
+        assertEquals(List.of(), productNames(books));
+        assertEquals(List.of("Guide"), productNames(music));
+    }
+
+    @Test
+    void testCategoryProductsEvictedOnDeleteProduct() {
+        Product product = shopService.saveProduct(product("Album", music));
+        assertEquals(List.of("Album"), productNames(music));
+
+        shopService.deleteProduct(product.getId());
+
+        assertEquals(List.of(), productNames(music));
+    }
+
+    @Test
+    void testRepeatedReadsHitSecondLevelCache() {
+        shopService.saveProduct(product("Novel", books));
+        productNames(books);
+        long hitsBefore = hits();
+
+        productNames(books);
+        shopService.getAllCategories();
+        shopService.getAllCategories();
+
+        assertTrue(hits() > hitsBefore);
+        assertTrue(catalogCache.statistics().queries().hits() > 0);
+    }
+
+    private Product product(String name, Category category) {
+        Product product = new Product(name, 10.0);
+        product.setCategories(new ArrayList<>(List.of(category)));
+        return product;
+    }
+
+    private List<String> productNames(Category category) {
+        return transactionTemplate.execute(status ->
+            categoryRepository.findById(category.getId()).orElseThrow().getProducts().stream()
+                .map(Product::getName)
+                .toList());
+    }
+
+    private long hits() {
+        return catalogCache.statistics().regions().stream()
+            .mapToLong(CatalogCache.RegionStats::hits)
+            .sum();
+    }
+}
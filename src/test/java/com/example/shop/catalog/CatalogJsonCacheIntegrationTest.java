@@ -0,0 +1,123 @@
+package com.example.shop.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.outbox.OutboxDispatcher;
+import com.example.shop.services.ShopService;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogJsonCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private CatalogJsonCache catalogJsonCache;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Test
+    void testListingIsEncodedOncePerVersion() {
+        CatalogJsonCache.Encoded first = catalogJsonCache.products();
+        assertSame(first, catalogJsonCache.products());
+
+        save("Encoded " + System.nanoTime(), 10.0);
+
+        CatalogJsonCache.Encoded second = catalogJsonCache.products();
+        assertNotEquals(first.version(), second.version());
+        assertNotEquals(first.etag(), second.etag());
+    }
+
+    @Test
+    void testConditionalGetAndGzip() throws Exception {
+        save("Conditional " + System.nanoTime(), 20.0);
+
+        MvcResult plain = mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn();
+        String etag = plain.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        byte[] json = plain.getResponse().getContentAsByteArray();
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+        // Фильтрованная выборка валидируется тем же ETag полного списка
+        mockMvc.perform(get("/api/products?maxPrice=100")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        MvcResult gzipped = mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andReturn();
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+        save("Changed " + System.nanoTime(), 30.0);
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void testCategoryWritesChangeCategoryEtag() throws Exception {
+        Category category = shopService.saveCategory(new Category("Tagged " + System.nanoTime()));
+        outboxDispatcher.dispatch();
+        String etag = mockMvc.perform(get("/api/categories"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        shopService.deleteCategory(category.getId());
+        outboxDispatcher.dispatch();
+        String changed = mockMvc.perform(get("/api/categories")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    private Product save(String name, double price) {
+        Product product = new Product(name, price);
+        product.setCategories(List.of());
+        Product saved = shopService.saveProduct(product);
+        outboxDispatcher.dispatch();
+        return saved;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.shop.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.outbox.OutboxDispatcher;
+import com.example.shop.services.ShopService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogSnapshotsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Category phones;
+    private Category audio;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        phones = shopService.saveCategory(new Category("Телефоны " + suffix));
+        audio = shopService.saveCategory(new Category("Audio " + suffix));
+    }
+
+    @Test
+    void testListingMatchesEntitySerialization() throws Exception {
+        Product phone = save("Смартфон \"X\"", 900.0, phones, audio);
+        save("Кабель", 5.0);
+
+        JsonNode listed = byId(list(""), phone.getId());
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(phone)), listed);
+    }
+
+    @Test
+    void testCategoryAndPriceFilters() throws Exception {
+        Product flagship = save("Flagship", 900.0, phones);
+        Product budget = save("Budget", 150.0, phones);
+        Product headphones = save("Headphones", 150.0, audio);
+
+        assertEquals(List.of(flagship.getId(), budget.getId()),
+            ids(list("?category=" + phones.getId())));
+        assertEquals(List.of(flagship.getId(), budget.getId(), headphones.getId()),
+            ids(list("?category=" + phones.getId() + "&category=" + audio.getId())));
+        assertEquals(List.of(budget.getId()),
+            ids(list("?category=" + phones.getId() + "&maxPrice=150")));
+        assertEquals(List.of(budget.getId(), headphones.getId()),
+            ids(list("?category=" + phones.getId() + "," + audio.getId()
+                + "&minPrice=100&maxPrice=500")));
+        assertEquals(List.of(), ids(list("?category=-1")));
+    }
+
+    @Test
+    void testCategoryIntersectionAndCategoryEndpoint() throws Exception {
+        Category sale = shopService.saveCategory(new Category("Sale " + System.nanoTime()));
+        Product phone = save("Phone", 500.0, phones, sale);
+        Product earbuds = save("Earbuds", 80.0, audio, sale);
+        Product speaker = save("Speaker", 120.0, audio);
+
+        assertEquals(List.of(earbuds.getId()),
+            ids(list("?category=" + audio.getId() + "," + sale.getId() + "&match=all")));
+        assertEquals(List.of(phone.getId(), earbuds.getId(), speaker.getId()),
+            ids(list("?category=" + audio.getId() + "," + sale.getId() + "&match=ANY")));
+        assertEquals(List.of(),
+            ids(list("?category=" + sale.getId() + ",-1&match=all")));
+
+        assertEquals(List.of(phone.getId(), earbuds.getId()),
+            ids(json(get("/api/categories/" + sale.getId() + "/products"))));
+        assertEquals(List.of(speaker.getId()),
+            ids(json(get("/api/categories/" + audio.getId() + "/products?minPrice=100"))));
+
+        mockMvc.perform(get("/api/categories/-1/products"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products?match=some"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSnapshotFollowsUpdatesAndDeletes() throws Exception {
+        Product product = save("Walkman", 50.0, audio);
+        long version = catalogSnapshots.current().version();
+
+        Product update = new Product("Discman", 60.0);
+        update.setCategories(List.of(phones));
+        shopService.updateProduct(product.getId(), update);
+        outboxDispatcher.dispatch();
+
+        JsonNode updated = byId(list("?category=" + phones.getId()), product.getId());
+        assertEquals("Discman", updated.get("name").asText());
+        assertEquals(60.0, updated.get("price").asDouble());
+        assertEquals(List.of(), ids(list("?category=" + audio.getId())));
+        assertEquals(version + 1, catalogSnapshots.current().version());
+
+        shopService.deleteProduct(product.getId());
+        outboxDispatcher.dispatch();
+        assertEquals(List.of(), ids(list("?category=" + phones.getId())));
+    }
+
+    private Product save(String name, double price, Category... categories) {
+        Product product = new Product(name, price);
+        product.setCategories(List.of(categories));
+        Product saved = shopService.saveProduct(product);
+        outboxDispatcher.dispatch();
+        return saved;
+    }
+
+    private JsonNode list(String query) throws Exception {
+        return json(get("/api/products" + query));
+    }
+
+    private JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+
+    private static JsonNode byId(JsonNode products, long id) {
+        for (JsonNode product : products) {
+            if (product.get("id").asLong() == id) {
+                return product;
+            }
+        }
+        throw new AssertionError("Нет продукта " + id + " в " + products);
+    }
+
+    private static List<Long> ids(JsonNode products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(p -> ids.add(p.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.shop.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPrometheusScrapeExposesApplicationMeters() throws Exception {
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/product/{id}", 424242)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/orders/by-username").param("userName", "nobody"))
+            .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertContains(scrape, "http_server_requests_seconds_count{");
+        assertContains(scrape, "status=\"404\",uri=\"/api/product/{id}\"");
+        assertContains(scrape, "cache_gets_total{application=\"shop\",cache=\"orderByUserNameCache\"");
+        assertContains(scrape, "cache_size{application=\"shop\",cache=\"orderCache\"");
+        assertContains(scrape, "hikaricp_connections_active{");
+        assertContains(scrape, "shop_async_jobs{application=\"shop\",status=\"QUEUED\"");
+        assertContains(scrape, "shop_visits_total{application=\"shop\",route=\"/api/product/{id}\"");
+        assertContains(scrape, "jvm_gc_memory_allocated_bytes_total");
+    }
+
+    private static void assertContains(String scrape, String expected) {
+        assertTrue(scrape.contains(expected), () -> "missing " + expected);
+    }
+}
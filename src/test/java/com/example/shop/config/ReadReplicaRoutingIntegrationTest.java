@@ -0,0 +1,118 @@
+package com.example.shop.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.jdbc.ReplicaLagMonitor;
+import com.example.shop.models.Category;
+import com.example.shop.services.ShopService;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Two in-memory H2 databases stand in for the MySQL primary and its replica.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing_primary;"
+        + "MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "shop.datasource.replica.enabled=true",
+    "shop.datasource.replica.url=jdbc:h2:mem:routing_replica;"
+        + "MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "shop.datasource.replica.username=sa",
+    "shop.datasource.replica.password=",
+    "shop.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+    "shop.datasource.replica.max-lag=5s",
+    "shop.datasource.replica.check-interval-ms=3600000"
+})
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(dataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        for (String table : List.of(
+                "order_product", "product_category", "orders", "products", "categories", "users")) {
+            primary.execute("DELETE FROM " + table);
+        }
+
+        // Реплика получает ту же схему, что Hibernate создал на primary, но без данных
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+        replica.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replicaLagMonitor.checkLag();
+    }
+
+    @Test
+    void testWritesGoToPrimary() {
+        shopService.saveCategory(new Category("Books"));
+
+        assertEquals(1, count(primary));
+        assertEquals(0, count(replica));
+    }
+
+    @Test
+    void testReadOnlyQueriesGoToReplica() {
+        shopService.saveCategory(new Category("Primary only"));
+        replica.update("INSERT INTO categories (name) VALUES ('Replica only')");
+
+        assertTrue(replicaLagMonitor.isHealthy());
+        assertEquals(List.of("Replica only"), names(shopService.getAllCategories()));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaLags() {
+        shopService.saveCategory(new Category("Primary only"));
+        replica.update("UPDATE replica_lag SET seconds = 60");
+        replicaLagMonitor.checkLag();
+
+        assertFalse(replicaLagMonitor.isHealthy());
+        assertEquals(List.of("Primary only"), names(shopService.getAllCategories()));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicationStopped() {
+        shopService.saveCategory(new Category("Primary only"));
+        replica.update("UPDATE replica_lag SET seconds = NULL");
+        replicaLagMonitor.checkLag();
+
+        assertFalse(replicaLagMonitor.isHealthy());
+        assertEquals(List.of("Primary only"), names(shopService.getAllCategories()));
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        replicaLagMonitor.checkLag();
+        assertTrue(replicaLagMonitor.isHealthy());
+    }
+
+    private int count(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM categories", Integer.class);
+    }
+
+    private List<String> names(List<Category> categories) {
+        return categories.stream().map(Category::getName).toList();
+    }
+}
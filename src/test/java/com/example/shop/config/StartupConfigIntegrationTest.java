@@ -0,0 +1,38 @@
+package com.example.shop.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Boots the {@code prod} profile on H2 and checks which beans lazy initialization left out.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:startup_prod;"
+    + "MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("prod")
+class StartupConfigIntegrationTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void testHotAndScheduledBeansStayEager() {
+        assertTrue(beanFactory.containsSingleton("shopController"));
+        assertTrue(beanFactory.containsSingleton("catalogJsonCache"));
+        // @Scheduled и @EventListener не работают у ленивого бина, которого никто не запросил
+        assertTrue(beanFactory.containsSingleton("orderCacheWarmer"));
+        assertTrue(beanFactory.containsSingleton("heavyHitters"));
+        assertTrue(beanFactory.containsSingleton("salesAnalytics"));
+    }
+
+    @Test
+    void testColdBeansAreLazyAndSpringdocIsOff() {
+        assertFalse(beanFactory.containsSingleton("logController"));
+        assertFalse(beanFactory.containsBean("openApiResource"));
+    }
+}
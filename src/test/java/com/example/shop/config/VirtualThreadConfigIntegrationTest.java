@@ -0,0 +1,87 @@
+package com.example.shop.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.Filter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Boots the application with {@code shop.threads.virtual=true} and checks where real requests
+ * and {@code @Async} tasks run. Throughput against the platform pool is compared by
+ * {@code VirtualThreadBenchmark} ({@code -Ploadtest -Pjava21}), not here.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "shop.threads.virtual=true")
+class VirtualThreadConfigIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RequestThreads requestThreads;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void testRequestsRunOnVirtualThreads() {
+        // Запросы с обращением к БД: ожидание JDBC идёт на виртуальном потоке
+        for (int i = 0; i < 5; i++) {
+            webTestClient.get().uri("/api/products").exchange().expectStatus().isOk();
+            webTestClient.get().uri("/api/categories").exchange().expectStatus().isOk();
+        }
+
+        assertFalse(requestThreads.threads.isEmpty());
+        for (Thread thread : requestThreads.threads) {
+            assertTrue(VirtualThreads.isVirtual(thread), thread.toString());
+            assertTrue(thread.getName().startsWith("http-vt-"), thread.getName());
+        }
+    }
+
+    @Test
+    void testAsyncTasksRunOnVirtualThreads() throws Exception {
+        Thread thread = applicationTaskExecutor.submit(Thread::currentThread)
+            .get(10, TimeUnit.SECONDS);
+
+        assertTrue(VirtualThreads.isVirtual(thread), thread.toString());
+        assertTrue(thread.getName().startsWith("async-vt-"), thread.getName());
+    }
+
+    @TestConfiguration
+    static class RequestThreadsConfig {
+
+        @Bean
+        RequestThreads requestThreads() {
+            return new RequestThreads();
+        }
+
+        @Bean
+        Filter requestThreadFilter(RequestThreads requestThreads) {
+            return (request, response, chain) -> {
+                requestThreads.threads.add(Thread.currentThread());
+                chain.doFilter(request, response);
+            };
+        }
+    }
+
+    static class RequestThreads {
+
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+    }
+}
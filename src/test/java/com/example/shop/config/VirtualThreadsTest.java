@@ -0,0 +1,32 @@
+package com.example.shop.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsTest {
+
+    @Test
+    void testFactoryFailsFastWithoutJava21() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThrows(IllegalStateException.class, () -> VirtualThreads.newExecutor("vt-"));
+    }
+
+    @Test
+    void testExecutorRunsTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newExecutor("vt-");
+        try {
+            assertTrue(executor.submit(() -> VirtualThreads.isVirtual(Thread.currentThread()))
+                .get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.shop.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "shop.orders.bulk.chunk-size=2"})
+@AutoConfigureMockMvc
+class BulkOrderControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Cache<String, List<Order>> orderByUserNameCache;
+
+    private User user;
+    private Product first;
+    private Product second;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        Category category = shopService.saveCategory(new Category("Bulk " + suffix));
+        user = shopService.saveUser(new User("bulk-" + suffix));
+        first = product("first-" + suffix, category);
+        second = product("second-" + suffix, category);
+    }
+
+    @Test
+    void testJsonArrayCreatesValidOrdersAndRejectsInvalidOnes() throws Exception {
+        orderByUserNameCache.put(user.getName(), List.of());
+        String body = "[" + order(user.getId(), first.getId(), second.getId(), first.getId()) + ","
+            + order(-1L, first.getId()) + ","
+            + order(user.getId(), -5L) + ","
+            + "{\"user\":{\"id\":" + user.getId() + "},\"products\":[]},"
+            + order(user.getId(), second.getId()) + "]";
+
+        mockMvc.perform(post("/api/orders/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.rejected").value(3))
+            .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.items[1].error").value("User not found: -1"))
+            .andExpect(jsonPath("$.items[2].error").value("Product not found: -5"))
+            .andExpect(jsonPath("$.items[3].status").value("REJECTED"))
+            .andExpect(jsonPath("$.items[4].index").value(4))
+            .andExpect(jsonPath("$.items[4].status").value("CREATED"));
+
+        assertEquals(2, count("SELECT COUNT(*) FROM orders WHERE user_id = ?", user.getId()));
+        // повторяющийся товар записывается в заказ один раз
+        assertEquals(3, count("SELECT COUNT(*) FROM order_product op JOIN orders o "
+            + "ON o.id = op.order_id WHERE o.user_id = ?", user.getId()));
+        assertNull(orderByUserNameCache.getIfPresent(user.getName()));
+        assertEquals(2, shopService.getOrdersByUserNameCached(user.getName()).size());
+    }
+
+    @Test
+    void testNdjsonStream() throws Exception {
+        String body = order(user.getId(), first.getId()) + "\n"
+            + order(user.getId(), second.getId()) + "\n"
+            + order(user.getId(), first.getId(), second.getId()) + "\n";
+
+        mockMvc.perform(post("/api/orders/bulk")
+                .contentType(BulkOrderController.NDJSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(3))
+            .andExpect(jsonPath("$.items.length()").value(3));
+
+        assertEquals(3, count("SELECT COUNT(*) FROM orders WHERE user_id = ?", user.getId()));
+    }
+
+    @Test
+    void testMalformedTailKeepsCommittedChunks() throws Exception {
+        String body = order(user.getId(), first.getId()) + "\n"
+            + order(user.getId(), second.getId()) + "\n"
+            + "{\"user\":";
+
+        mockMvc.perform(post("/api/orders/bulk")
+                .contentType(BulkOrderController.NDJSON)
+                .content(body))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.created").value(2));
+
+        assertEquals(2, count("SELECT COUNT(*) FROM orders WHERE user_id = ?", user.getId()));
+    }
+
+    private Product product(String name, Category category) {
+        Product product = new Product(name, 10.0);
+        product.setCategories(List.of(category));
+        return shopService.saveProduct(product);
+    }
+
+    private static String order(Long userId, Long... productIds) {
+        StringBuilder products = new StringBuilder();
+        for (Long id : productIds) {
+            if (products.length() > 0) {
+                products.append(',');
+            }
+            products.append("{\"id\":").append(id).append('}');
+        }
+        return "{\"user\":{\"id\":" + userId + "},\"products\":[" + products + "]}";
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
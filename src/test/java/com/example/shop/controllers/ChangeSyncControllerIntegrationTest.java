@@ -0,0 +1,203 @@
+package com.example.shop.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.changes.ChangeLog;
+import com.example.shop.changes.ChangeLog.Feed;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import com.example.shop.services.ShopService.OrderPatch;
+import com.example.shop.services.ShopService.ProductPatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeSyncControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testProductChangesContainOnlyWritesSinceToken() throws Exception {
+        Product kept = save("Kept " + System.nanoTime(), 1.0);
+        JsonNode full = changes("/api/products/changes");
+        assertTrue(ids(full.get("upserted")).contains(kept.getId()));
+        String token = full.get("token").asText();
+
+        Product updated = save("Updated " + System.nanoTime(), 2.0);
+        Product removed = save("Removed " + System.nanoTime(), 3.0);
+        shopService.patchProduct(updated.getId(), new ProductPatch(0L, null, 2.5, null));
+        shopService.deleteProduct(removed.getId());
+
+        JsonNode delta = changes("/api/products/changes?since=" + token);
+        List<Long> upserted = ids(delta.get("upserted"));
+        assertTrue(upserted.contains(updated.getId()));
+        assertFalse(upserted.contains(removed.getId()));
+        assertFalse(upserted.contains(kept.getId()));
+        JsonNode latest = delta.get("upserted").get(upserted.indexOf(updated.getId()));
+        assertEquals(2.5, latest.get("price").asDouble());
+        assertEquals(1, latest.get("version").asLong());
+        assertTrue(longs(delta.get("deleted")).contains(removed.getId()));
+        assertFalse(delta.get("hasMore").asBoolean());
+
+        JsonNode nothing = changes("/api/products/changes?since=" + delta.get("token").asText());
+        assertEquals(0, nothing.get("upserted").size());
+        assertEquals(0, nothing.get("deleted").size());
+        assertEquals(delta.get("token").asText(), nothing.get("token").asText());
+    }
+
+    @Test
+    void testOrderChangesIncludeOrdersTouchedByProductDeletion() throws Exception {
+        User user = shopService.saveUser(new User("sync-" + System.nanoTime()));
+        Product first = save("First " + System.nanoTime(), 1.0);
+        Product second = save("Second " + System.nanoTime(), 2.0);
+        Order emptied = shopService.saveOrder(new Order(user, new ArrayList<>(List.of(first))));
+        Order shrunk = shopService.saveOrder(
+            new Order(user, new ArrayList<>(List.of(first, second))));
+        String token = changes("/api/orders/changes").get("token").asText();
+
+        Order patched = shopService.saveOrder(new Order(user, new ArrayList<>(List.of(second))));
+        shopService.patchOrder(patched.getId(),
+            new OrderPatch(0L, null, List.of(first.getId(), second.getId())));
+        shopService.deleteProduct(first.getId());
+
+        JsonNode delta = changes("/api/orders/changes?since=" + token);
+        List<Long> upserted = ids(delta.get("upserted"));
+        assertTrue(upserted.contains(shrunk.getId()));
+        assertTrue(upserted.contains(patched.getId()));
+        assertEquals(List.of(emptied.getId()), longs(delta.get("deleted")));
+        JsonNode order = delta.get("upserted").get(upserted.indexOf(patched.getId()));
+        assertEquals(1, order.get("products").size());
+        assertEquals(second.getId(), order.get("products").get(0).get("id").asLong());
+    }
+
+    @Test
+    void testOrderChangesIncludeOrdersOfDeletedUser() throws Exception {
+        User user = shopService.saveUser(new User("gone-" + System.nanoTime()));
+        Product product = save("Owned " + System.nanoTime(), 1.0);
+        Order first = shopService.saveOrder(new Order(user, new ArrayList<>(List.of(product))));
+        Order second = shopService.saveOrder(new Order(user, new ArrayList<>(List.of(product))));
+        String token = changes("/api/orders/changes").get("token").asText();
+
+        shopService.deleteUser(user.getId());
+
+        JsonNode delta = changes("/api/orders/changes?since=" + token);
+        assertEquals(0, delta.get("upserted").size());
+        assertEquals(List.of(first.getId(), second.getId()),
+            longs(delta.get("deleted")).stream().sorted().toList());
+    }
+
+    @Test
+    void testLongTransactionIsReadAfterChangesCommittedBeforeIt() throws Exception {
+        long token = changeLog.read(
+            Feed.PRODUCTS, changeLog.head(Feed.PRODUCTS), Integer.MAX_VALUE).token();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                changeLog.productsSaved(List.of(-1L));
+                recorded.countDown();
+                await(release);
+            }));
+        assertTrue(recorded.await(10, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status -> changeLog.productsSaved(List.of(-2L)));
+
+        ChangeLog.Page early = changeLog.read(Feed.PRODUCTS, token, 100);
+        assertEquals(List.of(new ChangeLog.Change(-2L, false)), early.changes());
+        assertEquals(token + 1, early.token());
+
+        // Долгая транзакция коммитится позже: её строка идёт после уже прочитанного токена
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        ChangeLog.Page late = changeLog.read(Feed.PRODUCTS, early.token(), 100);
+        assertEquals(List.of(new ChangeLog.Change(-1L, false)), late.changes());
+        assertEquals(token + 2, late.token());
+    }
+
+    @Test
+    void testExpiredTokenIsGone() throws Exception {
+        // seq выдаёт только ChangeLog: строки пишутся им и состариваются отдельно
+        changeLog.ordersSaved(List.of(-100L, -101L, -102L));
+        jdbcTemplate.update("UPDATE order_changes SET changed_at = ? WHERE entity_id IN "
+            + "(-100, -101, -102)", Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+        long horizon = jdbcTemplate.queryForObject(
+            "SELECT MAX(seq) FROM order_changes", Long.class);
+        assertTrue(changeLog.prune(Feed.ORDERS) >= 2);
+
+        mockMvc.perform(get("/api/orders/changes?since=" + (horizon - 2)))
+            .andExpect(status().isGone());
+        mockMvc.perform(get("/api/orders/changes?since=" + (horizon - 1)))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/changes?since=not-a-token"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode changes(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Product save(String name, double price) {
+        Product product = new Product(name, price);
+        product.setCategories(new ArrayList<>());
+        return shopService.saveProduct(product);
+    }
+
+    private static List<Long> ids(JsonNode entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(e -> ids.add(e.get("id").asLong()));
+        return ids;
+    }
+
+    private static List<Long> longs(JsonNode values) {
+        List<Long> longs = new ArrayList<>();
+        values.forEach(v -> longs.add(v.asLong()));
+        return longs;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
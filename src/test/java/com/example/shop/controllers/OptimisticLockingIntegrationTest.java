@@ -0,0 +1,153 @@
+package com.example.shop.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import com.example.shop.services.ShopService.ProductPatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OptimisticLockingIntegrationTest {
+
+    private static final int THREADS = 4;
+    private static final int INCREMENTS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Test
+    void testPatchProductChecksVersion() throws Exception {
+        Product product = save("Patched " + System.nanoTime(), 10.0);
+
+        mockMvc.perform(patch("/api/products/" + product.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"price\": 12.5}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(jsonPath("$.price").value(12.5))
+            .andExpect(jsonPath("$.name").value(product.getName()));
+
+        mockMvc.perform(patch("/api/products/" + product.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"name\": \"Lost update\"}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.current.version").value(1))
+            .andExpect(jsonPath("$.current.name").value(product.getName()))
+            .andExpect(jsonPath("$.current.price").value(12.5));
+
+        mockMvc.perform(patch("/api/products/" + product.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 13}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"price\": 13}"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testPatchOrderChecksVersion() throws Exception {
+        User user = shopService.saveUser(new User("patch-" + System.nanoTime()));
+        Product first = save("First " + System.nanoTime(), 1.0);
+        Product second = save("Second " + System.nanoTime(), 2.0);
+        Order order = shopService.saveOrder(new Order(user, List.of(first)));
+
+        mockMvc.perform(patch("/api/orders/" + order.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"productIds\": [" + second.getId() + "]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(jsonPath("$.products[0].id").value(second.getId()));
+
+        mockMvc.perform(patch("/api/orders/" + order.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"productIds\": [" + first.getId() + "]}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.current.version").value(1))
+            .andExpect(jsonPath("$.current.products[0].id").value(second.getId()));
+    }
+
+    @Test
+    void testPatchWithStaleVersionFails() {
+        Product product = save("Stale " + System.nanoTime(), 10.0);
+        shopService.patchProduct(product.getId(), new ProductPatch(0L, null, 11.0, null));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> shopService.patchProduct(
+            product.getId(), new ProductPatch(0L, null, 12.0, null)));
+    }
+
+    /**
+     * Price-sync style contention: every thread reads the product and writes price + 1 with the
+     * version it read, retrying on conflict. No increment may be lost.
+     */
+    @Test
+    void testOptimisticPatchKeepsEveryIncrementUnderContention() throws Exception {
+        Product product = save("Contended " + System.nanoTime(), 100.0);
+        runConcurrently(() -> {
+            while (true) {
+                Product current = shopService.getProductById(product.getId()).orElseThrow();
+                try {
+                    shopService.patchProduct(product.getId(), new ProductPatch(
+                        current.getVersion(), null, current.getPrice() + 1, null));
+                    return;
+                } catch (OptimisticLockingFailureException e) {
+                    // Прочитанная версия устарела: читаем заново
+                }
+            }
+        });
+        Product patched = shopService.getProductById(product.getId()).orElseThrow();
+
+        int writes = THREADS * INCREMENTS;
+        assertEquals(100.0 + writes, patched.getPrice());
+        assertEquals(writes, patched.getVersion());
+    }
+
+    private void runConcurrently(Runnable increment) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        increment.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private Product save(String name, double price) {
+        Product product = new Product(name, price);
+        product.setCategories(List.of());
+        return shopService.saveProduct(product);
+    }
+}
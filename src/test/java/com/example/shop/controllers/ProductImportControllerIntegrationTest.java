@@ -0,0 +1,194 @@
+package com.example.shop.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.models.Category;
+import com.example.shop.services.ProductImportService;
+import com.example.shop.services.ProductImportService.ImportProgress;
+import com.example.shop.services.ShopService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "shop.products.import.chunk-size=3",
+    "shop.products.import.retention=2s"})
+@AutoConfigureMockMvc
+class ProductImportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testImportsValidElementsInChunksAndReportsRejected() throws Exception {
+        String prefix = "import-" + System.nanoTime() + "-";
+        Category category = shopService.saveCategory(new Category(prefix + "category"));
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            if (i == 4) {
+                body.append("{\"name\":\"\",\"price\":1}");
+            } else if (i == 7) {
+                body.append("{\"name\":\"").append(prefix).append(i)
+                    .append("\",\"price\":1,\"categories\":[{\"id\":-1}]}");
+            } else {
+                body.append("{\"name\":\"").append(prefix).append(i).append("\",\"price\":")
+                    .append(i + 1).append(",\"categories\":[{\"id\":")
+                    .append(category.getId()).append("}]}");
+            }
+        }
+        body.append(']');
+
+        ImportProgress progress = runImport(body.toString());
+
+        assertEquals("DONE", progress.status());
+        assertEquals(10, progress.processed());
+        assertEquals(8, progress.imported());
+        assertEquals(2, progress.rejected());
+        assertEquals(100, progress.percent());
+        assertEquals(4, progress.errors().get(0).index());
+        assertEquals(7, progress.errors().get(1).index());
+        assertEquals("Category not found with id: -1", progress.errors().get(1).error());
+        assertEquals(8, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM products WHERE name LIKE ?", Long.class, prefix + "%"));
+        assertEquals(8, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM product_category WHERE category_id = ?", Long.class,
+            category.getId()));
+    }
+
+    @Test
+    void testMalformedJsonKeepsCommittedChunks() throws Exception {
+        String prefix = "broken-" + System.nanoTime() + "-";
+        String body = "[{\"name\":\"" + prefix + "0\",\"price\":1},"
+            + "{\"name\":\"" + prefix + "1\",\"price\":1},"
+            + "{\"name\":\"" + prefix + "2\",\"price\":1},"
+            + "{\"name\":\"" + prefix + "3\",\"price\":";
+
+        ImportProgress progress = runImport(body);
+
+        assertEquals("ERROR", progress.status());
+        assertEquals(3, progress.imported());
+        assertTrue(progress.failure().startsWith("Некорректный JSON после элемента 3"));
+    }
+
+    @Test
+    void testChunkWithoutValidElementsWritesNoEvents() throws Exception {
+        long outboxBefore = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events", Long.class);
+
+        ImportProgress progress = runImport("[{\"name\":\"\",\"price\":1},"
+            + "{\"name\":\"\",\"price\":2}]");
+
+        assertEquals("DONE", progress.status());
+        assertEquals(2, progress.rejected());
+        assertEquals(outboxBefore, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events", Long.class));
+    }
+
+    @Test
+    void testFinishedJobIsDroppedAfterRetention() throws Exception {
+        String started = mockMvc.perform(post("/api/products/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\":\"retained-" + System.nanoTime() + "\",\"price\":1}]"))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(started).get("jobId").asText();
+
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int status = mockMvc.perform(get("/api/products/import/{id}", jobId))
+                .andReturn().getResponse().getStatus();
+            if (status == 404) {
+                return;
+            }
+            assertEquals(200, status);
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Завершённая задача не удалена");
+    }
+
+    @Test
+    void testBrokenUploadLeavesNoTemporaryFile() throws Exception {
+        List<Path> before = importFiles();
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("соединение разорвано");
+            }
+        };
+
+        assertThrows(IOException.class, () -> importService.enqueue(broken));
+
+        List<Path> left = new ArrayList<>(importFiles());
+        left.removeAll(before);
+        assertEquals(List.of(), left);
+    }
+
+    @Test
+    void testUnknownJobIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/products/import/{id}", "missing"))
+            .andExpect(status().isNotFound());
+    }
+
+    private static List<Path> importFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files
+                .filter(f -> f.getFileName().toString().startsWith("product-import-"))
+                .toList();
+        }
+    }
+
+    private ImportProgress runImport(String body) throws Exception {
+        String started = mockMvc.perform(post("/api/products/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(started).get("jobId").asText();
+
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String json = mockMvc.perform(get("/api/products/import/{id}", jobId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            JsonNode node = objectMapper.readTree(json);
+            String status = node.get("status").asText();
+            if ("DONE".equals(status) || "ERROR".equals(status)) {
+                return objectMapper.treeToValue(node, ImportProgress.class);
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Импорт не завершился");
+    }
+}
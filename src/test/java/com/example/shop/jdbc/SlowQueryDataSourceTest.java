@@ -0,0 +1,132 @@
+package com.example.shop.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.config.PoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SlowQueryDataSourceTest {
+
+    private QueryStatistics statistics;
+    private SlowQueryDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        PoolProperties properties = new PoolProperties();
+        properties.setSlowQueryThreshold(Duration.ofMillis(50));
+        properties.setMaxTrackedQueries(3);
+        statistics = new QueryStatistics(properties);
+        dataSource = new SlowQueryDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:slowq;DB_CLOSE_DELAY=-1", "sa", ""),
+            statistics);
+    }
+
+    @Test
+    void testCountsPreparedAndPlainStatements() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS t (id INT)");
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement insert =
+                         connection.prepareStatement("INSERT INTO t VALUES (?)")) {
+                    insert.setInt(1, i);
+                    insert.executeUpdate();
+                }
+            }
+        }
+
+        QueryStatistics.QueryStat insert = find("INSERT INTO t VALUES (?)");
+        assertEquals(3, insert.count());
+        assertEquals(0, insert.errors());
+        assertEquals(1, find("CREATE TABLE IF NOT EXISTS t (id INT)").count());
+    }
+
+    @Test
+    void testRecordsFailuresAndSlowQueries() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeQuery("SELECT * FROM nope"));
+        }
+        statistics.record("SELECT SLEEP", Duration.ofMillis(80).toNanos(), false);
+
+        assertEquals(1, find("SELECT * FROM nope").errors());
+        assertEquals(1, find("SELECT SLEEP").slow());
+    }
+
+    @Test
+    void testDistinctStatementsAreBounded() {
+        for (int i = 0; i < 10; i++) {
+            statistics.record("SELECT " + i, 1_000, false);
+        }
+
+        List<QueryStatistics.QueryStat> top = statistics.top(100);
+        assertEquals(4, top.size());
+        assertEquals(7, find(QueryStatistics.OTHER).count());
+    }
+
+    @Test
+    void testBoundHoldsUnderConcurrentInserts() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String sql = "SELECT " + i;
+            executor.execute(() -> statistics.record(sql, 1_000, false));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<QueryStatistics.QueryStat> top = statistics.top(2000);
+        assertEquals(4, top.size());
+        assertEquals(1000, top.stream().mapToLong(QueryStatistics.QueryStat::count).sum());
+    }
+
+    @Test
+    void testCloseClosesWrappedPool() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:slowq-close");
+        SlowQueryDataSource wrapped = new SlowQueryDataSource(pool, statistics);
+        try (Connection connection = wrapped.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+        wrapped.close();
+        assertTrue(pool.isClosed());
+        assertFalse(pool.isRunning());
+    }
+
+    @Test
+    void testPoolSizeDerivedFromCoresAndIoWait() {
+        PoolProperties properties = new PoolProperties();
+        properties.setCores(4);
+        properties.setIoWaitRatio(4);
+        assertEquals(20, properties.resolvePoolSize());
+
+        properties.setMaxSize(10);
+        assertEquals(10, properties.resolvePoolSize());
+
+        properties.setMaximumPoolSize(7);
+        assertEquals(7, properties.resolvePoolSize());
+        assertTrue(properties.getMinSize() <= properties.getMaxSize());
+    }
+
+    private QueryStatistics.QueryStat find(String sql) {
+        return statistics.top(100).stream()
+            .filter(s -> s.sql().equals(sql))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.shop.logs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class LogArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 13);
+
+    @TempDir
+    Path dir;
+
+    private LogArchives logArchives;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logArchives = new LogArchives(dir.resolve("app.log").toString());
+        lines = new ArrayList<>();
+        for (int i = 0; i < 24 * 360; i++) {
+            LocalDateTime time = DAY.atStartOfDay().plusSeconds(i * 10L);
+            lines.add(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                + ".000Z  INFO 1 --- [main] c.e.shop.services.ShopService : вызов " + i);
+            if (i % 100 == 0) {
+                lines.add("\tat com.example.shop.services.ShopService.call(ShopService.java:1)");
+            }
+        }
+    }
+
+    @Test
+    void testCompactKeepsContentAndReadsOnlyCoveringFrames() throws IOException {
+        Path archive = writeArchive(DAY, 0, lines);
+        byte[] original = decompress(archive);
+
+        int frames = LogArchive.compact(archive, 16 * 1024);
+
+        assertTrue(frames > 20, "frames: " + frames);
+        assertTrue(LogArchive.isIndexed(archive));
+        assertArrayEquals(original, decompress(archive));
+
+        LogRange hour = LogRange.of("2025-05-13T10:00", "2025-05-13T11:00");
+        List<String> read = new ArrayList<>();
+        LogArchive.read(archive, hour, read::add);
+        assertEquals(360, read.size());
+        assertEquals(lines.stream()
+            .filter(line -> {
+                LocalDateTime time = LogRange.timestampOf(line);
+                return time != null && hour.contains(time);
+            })
+            .toList(), read);
+
+        int covering = LogArchive.covering(LogArchive.readIndex(archive), hour).size();
+        assertTrue(covering <= 3, "covering frames: " + covering + " of " + frames);
+    }
+
+    @Test
+    void testChangedArchiveIsReadWhole() throws IOException {
+        Path archive = writeArchive(DAY, 0, lines);
+        LogArchive.compact(archive, 16 * 1024);
+        writeArchive(DAY, 0, lines.subList(0, 100));
+
+        assertFalse(LogArchive.isIndexed(archive));
+        List<String> read = new ArrayList<>();
+        LogArchive.read(archive, LogRange.ofDays(DAY, DAY), read::add);
+        assertEquals(99, read.size());
+    }
+
+    @Test
+    void testArchivesAndCurrentLogReadInOrder() throws IOException {
+        writeArchive(DAY, 0, lines.subList(0, 10));
+        writeArchive(DAY.minusDays(1), 0, List.of(DAY.minusDays(1) + "T23:59:59.000Z old"));
+        Files.writeString(dir.resolve("app.log"), DAY.plusDays(1) + "T00:00:01.000Z new\n");
+
+        List<String> read = new ArrayList<>();
+        logArchives.read(LogRange.ofDays(DAY.minusDays(1), DAY.plusDays(1)), read::add);
+
+        assertEquals(11, read.size());
+        assertTrue(read.get(0).endsWith("old"));
+        assertTrue(read.get(read.size() - 1).endsWith("new"));
+
+        read.clear();
+        logArchives.read(LogRange.ofDays(DAY.plusDays(1), DAY.plusDays(1)), read::add);
+        assertEquals(1, read.size());
+    }
+
+    @Test
+    void testCompactorIndexesArchivesAndEnforcesRetention() throws IOException {
+        for (int day = 0; day < 4; day++) {
+            writeArchive(DAY.plusDays(day), 0, lines);
+        }
+        long archiveSize = Files.size(logArchives.archives().get(0));
+        LogArchiveCompactor compactor = new LogArchiveCompactor(logArchives,
+            DataSize.ofKilobytes(64), Duration.ZERO, DataSize.ofBytes(archiveSize * 5 / 2));
+
+        assertEquals(4, compactor.compactPending());
+        assertEquals(0, compactor.compactPending());
+        assertTrue(compactor.enforceRetention() >= 2);
+
+        List<Path> left = logArchives.archives();
+        assertFalse(left.isEmpty());
+        assertEquals(dir.resolve("app.log." + DAY.plusDays(3) + ".0.gz"),
+            left.get(left.size() - 1));
+        try (var files = Files.list(dir)) {
+            assertEquals(left.size() * 2, files.count(), "archives and their indexes only");
+        }
+    }
+
+    private Path writeArchive(LocalDate day, int index, List<String> content) throws IOException {
+        Path archive = dir.resolve("app.log." + day + "." + index + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            for (String line : content) {
+                out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return archive;
+    }
+
+    private static byte[] decompress(Path archive) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            return in.readAllBytes();
+        }
+    }
+}
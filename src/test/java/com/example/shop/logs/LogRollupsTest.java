@@ -0,0 +1,187 @@
+package com.example.shop.logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+class LogRollupsTest {
+
+    private static final LocalDateTime START =
+        LocalDate.now().minusDays(1).atTime(10, 0);
+    private static final String HANDLER = "c.e.s.exceptions.GlobalExceptionHandler";
+    private static final String SERVICE = "c.e.shop.services.ShopService";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testCountsArchivesAndCurrentLogPerMinute() throws IOException {
+        // 10:00–10:59 в архиве, 11:00–11:29 в текущем логе; ERROR обработчика каждую 3-ю минуту
+        writeArchive(lines(0, 60));
+        append(lines(60, 90));
+        LogRollups rollups = rollups();
+        rollups.catchUp();
+
+        LogHistogram errors = rollups.histogram(range(0, 90), Duration.ofMinutes(1),
+            Level.ERROR, "GlobalExceptionHandler");
+        assertEquals(90, errors.buckets().size());
+        assertEquals(30, errors.total());
+        assertEquals(1, errors.buckets().get(0).count());
+        assertEquals(0, errors.buckets().get(1).count());
+        assertEquals(List.of(HANDLER), List.copyOf(errors.byLogger().keySet()));
+
+        LogHistogram hourly = rollups.histogram(range(0, 90), Duration.ofHours(1), null, null);
+        assertEquals(2, hourly.buckets().size());
+        assertEquals(60 * 4 + 20, hourly.buckets().get(0).count());
+        assertEquals(30 * 4 + 10, hourly.buckets().get(1).count());
+        assertEquals(List.of("INFO", "WARN", "ERROR"), List.copyOf(hourly.byLevel().keySet()));
+
+        assertEquals(90, rollups.histogram(range(0, 90), Duration.ofMinutes(1), Level.WARN,
+            null).byLevel().get("WARN"));
+        assertThrows(IllegalArgumentException.class,
+            () -> rollups.histogram(range(0, 90), Duration.ofSeconds(30), null, null));
+    }
+
+    @Test
+    void testRestartLoadsStoredMinutesWithoutCountingThemTwice() throws IOException {
+        append(lines(0, 30));
+        LogRollups first = rollups();
+        first.catchUp();
+        append(lines(30, 40));
+        first.poll();
+        long before = first.histogram(range(0, 40), Duration.ofHours(1), null, null).total();
+        assertEquals(40 * 4 + 14, before);
+        assertTrue(Files.exists(dir.resolve("rollups").resolve(START.toLocalDate() + ".bin")));
+
+        append(lines(40, 50));
+        LogRollups second = rollups();
+        second.catchUp();
+
+        LogHistogram all = second.histogram(range(0, 50), Duration.ofMinutes(10), null, null);
+        assertEquals(50 * 4 + 17, all.total());
+        List<Long> perTen = new ArrayList<>();
+        all.buckets().forEach(bucket -> perTen.add(bucket.count()));
+        assertEquals(List.of(44L, 43L, 43L, 44L, 43L), perTen);
+        assertEquals(START.plusMinutes(50), all.countedUpTo());
+    }
+
+    @Test
+    void testArchiveRotatedDuringCatchUpIsNotCountedTwice() throws IOException {
+        // В архиве уже есть начало текущего лога: его ротировали, пока просматривались архивы
+        writeArchive(concat(lines(0, 60), lines(60, 70)));
+        append(lines(60, 90));
+        LogRollups rollups = rollups();
+        rollups.catchUp();
+
+        assertEquals(90 * 4 + 30, rollups.histogram(range(0, 90), Duration.ofHours(1), null,
+            null).total());
+    }
+
+    @Test
+    void testLagGaugeFollowsCountedMinutes() throws IOException {
+        append(lines(0, 30));
+        LogRollups rollups = rollups();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        rollups.bindTo(registry);
+        assertTrue(Double.isNaN(registry.get("shop.logs.rollups.lag").gauge().value()));
+
+        rollups.catchUp();
+
+        double expected = Duration.between(START.plusMinutes(30), LocalDateTime.now())
+            .toSeconds();
+        assertEquals(expected, registry.get("shop.logs.rollups.lag").gauge().value(), 5);
+    }
+
+    @Test
+    void testFailedReadIsRetried() throws Exception {
+        append(lines(0, 30));
+        // Каталог свёрток занят файлом: запись не удаётся, пока его не уберут
+        Path blocked = Files.createFile(dir.resolve("blocked"));
+        LogRollups rollups = new LogRollups(new LogArchives(dir.resolve("app.log").toString()),
+            true, blocked.toString(), Duration.ofDays(7), Duration.ofMillis(100));
+        rollups.start();
+        try {
+            TimeUnit.MILLISECONDS.sleep(300);
+            Files.delete(blocked);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!Files.isDirectory(blocked) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+            assertTrue(Files.isDirectory(blocked));
+            assertEquals(30 * 4 + 10, rollups.histogram(range(0, 30), Duration.ofHours(1), null,
+                null).total());
+        } finally {
+            rollups.stop();
+        }
+    }
+
+    private LogRollups rollups() {
+        return new LogRollups(new LogArchives(dir.resolve("app.log").toString()), false, "",
+            Duration.ofDays(7), Duration.ofSeconds(1));
+    }
+
+    private static LogRange range(int fromMinute, int toMinute) {
+        return new LogRange(START.plusMinutes(fromMinute), START.plusMinutes(toMinute));
+    }
+
+    /** 4 lines a minute (3 INFO, 1 WARN) plus an ERROR with a stack trace every 3rd minute. */
+    private static List<String> lines(int fromMinute, int toMinute) {
+        List<String> lines = new ArrayList<>();
+        for (int minute = fromMinute; minute < toMinute; minute++) {
+            LocalDateTime time = START.plusMinutes(minute);
+            for (int i = 0; i < 3; i++) {
+                lines.add(line(time.plusSeconds(i * 10), "INFO", SERVICE, "вызов " + i));
+            }
+            lines.add(line(time.plusSeconds(40), "WARN", SERVICE, "медленно"));
+            if (minute % 3 == 0) {
+                lines.add(line(time.plusSeconds(50), "ERROR", HANDLER, "сбой"));
+                lines.add("\tat com.example.shop.services.ShopService.call(ShopService.java:1)");
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static String line(LocalDateTime time, String level, String logger, String text) {
+        return time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + ".000Z "
+            + String.format("%5s", level) + " 1 --- [main] " + String.format("%-40s", logger)
+            + " : " + text;
+    }
+
+    private void writeArchive(List<String> lines) throws IOException {
+        Path archive = dir.resolve("app.log." + START.toLocalDate() + ".0.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            out.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void append(List<String> lines) throws IOException {
+        Files.writeString(dir.resolve("app.log"), String.join("\n", lines) + "\n",
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
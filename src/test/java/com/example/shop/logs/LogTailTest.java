@@ -0,0 +1,156 @@
+package com.example.shop.logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.logs.LogTail.Filter;
+import com.example.shop.logs.LogTail.Subscription;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+
+class LogTailTest {
+
+    @TempDir
+    Path dir;
+
+    private Path log;
+    private LogTail logTail;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        log = dir.resolve("app.log");
+        append(line("INFO", "до подписки"));
+        logTail = new LogTail(new LogArchives(log.toString()), Duration.ofMillis(10), 200, 2,
+            Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        logTail.stop();
+    }
+
+    @Test
+    void testFiltersNewLinesAndKeepsStackTracesWithTheirLine() throws Exception {
+        List<String> received = new ArrayList<>();
+        logTail.subscribe(new Filter(Level.WARN, "GlobalExceptionHandler", null),
+            (lines, skipped) -> {
+                synchronized (received) {
+                    received.addAll(lines);
+                }
+            });
+        append(line("INFO", "запрос"),
+            line("ERROR", "сбой"),
+            "java.lang.IllegalStateException: сбой",
+            "\tat com.example.shop.services.ShopService.call(ShopService.java:1)",
+            line("INFO", "после сбоя"),
+            "\tat com.example.shop.services.ShopService.other(ShopService.java:2)",
+            line("WARN", "предупреждение"));
+
+        awaitTrue(() -> size(received) == 4);
+        Thread.sleep(50);
+        synchronized (received) {
+            assertEquals(4, received.size(), received.toString());
+            assertTrue(received.get(0).endsWith("сбой"));
+            assertTrue(received.get(1).startsWith("java.lang.IllegalStateException"));
+            assertTrue(received.get(3).endsWith("предупреждение"));
+        }
+    }
+
+    @Test
+    void testFollowsRotation() throws Exception {
+        List<String> received = new ArrayList<>();
+        logTail.subscribe(new Filter(null, null, null), (lines, skipped) -> {
+            synchronized (received) {
+                received.addAll(lines);
+            }
+        });
+        append(line("INFO", "старый файл"));
+        awaitTrue(() -> size(received) == 1);
+
+        Files.move(log, dir.resolve("app.log.2025-05-13.0"));
+        append(line("INFO", "новый файл"));
+
+        awaitTrue(() -> size(received) == 2);
+        synchronized (received) {
+            assertTrue(received.get(1).endsWith("новый файл"));
+        }
+    }
+
+    @Test
+    void testSlowSubscriberSkipsLinesWithoutHoldingBackOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong slowLines = new AtomicLong();
+        AtomicLong slowSkipped = new AtomicLong();
+        Subscription slow = logTail.subscribe(new Filter(null, null, null), (lines, skipped) -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowLines.addAndGet(lines.size());
+            slowSkipped.addAndGet(skipped);
+        });
+        AtomicLong fastLines = new AtomicLong();
+        logTail.subscribe(new Filter(null, null, null),
+            (lines, skipped) -> fastLines.addAndGet(lines.size()));
+        assertNull(logTail.subscribe(new Filter(null, null, null), (lines, skipped) -> { }));
+        assertNotNull(slow);
+
+        for (int burst = 1; burst <= 5; burst++) {
+            String[] lines = new String[100];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = line("INFO", "строка " + burst + "." + i);
+            }
+            append(lines);
+            long expected = burst * 100L;
+            awaitTrue(() -> fastLines.get() == expected);
+        }
+        release.countDown();
+
+        awaitTrue(() -> slowLines.get() + slowSkipped.get() == 500);
+        assertTrue(slowLines.get() <= 400, "slow subscriber lines: " + slowLines.get());
+
+        slow.close();
+        assertEquals(1, logTail.getSubscriberCount());
+    }
+
+    private static String line(String level, String message) {
+        return "2025-05-13T10:00:00.000Z " + String.format("%5s", level)
+            + " 1 --- [main] c.e.shop.exceptions.GlobalExceptionHandler : " + message;
+    }
+
+    private void append(String... lines) throws IOException {
+        Files.writeString(log, String.join("\n", lines) + "\n",
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static int size(List<String> list) {
+        synchronized (list) {
+            return list.size();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
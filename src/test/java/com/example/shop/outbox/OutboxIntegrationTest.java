@@ -0,0 +1,199 @@
+package com.example.shop.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.catalog.CatalogSnapshots;
+import com.example.shop.events.CatalogChangedEvent;
+import com.example.shop.events.OrdersChangedEvent;
+import com.example.shop.events.OrdersChangedEvent.OrderDelta;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class OutboxIntegrationTest {
+
+    private static final long SLOW_LISTENER_MILLIS = 500;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        listener.delayMillis = 0;
+        listener.failures.set(0);
+    }
+
+    @Test
+    void testWritesDoNotWaitForListeners() {
+        User user = shopService.saveUser(new User("outbox-" + System.nanoTime()));
+        Product product = save("Outboxed " + System.nanoTime());
+        listener.delayMillis = SLOW_LISTENER_MILLIS;
+
+        long started = System.nanoTime();
+        shopService.saveOrder(new Order(user, List.of(product)));
+        long writeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        outboxDispatcher.dispatch();
+
+        assertTrue(writeMillis < SLOW_LISTENER_MILLIS, "запись ждала подписчика: " + writeMillis);
+        assertTrue(delivered(user.getId()));
+    }
+
+    @Test
+    void testCallerCanWaitForItsEvent() {
+        User user = shopService.saveUser(new User("awaited-" + System.nanoTime()));
+        OrderDelta placed = new OrderDelta(user.getId(), null, 1, List.of(), 0);
+
+        long id = outbox.append(OrdersChangedEvent.of(List.of(placed)));
+
+        assertTrue(outboxDispatcher.awaitDelivered(id, Duration.ofSeconds(5)));
+        assertTrue(delivered(user.getId()));
+    }
+
+    @Test
+    void testRolledBackWriteLeavesNoEvent() {
+        outboxDispatcher.dispatch();
+        long before = rows();
+        long version = catalogSnapshots.current().version();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            save("Rolled back " + System.nanoTime());
+            status.setRollbackOnly();
+        });
+        outboxDispatcher.dispatch();
+
+        assertEquals(before, rows());
+        assertEquals(version, catalogSnapshots.current().version());
+    }
+
+    @Test
+    void testFailedDeliveryIsRetried() {
+        User user = shopService.saveUser(new User("retry-" + System.nanoTime()));
+        Product product = save("Retried " + System.nanoTime());
+        listener.failures.set(1);
+
+        shopService.saveOrder(new Order(user, List.of(product)));
+        outboxDispatcher.dispatch();
+        outboxDispatcher.dispatch();
+
+        assertEquals(0, listener.failures.get());
+        assertTrue(delivered(user.getId()));
+    }
+
+    @Test
+    void testBatchIsCoalescedPerEventType() {
+        OrderDelta first = new OrderDelta(1, null, 1, List.of(), 0);
+        OrderDelta second = new OrderDelta(2, null, -1, List.of(), 0);
+
+        List<Object> merged = OutboxDispatcher.coalesce(List.of(
+            CatalogChangedEvent.productsSaved(List.of(1L, 2L)),
+            OrdersChangedEvent.of(List.of(first)),
+            CatalogChangedEvent.productDeleted(3L),
+            CatalogChangedEvent.categoryChanged(4L),
+            OrdersChangedEvent.of(List.of(second))));
+
+        assertEquals(List.of(
+            new CatalogChangedEvent(Set.of(1L, 2L), Set.of(3L), Set.of(4L)),
+            new OrdersChangedEvent(List.of(first, second))), merged);
+    }
+
+    @Test
+    void testPruneDeletesOnlyOldDeliveredRows() {
+        jdbcTemplate.update("INSERT INTO outbox_events (event_type, payload, created_at) "
+                + "VALUES ('CatalogChanged', ?, ?)",
+            "{\"savedProducts\":[],\"deletedProducts\":[],\"changedCategories\":[]}",
+            Timestamp.valueOf(LocalDateTime.now().minusDays(2)));
+        Long old = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+        save("Fresh " + System.nanoTime());
+
+        outboxDispatcher.dispatch();
+        assertTrue(outboxDispatcher.prune() >= 1);
+
+        assertFalse(exists(old));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events WHERE id > ?", Long.class, old));
+    }
+
+    private Product save(String name) {
+        Product product = new Product(name, 10.0);
+        product.setCategories(List.of());
+        return shopService.saveProduct(product);
+    }
+
+    private boolean delivered(long userId) {
+        return listener.events.stream().flatMap(e -> e.deltas().stream())
+            .anyMatch(d -> d.userId() == userId && d.orders() == 1);
+    }
+
+    private long rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class);
+    }
+
+    private boolean exists(long id) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_events WHERE id = ?", Long.class, id) > 0;
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+
+        final List<OrdersChangedEvent> events = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        volatile long delayMillis;
+
+        @EventListener
+        public void onOrdersChanged(OrdersChangedEvent event) throws InterruptedException {
+            if (failures.getAndUpdate(f -> Math.max(f - 1, 0)) > 0) {
+                throw new IllegalStateException("Сбой подписчика");
+            }
+            Thread.sleep(delayMillis);
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.shop.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "shop.reactive.batch-size=2")
+class ReactiveOrderLookupIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    @Qualifier("orderCache")
+    private Cache<String, List<Order>> orderCache;
+
+    @Autowired
+    @Qualifier("orderByUserNameCache")
+    private Cache<String, List<Order>> orderByUserNameCache;
+
+    @Test
+    void testByProductMatchesServletEndpointAndSharesCache() throws Exception {
+        String suffix = Long.toString(System.nanoTime());
+        Category category = shopService.saveCategory(new Category("Cat " + suffix));
+        Product wanted = save("Wanted " + suffix, 10.0, List.of(category));
+        Product other = save("Other " + suffix, 5.0, List.of());
+        User user = shopService.saveUser(new User("reactive-" + suffix));
+        for (int i = 0; i < 5; i++) {
+            shopService.saveOrder(new Order(user, new ArrayList<>(List.of(wanted, other))));
+        }
+        shopService.saveOrder(new Order(user, new ArrayList<>(List.of(other))));
+        String query = "/api/orders/by-product?productName=" + wanted.getName();
+
+        orderCache.invalidateAll();
+        JsonNode reactive = json("/reactive" + query, MediaType.APPLICATION_JSON);
+        assertEquals(5, reactive.size());
+        assertEquals(2, reactive.get(0).get("products").size());
+        assertEquals(15.0, reactive.get(0).get("totalPrice").asDouble());
+        assertNull(orderCache.getIfPresent(wanted.getName()));
+
+        assertEquals(json(query, MediaType.APPLICATION_JSON), reactive);
+        // Теперь в кэше результат сервлетного пути
+        assertEquals(reactive, json("/reactive" + query, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testCorsRulesMatchServletEndpoints() {
+        for (String prefix : List.of("", "/reactive")) {
+            webTestClient.options().uri(prefix + "/api/orders/by-username?userName=x")
+                .header("Origin", "http://localhost:3000")
+                .header("Access-Control-Request-Method", "DELETE")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Access-Control-Allow-Origin", "http://localhost:3000");
+            webTestClient.options().uri(prefix + "/api/orders/by-username?userName=x")
+                .header("Origin", "http://evil.example")
+                .header("Access-Control-Request-Method", "GET")
+                .exchange()
+                .expectStatus().isForbidden();
+        }
+    }
+
+    @Test
+    void testByUserNameStreamsAllPagesAsNdjson() {
+        String suffix = Long.toString(System.nanoTime());
+        Product product = save("Streamed " + suffix, 1.0, List.of());
+        User user = shopService.saveUser(new User("ndjson-" + suffix));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(shopService.saveOrder(
+                new Order(user, new ArrayList<>(List.of(product)))).getId());
+        }
+        orderByUserNameCache.invalidateAll();
+
+        String body = webTestClient.get()
+            .uri("/reactive/api/orders/by-username?userName=" + user.getName())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class).returnResult().getResponseBody();
+        assertNotNull(body);
+        List<Long> streamed = body.lines()
+            .map(line -> read(line).get("id").asLong())
+            .toList();
+        assertEquals(ids, streamed);
+        assertNull(orderByUserNameCache.getIfPresent(user.getName()));
+    }
+
+    @Test
+    void testMissingParameterIsBadRequestAndUnknownKeyIsEmpty() throws Exception {
+        webTestClient.get().uri("/reactive/api/orders/by-product")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.status").isEqualTo(400);
+        JsonNode empty = json("/reactive/api/orders/by-username?userName=nobody-"
+            + System.nanoTime(), MediaType.APPLICATION_JSON);
+        assertTrue(empty.isArray());
+        assertEquals(0, empty.size());
+    }
+
+    private Product save(String name, double price, List<Category> categories) {
+        Product product = new Product(name, price);
+        product.setCategories(new ArrayList<>(categories));
+        return shopService.saveProduct(product);
+    }
+
+    private JsonNode json(String uri, MediaType accept) {
+        String body = webTestClient.get().uri(uri)
+            .accept(accept)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+        return read(body);
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.shop.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Checks the Flyway baseline against the production dump {@code shop_db_2025-04-02_034221.sql}:
+ * V1 must create exactly the dumped schema, and a database restored from the dump and baselined
+ * at version 1 must migrate to the current one.
+ */
+class DumpSchemaMigrationTest {
+
+    private static final Path DUMP = Path.of("shop_db_2025-04-02_034221.sql");
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+        "CREATE TABLE `(\\w+)` \\((.*?)\\n\\)[^;]*;", Pattern.DOTALL);
+    // Таблицы дампа идут по алфавиту, внешние ключи требуют порядка создания
+    private static final List<String> TABLES =
+        List.of("users", "categories", "products", "orders", "product_category");
+
+    @Test
+    void testBaselineMatchesDump() throws IOException {
+        JdbcTemplate dump = restoreDump("dump_schema");
+        JdbcTemplate baseline = database("baseline_schema");
+        flyway(baseline.getDataSource()).target("1").load().migrate();
+
+        assertEquals(columns(dump), columns(baseline));
+    }
+
+    @Test
+    void testDumpedDatabaseMigratesToCurrentSchema() throws IOException {
+        JdbcTemplate db = restoreDump("dump_migrated");
+        db.update("INSERT INTO users (id, name) VALUES (1, 'alice')");
+        db.update("INSERT INTO products (id, name, price) VALUES (1, 'Laptop', 10), "
+            + "(2, 'Mouse', 2)");
+        db.update("INSERT INTO orders (id, price, user_id, product_id) VALUES "
+            + "(1, 10, 1, 1), (2, 2, 1, 2), (3, NULL, 1, NULL)");
+
+        flyway(db.getDataSource()).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        assertEquals(List.of(Map.of("order_id", 1L, "product_id", 1L),
+                Map.of("order_id", 2L, "product_id", 2L)),
+            db.queryForList("SELECT order_id, product_id FROM order_product ORDER BY order_id")
+                .stream().map(Map::copyOf).toList());
+        Map<String, String> orders = columns(db).get("orders");
+        assertFalse(orders.containsKey("product_id"), orders.toString());
+        assertEquals(List.of("created_at", "id", "price", "user_id", "version"),
+            orders.keySet().stream().sorted().toList());
+        assertEquals(3, db.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+    }
+
+    private static JdbcTemplate restoreDump(String name) throws IOException {
+        Map<String, String> statements = new LinkedHashMap<>();
+        Matcher matcher = CREATE_TABLE.matcher(Files.readString(DUMP, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            statements.put(matcher.group(1),
+                "CREATE TABLE `" + matcher.group(1) + "` (" + matcher.group(2) + ")");
+        }
+        assertEquals(TABLES.stream().sorted().toList(),
+            statements.keySet().stream().sorted().toList());
+
+        JdbcTemplate db = database(name);
+        TABLES.forEach(table -> db.execute(statements.get(table)));
+        return db;
+    }
+
+    private static JdbcTemplate database(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "sa", ""));
+    }
+
+    private static FluentConfiguration flyway(DataSource dataSource) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+    }
+
+    /** Column types and nullability per table, without Flyway's own table. */
+    private static Map<String, Map<String, String>> columns(JdbcTemplate db) {
+        Map<String, Map<String, String>> tables = new LinkedHashMap<>();
+        db.query("""
+            SELECT table_name, column_name, data_type, character_maximum_length, is_nullable
+            FROM information_schema.columns
+            WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history'
+            ORDER BY table_name, column_name
+            """, row -> {
+                tables.computeIfAbsent(row.getString(1), t -> new LinkedHashMap<>())
+                    .put(row.getString(2), row.getString(3) + "(" + row.getObject(4) + ") "
+                        + row.getString(5));
+            });
+        return tables;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.shop.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks the query plans of the
+ * {@link OrderRepository} lookups with {@code EXPLAIN}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:schema_migration;"
+    + "MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM order_product");
+        jdbcTemplate.execute("DELETE FROM orders");
+        jdbcTemplate.execute("DELETE FROM products");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void testAllMigrationsApplied() {
+        List<String> versions = jdbcTemplate.queryForList(
+            "SELECT \"version\" FROM \"flyway_schema_history\""
+                + " WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY 1",
+            String.class);
+
+        assertEquals(List.of("1", "1.1", "2", "3", "4", "5", "6", "7"), versions);
+    }
+
+    @Test
+    void testFindOrdersByProductNameUsesNameIndex() {
+        String plan = explain("""
+            SELECT o.* FROM orders o
+            JOIN order_product op ON o.id = op.order_id
+            JOIN products p ON p.id = op.product_id
+            WHERE p.name = 'Laptop'
+            """);
+
+        assertTrue(plan.contains("idx_products_name"), plan);
+        assertTrue(plan.contains("primary_key"), plan);
+    }
+
+    @Test
+    void testFindOrdersByUserNameUsesNameIndex() {
+        String plan = explain("""
+            SELECT o.* FROM orders o
+            JOIN users u ON u.id = o.user_id
+            WHERE u.name = 'alice'
+            """);
+
+        assertTrue(plan.contains("idx_users_name"), plan);
+    }
+
+    @Test
+    void testJoinTableRejectsDuplicateRows() {
+        jdbcTemplate.update("INSERT INTO users (id, name) VALUES (1, 'alice')");
+        jdbcTemplate.update("INSERT INTO products (id, name, price) VALUES (1, 'Laptop', 10)");
+        jdbcTemplate.update("INSERT INTO orders (id, user_id) VALUES (1, 1)");
+        jdbcTemplate.update("INSERT INTO order_product (order_id, product_id) VALUES (1, 1)");
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+            "INSERT INTO order_product (order_id, product_id) VALUES (1, 1)"));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+    }
+}
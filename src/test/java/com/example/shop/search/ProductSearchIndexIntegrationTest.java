@@ -0,0 +1,108 @@
+package com.example.shop.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.shop.models.Category;
+import com.example.shop.models.Product;
+import com.example.shop.outbox.OutboxDispatcher;
+import com.example.shop.search.ProductSearchIndex.SearchHit;
+import com.example.shop.search.ProductSearchIndex.SearchMode;
+import com.example.shop.search.ProductSearchIndex.SearchQuery;
+import com.example.shop.services.ShopService;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ProductSearchIndexIntegrationTest {
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    private Category phones;
+    private Category audio;
+    private String tag;
+
+    @BeforeEach
+    void setUp() {
+        tag = "t" + System.nanoTime();
+        phones = shopService.saveCategory(new Category("Phones " + tag));
+        audio = shopService.saveCategory(new Category("Audio " + tag));
+    }
+
+    @Test
+    void testPrefixSearchWithFilters() {
+        Product iphone = save("Apple iPhone 15 " + tag, 999.0, phones);
+        Product headphones = save("Apple AirPods " + tag, 199.0, audio);
+        save("Samsung Galaxy " + tag, 899.0, phones);
+
+        assertEquals(List.of(headphones.getId(), iphone.getId()),
+            ids(query(tag + " app", SearchMode.PREFIX, null, null, null)));
+        assertEquals(List.of(iphone.getId()),
+            ids(query(tag + " apple", SearchMode.PREFIX, Set.of(phones.getId()), null, null)));
+        assertEquals(List.of(headphones.getId()),
+            ids(query(tag + " apple", SearchMode.PREFIX, null, 100.0, 500.0)));
+        assertTrue(query(tag + " xiaomi", SearchMode.PREFIX, null, null, null).isEmpty());
+    }
+
+    @Test
+    void testFuzzySearchToleratesTypos() {
+        Product galaxy = save("Samsung Galaxy " + tag, 899.0, phones);
+        save("Apple iPhone " + tag, 999.0, phones);
+
+        List<SearchHit> hits = query("samsnug galaxi " + tag, SearchMode.FUZZY,
+            Set.of(phones.getId()), null, null);
+
+        assertEquals(galaxy.getId(), hits.get(0).id());
+        assertTrue(hits.get(0).score() < 1.0);
+    }
+
+    @Test
+    void testIndexFollowsUpdatesAndDeletes() {
+        Product product = save("Walkman " + tag, 50.0, audio);
+        assertEquals(List.of(product.getId()),
+            ids(query(tag + " walk", SearchMode.PREFIX, null, null, null)));
+
+        Product update = new Product("Discman " + tag, 60.0);
+        update.setCategories(List.of(phones));
+        shopService.updateProduct(product.getId(), update);
+        outboxDispatcher.dispatch();
+
+        assertTrue(query(tag + " walk", SearchMode.PREFIX, null, null, null).isEmpty());
+        List<SearchHit> hits = query(tag + " disc", SearchMode.PREFIX,
+            Set.of(phones.getId()), null, null);
+        assertEquals(List.of(product.getId()), ids(hits));
+        assertEquals(60.0, hits.get(0).price());
+
+        shopService.deleteProduct(product.getId());
+        outboxDispatcher.dispatch();
+        assertTrue(query(tag + " disc", SearchMode.PREFIX, null, null, null).isEmpty());
+    }
+
+    private Product save(String name, double price, Category category) {
+        Product product = new Product(name, price);
+        product.setCategories(List.of(category));
+        Product saved = shopService.saveProduct(product);
+        outboxDispatcher.dispatch();
+        return saved;
+    }
+
+    private List<SearchHit> query(String text, SearchMode mode, Set<Long> categories,
+                                  Double minPrice, Double maxPrice) {
+        return searchIndex.search(new SearchQuery(text, mode, categories, minPrice, maxPrice, 20));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
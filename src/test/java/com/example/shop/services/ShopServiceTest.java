@@ -9,10 +9,13 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.shop.cache.CatalogCache;
+import com.example.shop.changes.ChangeLog;
 import com.example.shop.models.Category;
 import com.example.shop.models.Order;
 import com.example.shop.models.Product;
 import com.example.shop.models.User;
+import com.example.shop.outbox.Outbox;
 import com.example.shop.repositories.CategoryRepository;
 import com.example.shop.repositories.OrderRepository;
 import com.example.shop.repositories.ProductRepository;
@@ -50,6 +53,15 @@ class ShopServiceTest {
     @Mock
     private Cache<String, List<Order>> orderByUserNameCache;
 
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private ChangeLog changeLog;
+
     @InjectMocks
     private ShopService shopService;
 
@@ -0,0 +1,124 @@
+package com.example.shop.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.shop.cache.OrderCacheWarmer;
+import com.example.shop.models.Order;
+import com.example.shop.models.Product;
+import com.example.shop.models.User;
+import com.example.shop.services.ShopService;
+import com.example.shop.stats.HeavyHitters.Kind;
+import com.example.shop.stats.SpaceSaving.Item;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "shop.cache.prewarm.interval-ms=3600000",
+    "shop.cache.prewarm.min-hits=3"})
+@AutoConfigureMockMvc
+class HeavyHittersIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HeavyHitters heavyHitters;
+
+    @Autowired
+    private OrderCacheWarmer orderCacheWarmer;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private Cache<String, List<Order>> orderCache;
+
+    @Autowired
+    private Cache<String, List<Order>> orderByUserNameCache;
+
+    @BeforeEach
+    void setUp() {
+        for (Kind kind : Kind.values()) {
+            heavyHitters.clear(kind);
+        }
+        orderCache.invalidateAll();
+        orderByUserNameCache.invalidateAll();
+    }
+
+    @Test
+    void testSpaceSavingKeepsHeavyKeysInFixedMemory() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer("hot");
+            if (i % 2 == 0) {
+                sketch.offer("warm");
+            }
+            sketch.offer("cold-" + i);
+        }
+
+        assertEquals(10, sketch.size());
+        List<Item> top = sketch.top(2);
+        assertEquals(List.of("hot", "warm"), top.stream().map(Item::key).toList());
+        assertTrue(top.get(0).guaranteed() <= 10_000 && top.get(0).count() >= 10_000);
+        assertTrue(top.get(1).guaranteed() <= 5_000 && top.get(1).count() >= 5_000);
+
+        sketch.decay();
+        assertTrue(sketch.estimate("hot") >= 5_000);
+    }
+
+    @Test
+    void testTracksLookupsAndEndpoints() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/orders/by-product?productName=Laptop"));
+        }
+        mockMvc.perform(get("/api/orders/by-product?productName=Mouse"));
+        mockMvc.perform(get("/api/orders/by-username?userName=alice"));
+
+        mockMvc.perform(get("/visits/top?kind=product_names&limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.PRODUCT_NAMES[0].key").value("Laptop"))
+            .andExpect(jsonPath("$.PRODUCT_NAMES[0].count").value(5))
+            .andExpect(jsonPath("$.PRODUCT_NAMES.length()").value(1));
+        mockMvc.perform(get("/visits/top"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ENDPOINTS[0].key").value("/api/orders/by-product"))
+            .andExpect(jsonPath("$.USER_NAMES[0].key").value("alice"))
+            .andExpect(jsonPath("$.CLIENTS[0].key").value("127.0.0.1"));
+        mockMvc.perform(get("/visits/top?kind=hosts"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testWarmerReloadsHotKeysAfterOrderWrite() throws Exception {
+        User user = shopService.saveUser(new User("warm-" + System.nanoTime()));
+        Product product = new Product("Warm " + System.nanoTime(), 5.0);
+        product.setCategories(List.of());
+        product = shopService.saveProduct(product);
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/orders/by-product?productName=" + product.getName()));
+            mockMvc.perform(get("/api/orders/by-username?userName=" + user.getName()));
+        }
+        mockMvc.perform(get("/api/orders/by-product?productName=Rare"));
+
+        // Новый заказ сбрасывает кэши заказов целиком
+        shopService.saveOrder(new Order(user, List.of(product)));
+        assertFalse(orderCache.asMap().containsKey(product.getName()));
+
+        assertEquals(2, orderCacheWarmer.warm());
+        assertEquals(1, orderCache.getIfPresent(product.getName()).size());
+        assertEquals(1, orderByUserNameCache.getIfPresent(user.getName()).size());
+        assertFalse(orderCache.asMap().containsKey("Rare"));
+        assertEquals(0, orderCacheWarmer.warm());
+    }
+}